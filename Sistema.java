@@ -8,7 +8,7 @@ public class Sistema {
     public Programs progs;
 
     public Sistema(int tamMem) {
-        hw = new HW(tamMem);
+        hw = new HW(tamMem, 1, true); // demonstração mostra cada instrução executada
         so = new SO(hw);
         hw.cpu.setUtilities(so.utils);
         progs = new Programs();
@@ -0,0 +1,70 @@
+package exemplos;
+
+import hardware.HW;
+import hardware.Word;
+import memory.MemoryManagerPonte;
+import programs.Program;
+import programs.Programs;
+import software.Metricas;
+import software.ProcessManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exemplo prático de exportação das métricas do SO
+ *
+ * Este exemplo mostra:
+ * - Publicação do registro no JMX (jconsole: software/Metricas/exemplo)
+ * - Despejo periódico no formato texto do Prometheus com -Dso.metricas=arquivo.prom
+ * - Texto do Prometheus ao final da execução
+ */
+public class ExemploMetricas {
+
+    public static void main(String[] args) {
+        System.out.println("=== EXEMPLO: MÉTRICAS DO SO ===\n");
+
+        // Inicializa sistema
+        HW hardware = new HW(2048);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(2048, 16);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        processManager.setQuantum(5);
+
+        // Programas da biblioteca
+        Programs biblioteca = new Programs();
+        List<Program> programas = new ArrayList<>();
+        for (String nome : new String[] {"progMinimo", "fibonacci10", "fatorial"}) {
+            Word[] programa = biblioteca.retrieveProgram(nome);
+            if (programa != null) {
+                programas.add(new Program(nome, programa));
+            }
+        }
+
+        // Métricas no JMX e, com -Dso.metricas=arquivo.prom, despejadas no arquivo a cada segundo
+        Metricas metricas = processManager.getMetricas();
+        metricas.registrarJmx("exemplo");
+        String arquivo = System.getProperty("so.metricas");
+        if (arquivo != null) {
+            metricas.iniciarDespejo(Path.of(arquivo), 1000);
+        }
+
+        // Executa
+        processManager.executarProcessosConcorrentes(programas);
+
+        System.out.println("\n=== Métricas (texto do Prometheus) ===");
+        System.out.print(metricas.getTextoPrometheus());
+        if (arquivo != null) {
+            try {
+                metricas.gravar(Path.of(arquivo)); // Valores finais
+            } catch (IOException e) {
+                System.out.println("Falha ao gravar métricas: " + e.getMessage());
+            }
+        }
+        metricas.encerrar();
+        processManager.desligar();
+
+        System.out.println("\n=== EXEMPLO CONCLUÍDO ===");
+    }
+}
@@ -7,6 +7,8 @@ import hardware.Interrupts;
 import software.InterruptHandling;
 import software.SysCallHandling;
 import software.Utilities;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 public class CPU {
 		private int maxInt; // valores maximo e minimo para inteiros nesta cpu
 		private int minInt;
@@ -15,30 +17,55 @@ public class CPU {
 		private Word ir;    // instruction register,
 		private int[] reg;  // registradores da CPU
 		private Interrupts irpt; // durante instrucao, interrupcao pode ser sinalizada
+		private int[] tabelaPaginas; // tabela de paginas do processo em execucao - null: enderecamento fisico direto
 		                    // FIM CONTEXTO DA CPU: tudo que precisa sobre o estado de um processo para
 		                    // executa-lo
 		                    // nas proximas versoes isto pode modificar
 
 		private Word[] m;   // m é o array de memória "física", CPU tem uma ref a m para acessar
+		private Memory mem; // marca os blocos escritos para o reinicio rapido (Memory.limpar)
+		private int tamPg;  // tamanho da pagina usado pela MMU na traducao de enderecos
+		private int enderecoFalta; // endereco logico que gerou a ultima falta de pagina
 
 		private InterruptHandling ih;    // significa desvio para rotinas de tratamento de Int - se int ligada, desvia
 		private SysCallHandling sysCall; // significa desvio para tratamento de chamadas de sistema
 
 		private boolean cpuStop;    // flag para parar CPU - caso de interrupcao que acaba o processo, ou chamada stop - 
-									// nesta versao acaba o sistema no fim do prog
+									// so acontece quando o tratador (SO) nao tem outro processo para executar
+
+		private int fatiaTempo;     // timer: ciclos entre interrupcoes intTimer (0 = timer desligado)
+		private int ciclosNaFatia;  // ciclos executados desde o ultimo disparo do timer ou troca de contexto
+		private long ciclos;        // total de ciclos executados pela CPU
+		private volatile boolean fimDeIO; // sinalizado pela thread do dispositivo - vira intIO no proximo ciclo
+		private final Object parada = new Object(); // monitor da CPU ociosa (HLT) esperando uma interrupcao
+		private boolean despertada; // interrupcao entre processadores pendente - acorda a CPU parada
+		private RelogioSimulado relogio; // tempo simulado compartilhado com os demais nucleos e dispositivos
+		private long instante;      // tempo local da CPU - empurra o relogio nas fronteiras (interrupcao, syscall, troca de
+		                            // contexto) ou ao alcancar o proximo evento; alcanca o relogio ao acordar ou trocar contexto
 
 		                            // auxilio aa depuração
-		private boolean debug;      // se true entao mostra cada instrucao em execucao
-		private Utilities u;        // para debug (dump)
+		private Rastreador rastreador; // null: sem rastreio - o ciclo de instrucao nao faz trabalho de depuracao
+		private Utilities u;        // para dump da memória
+
+		public CPU(Memory _mem, boolean _debug) { // debug: instala o rastro legivel (RastreadorLog)
+			this(_mem);
+			if (_debug) {
+				rastreador = new RastreadorLog();
+			}
+		}
 
-		public CPU(Memory _mem, boolean _debug) { // ref a MEMORIA passada na criacao da CPU
+		public CPU(Memory _mem) { // ref a MEMORIA passada na criacao da CPU
 			maxInt = 32767;            // capacidade de representacao modelada
 			minInt = -32767;           // se exceder deve gerar interrupcao de overflow
 			m = _mem.pos;              // usa o atributo 'm' para acessar a memoria, só para ficar mais pratico
+			mem = _mem;
 			reg = new int[10];         // aloca o espaço dos registradores - regs 8 e 9 usados somente para IO
+			tamPg = 1;
+			relogio = new RelogioSimulado(); // CPU isolada; o HW troca pelo relogio compartilhado
+		}
 
-			debug = _debug;            // se true, print da instrucao em execucao
-
+		public void setRelogio(RelogioSimulado _relogio) {
+			relogio = _relogio;
 		}
 
 		public void setAddressOfHandlers(InterruptHandling _ih, SysCallHandling _sysCall) {
@@ -46,6 +73,14 @@ public class CPU {
 			sysCall = _sysCall;        // aponta para rotinas de tratamento de chamadas de sistema
 		}
 
+		public void setRastreador(Rastreador _rastreador) { // null desliga o rastreio
+			rastreador = _rastreador;
+		}
+
+		public Rastreador getRastreador() {
+			return rastreador;
+		}
+
 		public void setUtilities(Utilities _u) {
 			u = _u;                     // aponta para rotinas utilitárias - fazer dump da memória na tela
 		}
@@ -62,6 +97,24 @@ public class CPU {
 			}
 		}
 
+		private int traduz(int e) {   // MMU: converte endereco logico em fisico; -1 se o acesso gerou interrupcao
+			if (tabelaPaginas == null) {   // sem tabela de paginas: endereco ja é fisico
+				return legal(e) ? e : -1;
+			}
+			if (e < 0) {
+				irpt = Interrupts.intEnderecoInvalido;
+				return -1;
+			}
+			int pagina = e / tamPg;
+			if (pagina >= tabelaPaginas.length || tabelaPaginas[pagina] < 0) {
+				irpt = Interrupts.intFaltaDePagina;       // pagina sem frame - o SO decide se aloca ou encerra o processo
+				enderecoFalta = e;
+				return -1;
+			}
+			int fisico = tabelaPaginas[pagina] * tamPg + e % tamPg;
+			return legal(fisico) ? fisico : -1;
+		}
+
 		private boolean testOverflow(int v) {             // toda operacao matematica deve avaliar se ocorre overflow
 			if ((v < minInt) || (v > maxInt)) {
 				irpt = Interrupts.intOverflow;            // se houver liga interrupcao no meio da exec da instrucao
@@ -74,7 +127,98 @@ public class CPU {
 		public void setContext(int _pc) {                 // usado para setar o contexto da cpu para rodar um processo
 			                                              // [ nesta versao é somente colocar o PC na posicao 0 ]
 			pc = _pc;                                     // pc cfe endereco logico
+			relogio.avancarPara(instante);                // fronteira de despacho: publica o tempo local
+			instante = Math.max(instante, relogio.agora()); // processo pode ter ficado pronto no futuro desta CPU
 			irpt = Interrupts.noInterrupt;                // reset da interrupcao registrada
+			ciclosNaFatia = 0;
+		}
+
+		public void setContext(int _pc, int[] _reg, int[] _tabelaPaginas) { // contexto completo de um processo
+			setContext(_pc);
+			System.arraycopy(_reg, 0, reg, 0, Math.min(_reg.length, reg.length));
+			tabelaPaginas = _tabelaPaginas;
+		}
+
+		public void reiniciar() {                         // estado de boot: zera contexto e contadores; mantem
+			pc = 0;                                       // tratadores, MMU, timer, relogio e rastreador
+			ir = null;
+			Arrays.fill(reg, 0);
+			irpt = Interrupts.noInterrupt;
+			tabelaPaginas = null;
+			enderecoFalta = 0;
+			cpuStop = false;
+			ciclosNaFatia = 0;
+			ciclos = 0;
+			instante = 0;
+			fimDeIO = false;
+			synchronized (parada) {
+				despertada = false;
+			}
+			Rastreador r = rastreador;
+			if (r != null) {
+				r.reiniciado();
+			}
+		}
+
+		public void setTabelaPaginas(int[] _tabelaPaginas) { // SO troca a tabela (ex: pagina alocada sob demanda)
+			tabelaPaginas = _tabelaPaginas;
+		}
+
+		public void setTamanhoPagina(int _tamPg) {
+			tamPg = _tamPg;
+		}
+
+		public void setTimer(int _fatiaTempo) {           // programa o timer; 0 desliga
+			fatiaTempo = _fatiaTempo;
+			ciclosNaFatia = 0;
+		}
+
+		public void sinalizarFimDeIO() {                  // chamado pelo dispositivo (outra thread)
+			fimDeIO = true;
+			despertar();
+		}
+
+		public void despertar() {                         // interrupcao entre processadores: outro nucleo avisa
+			synchronized (parada) {                       // que ha trabalho ou que o sistema terminou
+				despertada = true;
+				parada.notifyAll();
+			}
+		}
+
+		public void aguardarInterrupcao() throws InterruptedException { // HLT: CPU ociosa dorme ate fim de E/S ou
+			synchronized (parada) {                                      // interrupcao de outro nucleo
+				while (!fimDeIO && !despertada) {
+					parada.wait();
+				}
+				despertada = false;
+				fimDeIO = false;                          // o SO retira as conclusoes ao acordar
+				instante = Math.max(instante, relogio.agora()); // tempo passou enquanto parada
+			}
+		}
+
+		public boolean aguardarInterrupcao(long prazoNanos) throws InterruptedException { // HLT com timer de ociosidade:
+			synchronized (parada) {                                      // false se o timer expirou antes de uma interrupcao
+				long limite = System.nanoTime() + prazoNanos;
+				while (!fimDeIO && !despertada) {
+					long resta = limite - System.nanoTime();
+					if (resta <= 0) {
+						return false;
+					}
+					TimeUnit.NANOSECONDS.timedWait(parada, resta);
+				}
+				despertada = false;
+				fimDeIO = false;
+				instante = Math.max(instante, relogio.agora());
+				return true;
+			}
+		}
+
+		public int getEnderecoFalta() {
+			return enderecoFalta;
+		}
+
+		public long getCiclos() {
+			return ciclos;
 		}
 
 		public int getPc() {
@@ -85,208 +229,270 @@ public class CPU {
 			return reg[i];
 		}
 
+		public void setReg(int i, int valor) {            // SO devolve resultado de chamada de sistema
+			reg[i] = valor;
+		}
+
 		public void run() {                               // execucao da CPU supoe que o contexto da CPU, vide acima, 
 														  // esta devidamente setado
 			cpuStop = false;
-			while (!cpuStop) {      // ciclo de instrucoes. acaba cfe resultado da exec da instrucao, veja cada caso.
-
-				// --------------------------------------------------------------------------------------------------
-				// FASE DE FETCH
-				if (legal(pc)) { // pc valido
-					ir = m[pc];  // <<<<<<<<<<<< AQUI faz FETCH - busca posicao da memoria apontada por pc, guarda em ir
-					             // resto é dump de debug
-					if (debug) {
-						System.out.print("                                              regs: ");
-						for (int i = 0; i < 10; i++) {
-							System.out.print(" r[" + i + "]:" + reg[i]);
-						}
-						;
-						System.out.println();
-					}
-					if (debug) {
-						System.out.print("                      pc: " + pc + "       exec: ");
-						u.dump(ir);
-					}
+			while (!cpuStop) {      // ciclo de instrucoes. acaba quando o SO nao tem mais o que executar
+				step();
+			}
+		}
 
-				// --------------------------------------------------------------------------------------------------
-				// FASE DE EXECUCAO DA INSTRUCAO CARREGADA NO ir
-					switch (ir.opc) {       // conforme o opcode (código de operação) executa
+		public void step() {                              // executa um unico ciclo de instrucao
+			int fis;                                      // endereco fisico apos traducao pela MMU
+			Rastreador r = rastreador;                    // lido uma vez por ciclo; null no caminho normal
+			ciclos++;
+			ciclosNaFatia++;
+			if (++instante >= relogio.proximoInstante()) { // evento vencido (ex: fim de E/S modelada): so entao toca o
+				relogio.avancarPara(instante);            // relogio compartilhado - sem escrita disputada por instrucao
+			}
+
+			// --------------------------------------------------------------------------------------------------
+			// FASE DE FETCH
+			fis = traduz(pc);
+			if (fis >= 0) { // pc valido
+				ir = m[fis]; // <<<<<<<<<<<< AQUI faz FETCH - busca posicao da memoria apontada por pc, guarda em ir
+				if (r != null) {
+					r.instrucao(pc, ir, reg);
+				}
+
+			// --------------------------------------------------------------------------------------------------
+			// FASE DE EXECUCAO DA INSTRUCAO CARREGADA NO ir
+				switch (ir.opc) {       // conforme o opcode (código de operação) executa
 
-						// Instrucoes de Busca e Armazenamento em Memoria
-						case LDI: // Rd ← k        veja a tabela de instrucoes do HW simulado para entender a semantica da instrucao
-							reg[ir.ra] = ir.p;
+					// Instrucoes de Busca e Armazenamento em Memoria
+					case LDI: // Rd ← k        veja a tabela de instrucoes do HW simulado para entender a semantica da instrucao
+						reg[ir.ra] = ir.p;
+						pc++;
+						break;
+					case LDD: // Rd <- [A]
+						fis = traduz(ir.p);
+						if (fis >= 0) {
+							if (r != null) {
+								r.leitura(ir.p, fis);
+							}
+							reg[ir.ra] = m[fis].p;
 							pc++;
-							break;
-						case LDD: // Rd <- [A]
-							if (legal(ir.p)) {
-								reg[ir.ra] = m[ir.p].p;
-								pc++;
+						}
+						break;
+					case LDX: // RD <- [RS] // NOVA
+						fis = traduz(reg[ir.rb]);
+						if (fis >= 0) {
+							if (r != null) {
+								r.leitura(reg[ir.rb], fis); // antes de Rd mudar (Rd pode ser Rs)
 							}
-							break;
-						case LDX: // RD <- [RS] // NOVA
-							if (legal(reg[ir.rb])) {
-								reg[ir.ra] = m[reg[ir.rb]].p;
-								pc++;
+							reg[ir.ra] = m[fis].p;
+							pc++;
+						}
+						break;
+					case STD: // [A] ← Rs
+						fis = traduz(ir.p);
+						if (fis >= 0) {
+							m[fis].opc = Opcode.DATA;
+							m[fis].p = reg[ir.ra];
+							mem.marcarSuja(fis);
+							pc++;
+							if (r != null) {
+								r.escrita(ir.p, fis, m[fis]);
 							}
-							break;
-						case STD: // [A] ← Rs
-							if (legal(ir.p)) {
-								m[ir.p].opc = Opcode.DATA;
-								m[ir.p].p = reg[ir.ra];
-								pc++;
-                                if (debug) 
-								    {   System.out.print("                                  ");   
-									    u.dump(ir.p,ir.p+1);							
-									}
-								}
-							break;
-						case STX: // [Rd] ←Rs
-							if (legal(reg[ir.ra])) {
-								m[reg[ir.ra]].opc = Opcode.DATA;
-								m[reg[ir.ra]].p = reg[ir.rb];
-								pc++;
+						}
+						break;
+					case STX: // [Rd] ←Rs
+						fis = traduz(reg[ir.ra]);
+						if (fis >= 0) {
+							m[fis].opc = Opcode.DATA;
+							m[fis].p = reg[ir.rb];
+							mem.marcarSuja(fis);
+							pc++;
+							if (r != null) {
+								r.escrita(reg[ir.ra], fis, m[fis]);
 							}
-							;
-							break;
-						case MOVE: // RD <- RS
-							reg[ir.ra] = reg[ir.rb];
+						}
+						;
+						break;
+					case MOVE: // RD <- RS
+						reg[ir.ra] = reg[ir.rb];
+						pc++;
+						break;
+					// Instrucoes Aritmeticas
+					case ADD: // Rd ← Rd + Rs
+						reg[ir.ra] = reg[ir.ra] + reg[ir.rb];
+						testOverflow(reg[ir.ra]);
+						pc++;
+						break;
+					case ADDI: // Rd ← Rd + k
+						reg[ir.ra] = reg[ir.ra] + ir.p;
+						testOverflow(reg[ir.ra]);
+						pc++;
+						break;
+					case SUB: // Rd ← Rd - Rs
+						reg[ir.ra] = reg[ir.ra] - reg[ir.rb];
+						testOverflow(reg[ir.ra]);
+						pc++;
+						break;
+					case SUBI: // RD <- RD - k // NOVA
+						reg[ir.ra] = reg[ir.ra] - ir.p;
+						testOverflow(reg[ir.ra]);
+						pc++;
+						break;
+					case MULT: // Rd <- Rd * Rs
+						reg[ir.ra] = reg[ir.ra] * reg[ir.rb];
+						testOverflow(reg[ir.ra]);
+						pc++;
+						break;
+
+					// Instrucoes JUMP
+					case JMP: // PC <- k
+						pc = ir.p;
+						break;
+					case JMPIM: // PC <- [A]
+						fis = traduz(ir.p);
+						if (fis >= 0) {
+							if (r != null) {
+								r.leitura(ir.p, fis);
+							}
+							pc = m[fis].p;
+						}
+						break;
+					case JMPIG: // If Rc > 0 Then PC ← Rs Else PC ← PC +1
+						if (reg[ir.rb] > 0) {
+							pc = reg[ir.ra];
+						} else {
 							pc++;
-							break;
-						// Instrucoes Aritmeticas
-						case ADD: // Rd ← Rd + Rs
-							reg[ir.ra] = reg[ir.ra] + reg[ir.rb];
-							testOverflow(reg[ir.ra]);
+						}
+						break;
+					case JMPIGK: // If RC > 0 then PC <- k else PC++
+						if (reg[ir.rb] > 0) {
+							pc = ir.p;
+						} else {
 							pc++;
-							break;
-						case ADDI: // Rd ← Rd + k
-							reg[ir.ra] = reg[ir.ra] + ir.p;
-							testOverflow(reg[ir.ra]);
+						}
+						break;
+					case JMPILK: // If RC < 0 then PC <- k else PC++
+						if (reg[ir.rb] < 0) {
+							pc = ir.p;
+						} else {
 							pc++;
-							break;
-						case SUB: // Rd ← Rd - Rs
-							reg[ir.ra] = reg[ir.ra] - reg[ir.rb];
-							testOverflow(reg[ir.ra]);
+						}
+						break;
+					case JMPIEK: // If RC = 0 then PC <- k else PC++
+						if (reg[ir.rb] == 0) {
+							pc = ir.p;
+						} else {
 							pc++;
-							break;
-						case SUBI: // RD <- RD - k // NOVA
-							reg[ir.ra] = reg[ir.ra] - ir.p;
-							testOverflow(reg[ir.ra]);
+						}
+						break;
+					case JMPIL: // if Rc < 0 then PC <- Rs Else PC <- PC +1
+						if (reg[ir.rb] < 0) {
+							pc = reg[ir.ra];
+						} else {
 							pc++;
-							break;
-						case MULT: // Rd <- Rd * Rs
-							reg[ir.ra] = reg[ir.ra] * reg[ir.rb];
-							testOverflow(reg[ir.ra]);
+						}
+						break;
+					case JMPIE: // If Rc = 0 Then PC <- Rs Else PC <- PC +1
+						if (reg[ir.rb] == 0) {
+							pc = reg[ir.ra];
+						} else {
 							pc++;
-							break;
-
-						// Instrucoes JUMP
-						case JMP: // PC <- k
-							pc = ir.p;
-							break;
-						case JMPIM: // PC <- [A]
-							      pc = m[ir.p].p;
-							break;
-						case JMPIG: // If Rc > 0 Then PC ← Rs Else PC ← PC +1
-							if (reg[ir.rb] > 0) {
-								pc = reg[ir.ra];
-							} else {
-								pc++;
-							}
-							break;
-						case JMPIGK: // If RC > 0 then PC <- k else PC++
-							if (reg[ir.rb] > 0) {
-								pc = ir.p;
-							} else {
-								pc++;
-							}
-							break;
-						case JMPILK: // If RC < 0 then PC <- k else PC++
-							if (reg[ir.rb] < 0) {
-								pc = ir.p;
-							} else {
-								pc++;
+						}
+						break;
+					case JMPIGM: // If RC > 0 then PC <- [A] else PC++
+						fis = traduz(ir.p);
+					    if (fis >= 0){
+							if (r != null) {
+								r.leitura(ir.p, fis);
 							}
-							break;
-						case JMPIEK: // If RC = 0 then PC <- k else PC++
-							if (reg[ir.rb] == 0) {
-								pc = ir.p;
-							} else {
-								pc++;
+						    if (reg[ir.rb] > 0) {
+							   pc = m[fis].p;
+						    } else {
+							  pc++;
+						   }
+					    }
+						break;
+					case JMPILM: // If RC < 0 then PC <- k else PC++
+						fis = traduz(ir.p);
+						if (fis >= 0) {
+							if (r != null) {
+								r.leitura(ir.p, fis);
 							}
-							break;
-						case JMPIL: // if Rc < 0 then PC <- Rs Else PC <- PC +1
 							if (reg[ir.rb] < 0) {
-								pc = reg[ir.ra];
+								pc = m[fis].p;
 							} else {
 								pc++;
 							}
-							break;
-						case JMPIE: // If Rc = 0 Then PC <- Rs Else PC <- PC +1
-							if (reg[ir.rb] == 0) {
-								pc = reg[ir.ra];
-							} else {
-								pc++;
-							}
-							break;
-						case JMPIGM: // If RC > 0 then PC <- [A] else PC++
-						    if (legal(ir.p)){
-							    if (reg[ir.rb] > 0) {
-								   pc = m[ir.p].p;
-							    } else {
-								  pc++;
-							   }
-						    }
-							break;
-						case JMPILM: // If RC < 0 then PC <- k else PC++
-							if (reg[ir.rb] < 0) {
-								pc = m[ir.p].p;
-							} else {
-								pc++;
+						}
+						break;
+					case JMPIEM: // If RC = 0 then PC <- k else PC++
+						fis = traduz(ir.p);
+						if (fis >= 0) {
+							if (r != null) {
+								r.leitura(ir.p, fis);
 							}
-							break;
-						case JMPIEM: // If RC = 0 then PC <- k else PC++
 							if (reg[ir.rb] == 0) {
-								pc = m[ir.p].p;
-							} else {
-								pc++;
-							}
-							break;
-						case JMPIGT: // If RS>RC then PC <- k else PC++
-							if (reg[ir.ra] > reg[ir.rb]) {
-								pc = ir.p;
+								pc = m[fis].p;
 							} else {
 								pc++;
 							}
-							break;
+						}
+						break;
+					case JMPIGT: // If RS>RC then PC <- k else PC++
+						if (reg[ir.ra] > reg[ir.rb]) {
+							pc = ir.p;
+						} else {
+							pc++;
+						}
+						break;
 
-						case DATA: // pc está sobre área supostamente de dados
-							irpt = Interrupts.intInstrucaoInvalida;
-							break;
+					case DATA: // pc está sobre área supostamente de dados
+						irpt = Interrupts.intInstrucaoInvalida;
+						break;
 
-						// Chamadas de sistema
-						case SYSCALL:
-							sysCall.handle(); // <<<<< aqui desvia para rotina de chamada de sistema, no momento so
-												// temos IO
-							pc++;
-							break;
+					// Chamadas de sistema
+					case SYSCALL:
+						pc++;             // retorno da chamada: se o processo bloquear, o contexto salvo ja aponta a proxima
+						relogio.avancarPara(instante);    // SO le o tempo simulado (ex: prazo do sleep)
+						if (!sysCall.handle()) { // <<<<< aqui desvia para rotina de chamada de sistema, no momento so
+											     // temos IO
+							cpuStop = true;
+						}
+						break;
 
-						case STOP: // por enquanto, para execucao
-							sysCall.stop();
+					case STOP: // fim do processo - SO pode carregar outro processo na CPU
+						relogio.avancarPara(instante);
+						if (!sysCall.stop()) {
 							cpuStop = true;
-							break;
+						}
+						break;
 
-						// Inexistente
-						default:
-							irpt = Interrupts.intInstrucaoInvalida;
-							break;
-					}
+					// Inexistente
+					default:
+						irpt = Interrupts.intInstrucaoInvalida;
+						break;
 				}
-				// --------------------------------------------------------------------------------------------------
-				// VERIFICA INTERRUPÇÃO !!! - TERCEIRA FASE DO CICLO DE INSTRUÇÕES
-				if (irpt != Interrupts.noInterrupt) { // existe interrupção
-					ih.handle(irpt);                  // desvia para rotina de tratamento - esta rotina é do SO
-					cpuStop = true;                   // nesta versao, para a CPU
+			}
+			// --------------------------------------------------------------------------------------------------
+			// VERIFICA INTERRUPÇÃO !!! - TERCEIRA FASE DO CICLO DE INSTRUÇÕES
+			if (irpt == Interrupts.noInterrupt && fatiaTempo > 0 && ciclosNaFatia >= fatiaTempo) {
+				irpt = Interrupts.intTimer;       // fatia de tempo esgotada
+			}
+			if (irpt == Interrupts.noInterrupt && fimDeIO) {
+				fimDeIO = false;
+				irpt = Interrupts.intIO;          // E/S concluida - SO desbloqueia o processo que esperava
+			}
+			if (irpt != Interrupts.noInterrupt) { // existe interrupção
+				relogio.avancarPara(instante);    // fronteira de quantum/interrupcao: publica o tempo local
+				Interrupts causa = irpt;
+				irpt = Interrupts.noInterrupt;    // tratada - se o SO retomar o processo, segue sem interrupcao pendente
+				if (causa == Interrupts.intTimer) {
+					ciclosNaFatia = 0;            // timer periodico: recomeca a contar a proxima fatia
 				}
-			} // FIM DO CICLO DE UMA INSTRUÇÃO
-		}
+				cpuStop = !ih.handle(causa);      // desvia para rotina de tratamento - esta rotina é do SO. Vale a
+				                                  // ultima decisao do SO: false para a CPU (nao ha processo para
+				                                  // continuar), true continua mesmo que a instrucao tenha parado a
+				                                  // CPU (ex: fim de E/S despachou um processo apos a syscall)
+			}
+		} // FIM DO CICLO DE UMA INSTRUÇÃO
 	}
@@ -0,0 +1,210 @@
+package hardware;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class Console implements Runnable { // console: saida de cada processo vai para um buffer circular proprio;
+		                                   // uma thread de escrita esvazia os buffers em lotes no terminal ou na captura
+		private static final int CAPACIDADE = 1024;    // inteiros por buffer de processo
+		private static final long INTERVALO_MS = 10;   // espera maxima entre dois lotes com saida pendente
+
+		private static class Buffer {                  // buffer circular de um processo
+			int[] valores = new int[CAPACIDADE];
+			long inicio;                               // proximo valor a escrever no destino
+			long fim;                                  // proxima posicao livre
+			StringBuilder memoria;                     // captura em memoria (null se nao capturado)
+			Writer arquivo;                            // captura em arquivo (null se nao capturado)
+		}
+
+		private Map<Integer, Buffer> buffers;
+		private PrintStream saida;                     // destino da saida nao capturada
+		private Thread thread;                         // criada na primeira escrita
+		private boolean pendente;                      // ha valores nos buffers - protegido por this
+		private final Object drenagem;                 // serializa as drenagens: preserva a ordem por processo
+
+		public Console() {
+			buffers = new ConcurrentHashMap<>();
+			saida = System.out;
+			drenagem = new Object();
+		}
+
+		public void setSaida(PrintStream _saida) {
+			esvaziar();
+			saida = _saida;
+		}
+
+		public void capturarEmMemoria(int pid) {      // saida do processo fica disponivel em getSaidaCapturada
+			buffer(pid).memoria = new StringBuilder();
+		}
+
+		public void capturarEmArquivo(int pid, Path arquivo) throws IOException {
+			buffer(pid).arquivo = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8);
+		}
+
+		public String getSaidaCapturada(int pid) {    // um valor por linha; null se o processo nao foi capturado
+			esvaziar();
+			Buffer b = buffers.get(pid);
+			return (b == null || b.memoria == null) ? null : b.memoria.toString();
+		}
+
+		public void descartar(int pid) {              // esvazia e fecha a captura do processo
+			esvaziar();
+			Buffer b = buffers.remove(pid);
+			if (b != null && b.arquivo != null) {
+				try {
+					b.arquivo.close();
+				} catch (IOException e) {
+					saida.println("CONSOLE: erro ao fechar captura do processo " + pid + ": " + e.getMessage());
+				}
+			}
+		}
+
+		public String encerrarCaptura(int pid) {       // esvazia so o buffer do processo, fecha a captura e devolve
+			Buffer b;                                  // o que foi capturado em memoria (null se nao capturado)
+			synchronized (drenagem) {
+				b = buffers.remove(pid);
+				if (b == null) {
+					return null;
+				}
+				StringBuilder terminal = new StringBuilder();
+				drenar(pid, b, terminal);
+				if (terminal.length() > 0) {
+					saida.print(terminal);
+					saida.flush();
+				}
+			}
+			if (b.arquivo != null) {
+				try {
+					b.arquivo.close();
+				} catch (IOException e) {
+					saida.println("CONSOLE: erro ao fechar captura do processo " + pid + ": " + e.getMessage());
+				}
+			}
+			return b.memoria == null ? null : b.memoria.toString();
+		}
+
+		public boolean tentarEscrever(int pid, int valor) { // nao bloqueia: false se o buffer do processo esta cheio
+			Buffer b = buffer(pid);
+			boolean acordar;
+			synchronized (b) {
+				if (b.fim - b.inicio == CAPACIDADE) {
+					return false;
+				}
+				b.valores[(int) (b.fim % CAPACIDADE)] = valor;
+				b.fim++;
+				acordar = b.fim - b.inicio >= CAPACIDADE / 2;
+			}
+			sinalizar(acordar);
+			return true;
+		}
+
+		public void escrever(int pid, int valor) {     // com buffer cheio, quem escreve esvazia antes
+			while (!tentarEscrever(pid, valor)) {
+				esvaziar();
+			}
+		}
+
+		public void esvaziar() {                       // escreve agora tudo o que esta nos buffers
+			synchronized (drenagem) {
+				StringBuilder terminal = new StringBuilder();
+				for (Map.Entry<Integer, Buffer> e : buffers.entrySet()) {
+					drenar(e.getKey(), e.getValue(), terminal);
+				}
+				if (terminal.length() > 0) {
+					saida.print(terminal);
+					saida.flush();
+				}
+			}
+		}
+
+		private void drenar(int pid, Buffer b, StringBuilder terminal) {
+			int[] lote;
+			synchronized (b) {
+				int n = (int) (b.fim - b.inicio);
+				if (n == 0) {
+					return;
+				}
+				lote = new int[n];
+				for (int i = 0; i < n; i++) {
+					lote[i] = b.valores[(int) ((b.inicio + i) % CAPACIDADE)];
+				}
+				b.inicio = b.fim;
+			}
+			if (b.memoria == null && b.arquivo == null) {
+				for (int v : lote) {
+					terminal.append("OUT:   ").append(v).append('\n');
+				}
+				return;
+			}
+			StringBuilder linhas = new StringBuilder();
+			for (int v : lote) {
+				linhas.append(v).append('\n');
+			}
+			if (b.memoria != null) {
+				b.memoria.append(linhas);
+			}
+			if (b.arquivo != null) {
+				try {
+					b.arquivo.write(linhas.toString());
+					b.arquivo.flush();
+				} catch (IOException e) {
+					terminal.append("CONSOLE: erro na captura do processo ").append(pid).append(": ").append(e.getMessage()).append('\n');
+				}
+			}
+		}
+
+		private Buffer buffer(int pid) {
+			return buffers.computeIfAbsent(pid, k -> new Buffer());
+		}
+
+		public void reiniciar() {                      // esvazia e descarta os buffers de todos os processos (reinicio do HW)
+			for (Integer pid : buffers.keySet()) {
+				descartar(pid);
+			}
+		}
+
+		public void encerrar() {                       // esvazia os buffers e para a thread de escrita (HW desligado)
+			esvaziar();
+			synchronized (this) {
+				if (thread != null) {
+					thread.interrupt();
+					thread = null;
+				}
+			}
+		}
+
+		private synchronized void sinalizar(boolean acordar) {
+			if (thread == null) {
+				thread = new Thread(this, "Console");
+				thread.setDaemon(true);
+				thread.start();
+			}
+			if (!pendente || acordar) {
+				pendente = true;
+				notifyAll();
+			}
+		}
+
+		public void run() {
+			try {
+				while (true) {
+					synchronized (this) {
+						while (!pendente) {
+							wait();                    // nada a escrever: thread parada
+						}
+						wait(INTERVALO_MS);            // junta mais saida no mesmo lote
+						pendente = false;
+					}
+					esvaziar();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
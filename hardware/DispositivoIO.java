@@ -0,0 +1,173 @@
+package hardware;
+
+import software.LogKernel;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DispositivoIO implements Runnable { // dispositivo de E/S com thread propria - executa as transferencias
+		                                         // enquanto a CPU segue com outros processos
+		private CPU[] cpus;                      // recebem a interrupcao intIO ao fim de cada lote - o primeiro nucleo
+		                                         // que tratar retira todas as conclusoes
+		private BlockingQueue<PedidoIO> pedidos;    // transferencias aguardando o dispositivo
+		private BlockingQueue<PedidoIO> concluidos; // transferencias prontas, retiradas pelo SO no tratamento de intIO
+		private Thread thread;                   // criada no primeiro pedido assincrono
+
+		private BufferedReader entrada;          // origem das leituras sem entrada programada
+		private EntradaProgramada programada;    // origem das leituras dos processos com entrada programada
+		private Console console;                 // destino das escritas
+		private RelogioSimulado relogio;         // tempo simulado - conclusoes com latencia viram eventos agendados
+		private long latencia;                   // ciclos simulados de cada transferencia (0 = conclui assim que executada)
+		private final AtomicInteger emExecucao = new AtomicInteger(); // submetidas e ainda sem conclusao nem evento agendado
+
+		public DispositivoIO(CPU _cpu, Console _console, EntradaProgramada _programada) {
+			this(new CPU[] { _cpu }, _console, _programada);
+		}
+
+		public DispositivoIO(CPU[] _cpus, Console _console, EntradaProgramada _programada) {
+			cpus = _cpus;
+			console = _console;
+			programada = _programada;
+			pedidos = new LinkedBlockingQueue<>();
+			concluidos = new LinkedBlockingQueue<>();
+			entrada = new BufferedReader(new InputStreamReader(System.in));
+			relogio = new RelogioSimulado();
+		}
+
+		public void setRelogio(RelogioSimulado _relogio) {
+			relogio = _relogio;
+		}
+
+		public void setLatencia(long _ciclos) {   // latencia modelada, em ciclos simulados, de cada transferencia
+			latencia = _ciclos;
+		}
+
+		public void setEntrada(BufferedReader _entrada) {
+			entrada = _entrada;
+		}
+
+		public void setSaida(PrintStream _saida) {
+			console.setSaida(_saida);
+		}
+
+		public synchronized void submeter(PedidoIO pedido) { // assincrono: retorna imediatamente
+			if (thread == null) {
+				thread = new Thread(this, "DispositivoIO");
+				thread.setDaemon(true);      // nao impede o fim da JVM
+				thread.start();
+			}
+			pedido.prontoEm = relogio.agora() + latencia;
+			emExecucao.incrementAndGet();
+			pedidos.add(pedido);
+		}
+
+		public void submeterLote(List<PedidoIO> lote) { // varias transferencias de uma vez
+			if (lote.isEmpty()) {
+				return;
+			}
+			submeter(lote.get(0));
+			for (PedidoIO pedido : lote.subList(1, lote.size())) {
+				pedido.prontoEm = lote.get(0).prontoEm;
+			}
+			emExecucao.addAndGet(lote.size() - 1);
+			pedidos.addAll(lote.subList(1, lote.size()));
+		}
+
+		public synchronized void encerrar() {      // para a thread do dispositivo (HW desligado)
+			if (thread != null) {
+				thread.interrupt();
+				thread = null;
+			}
+		}
+
+		public void reiniciar() {                  // descarta transferencias pendentes e concluidas (reinicio do HW);
+			pedidos.clear();                       // entrada e latencia configuradas sao mantidas
+			concluidos.clear();
+			emExecucao.set(0);
+		}
+
+		public PedidoIO retirarConcluido() {       // null se nenhuma transferencia terminou
+			return concluidos.poll();
+		}
+
+		public boolean temTransferenciasEmExecucao() { // true enquanto o instante de conclusao de algum pedido ainda nao
+			return emExecucao.get() > 0;           // esta no relogio - o tempo simulado nao pode saltar por cima dele
+		}
+
+		public void run() {
+			List<PedidoIO> lote = new ArrayList<>();
+			try {
+				while (true) {
+					lote.add(pedidos.take());
+					pedidos.drainTo(lote);       // tudo que ja foi submetido segue no mesmo lote
+					Map<Long, List<PedidoIO>> porInstante = new LinkedHashMap<>();
+					for (PedidoIO pedido : lote) {
+						executar(pedido);
+						porInstante.computeIfAbsent(pedido.prontoEm, k -> new ArrayList<>()).add(pedido);
+					}
+					lote.clear();
+					for (Map.Entry<Long, List<PedidoIO>> grupo : porInstante.entrySet()) {
+						if (grupo.getKey() <= relogio.agora()) {
+							concluir(grupo.getValue());
+							emExecucao.addAndGet(-grupo.getValue().size());
+						} else {                 // latencia modelada: conclui quando o tempo simulado chegar la
+							relogio.agendar(grupo.getKey(), () -> concluir(grupo.getValue()));
+							emExecucao.addAndGet(-grupo.getValue().size());
+							for (CPU cpu : cpus) {
+								cpu.despertar(); // nucleos parados podem saltar o tempo ate o evento
+							}
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void concluir(List<PedidoIO> grupo) {
+			concluidos.addAll(grupo);
+			for (CPU cpu : cpus) {
+				cpu.sinalizarFimDeIO();          // uma interrupcao de fim de E/S por grupo - acorda nucleos parados
+			}
+		}
+
+		public void executar(PedidoIO pedido) {    // transferencia propriamente dita (sincrona)
+			if (pedido.operacao == PedidoIO.ESCRITA) {
+				console.escrever(pedido.pid, pedido.valor);
+			} else {
+				pedido.valor = lerInteiro(pedido.pid);
+			}
+		}
+
+		private int lerInteiro(int pid) {
+			if (programada.temFluxo(pid)) {
+				Integer valor = programada.ler(pid);
+				if (valor != null) {
+					return valor;
+				}
+				LogKernel.registrar(Categoria.IO, Nivel.INFO, "IN:    fim da entrada programada do processo %d - lido 0", pid);
+				return 0;
+			}
+			try {
+				String linha = entrada.readLine();
+				if (linha != null) {
+					return Integer.parseInt(linha.trim());
+				}
+				LogKernel.registrar(Categoria.IO, Nivel.INFO, "IN:    fim da entrada - lido 0");
+			} catch (IOException | NumberFormatException e) {
+				LogKernel.registrar(Categoria.IO, Nivel.AVISO, "IN:    entrada invalida - lido 0");
+			}
+			return 0;
+		}
+	}
@@ -0,0 +1,182 @@
+package hardware;
+
+import software.LogKernel;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+public class EntradaProgramada implements Runnable { // entrada das leituras de cada processo: valores fixos, arquivo
+		                                             // ou sequencia gerada. Arquivos sao lidos antecipadamente por
+		                                             // uma thread propria para que a leitura nunca espere o disco
+		private static final int LEITURA_ANTECIPADA = 256;  // valores de arquivo mantidos prontos por processo
+		private static final long INTERVALO_MS = 10;        // espera da leitura bloqueante entre tentativas
+
+		private static class Fluxo {
+			PrimitiveIterator.OfInt origem;            // valores ainda nao consumidos
+			BlockingQueue<Integer> prontos;            // arquivo: valores ja lidos pela thread (null se em memoria)
+			volatile boolean esgotado;                 // arquivo: origem chegou ao fim
+			IntStream arquivo;                         // arquivo: fechado quando esgota
+		}
+
+		private Map<Integer, Fluxo> fluxos;
+		private Thread thread;                         // criada no primeiro arquivo programado
+
+		public EntradaProgramada() {
+			fluxos = new ConcurrentHashMap<>();
+		}
+
+		public void programarValores(int pid, int... valores) {
+			programar(pid, Arrays.stream(valores.clone()).iterator(), null);
+		}
+
+		public void programarSequencia(int pid, int quantidade, IntUnaryOperator gerador) { // gerador(i), i = 0..quantidade-1
+			programar(pid, IntStream.range(0, quantidade).map(gerador).iterator(), null);
+		}
+
+		public void programarArquivo(int pid, Path arquivo) throws IOException { // inteiros separados por espaco ou linha
+			IntStream valores = Files.lines(arquivo, StandardCharsets.UTF_8)
+					.flatMap(linha -> Arrays.stream(linha.trim().split("\\s+")))
+					.filter(token -> !token.isEmpty())
+					.mapToInt(Integer::parseInt);
+			programar(pid, valores.iterator(), valores);
+		}
+
+		public boolean temFluxo(int pid) {
+			return fluxos.containsKey(pid);
+		}
+
+		public void descartar(int pid) {
+			Fluxo f = fluxos.remove(pid);
+			if (f != null && f.arquivo != null) {
+				synchronized (f) {
+					f.arquivo.close();
+				}
+			}
+		}
+
+		public Integer tentarLer(int pid) {            // nao bloqueia: null se nao ha valor pronto
+			Fluxo f = fluxos.get(pid);
+			if (f == null) {
+				return null;
+			}
+			if (f.prontos == null) {
+				synchronized (f) {
+					return f.origem.hasNext() ? f.origem.nextInt() : null;
+				}
+			}
+			Integer valor = f.prontos.poll();
+			if (valor != null && f.prontos.size() < LEITURA_ANTECIPADA / 2) {
+				acordar();
+			}
+			return valor;
+		}
+
+		public Integer ler(int pid) {                  // espera a leitura antecipada; null no fim do fluxo
+			Fluxo f = fluxos.get(pid);
+			if (f == null || f.prontos == null) {
+				return tentarLer(pid);
+			}
+			try {
+				while (true) {
+					Integer valor = tentarLer(pid);
+					if (valor != null || (f.esgotado && f.prontos.isEmpty())) {
+						return valor;
+					}
+					acordar();
+					valor = f.prontos.poll(INTERVALO_MS, TimeUnit.MILLISECONDS);
+					if (valor != null) {
+						return valor;
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+
+		private void programar(int pid, PrimitiveIterator.OfInt origem, IntStream arquivo) {
+			Fluxo f = new Fluxo();
+			f.origem = origem;
+			f.arquivo = arquivo;
+			if (arquivo != null) {
+				f.prontos = new ArrayBlockingQueue<>(LEITURA_ANTECIPADA);
+			}
+			descartar(pid);
+			fluxos.put(pid, f);
+			if (arquivo != null) {
+				acordar();
+			}
+		}
+
+		public void reiniciar() {                      // descarta os fluxos de todos os processos (reinicio do HW)
+			for (Integer pid : fluxos.keySet()) {
+				descartar(pid);
+			}
+		}
+
+		public synchronized void encerrar() {         // para a thread de leitura antecipada (HW desligado)
+			if (thread != null) {
+				thread.interrupt();
+				thread = null;
+			}
+		}
+
+		private synchronized void acordar() {
+			if (thread == null) {
+				thread = new Thread(this, "EntradaProgramada");
+				thread.setDaemon(true);
+				thread.start();
+			}
+			notifyAll();
+		}
+
+		public void run() {                            // mantem cheia a leitura antecipada dos arquivos
+			try {
+				while (true) {
+					for (Fluxo f : fluxos.values()) {
+						if (f.prontos != null && !f.esgotado) {
+							completar(f);
+						}
+					}
+					synchronized (this) {
+						wait();                        // acordada por novo arquivo ou leitura antecipada abaixo da metade
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void completar(Fluxo f) {
+			synchronized (f) {
+				try {
+					while (f.prontos.remainingCapacity() > 0 && f.origem.hasNext()) {
+						f.prontos.add(f.origem.nextInt());
+					}
+					if (!f.origem.hasNext()) {
+						f.esgotado = true;
+					}
+				} catch (UncheckedIOException | NumberFormatException e) {
+					LogKernel.registrar(Categoria.IO, Nivel.AVISO, "IN:    erro no arquivo de entrada - %s", e.getMessage());
+					f.esgotado = true;
+				}
+				if (f.esgotado && f.arquivo != null) {
+					f.arquivo.close();
+				}
+			}
+		}
+	}
@@ -4,10 +4,54 @@ import hardware.Memory;
 import hardware.CPU;
 public class HW {
 		public Memory mem;
-		public CPU cpu;
+		public CPU cpu;     // nucleo 0 - unico nucleo na configuracao padrao
+		public CPU[] cpus;  // todos os nucleos, compartilhando a mesma memoria
+		public DispositivoIO io;
+		public Console console;
+		public EntradaProgramada entrada;
+		public RelogioSimulado relogio; // tempo simulado comum a CPUs, dispositivo e SO
 
 		public HW(int tamMem) {
+			this(tamMem, 1);
+		}
+
+		public HW(int tamMem, int numCpus) { // sem rastreio: CPUs a toda velocidade
+			this(tamMem, numCpus, false);
+		}
+
+		public HW(int tamMem, int numCpus, boolean debug) { // debug true: cada CPU mostra cada instrucao (RastreadorLog)
+			if (numCpus <= 0) {
+				throw new IllegalArgumentException("Numero de CPUs deve ser positivo: " + numCpus);
+			}
 			mem = new Memory(tamMem);
-			cpu = new CPU(mem, true); // true liga debug
+			relogio = new RelogioSimulado();
+			cpus = new CPU[numCpus];
+			for (int i = 0; i < numCpus; i++) {
+				cpus[i] = new CPU(mem, debug);
+				cpus[i].setRelogio(relogio);
+			}
+			cpu = cpus[0];
+			console = new Console();
+			entrada = new EntradaProgramada();
+			io = new DispositivoIO(cpus, console, entrada);
+			io.setRelogio(relogio);
+		}
+
+		public int reiniciar() { // estado de boot sem realocar: limpa so os blocos de memoria escritos, zera CPUs,
+			int limpos = mem.limpar(); // relogio e dispositivos; devolve o numero de blocos limpos
+			for (CPU c : cpus) {
+				c.reiniciar();
+			}
+			relogio.reiniciar();
+			io.reiniciar();
+			console.reiniciar();
+			entrada.reiniciar();
+			return limpos;
+		}
+
+		public void desligar() { // para as threads do console, do dispositivo e da entrada programada
+			console.encerrar();
+			io.encerrar();
+			entrada.encerrar();
 		}
 	}
@@ -1,5 +1,8 @@
 package hardware;
 
 public enum Interrupts {           // possiveis interrupcoes que esta CPU gera
-		noInterrupt, intEnderecoInvalido, intInstrucaoInvalida, intOverflow, intSTOP;
+		noInterrupt, intEnderecoInvalido, intInstrucaoInvalida, intOverflow, intSTOP,
+		intFaltaDePagina,          // pagina logica sem frame na tabela de paginas - recuperavel
+		intTimer,                  // fatia de tempo do processo esgotada
+		intIO;                     // dispositivo concluiu uma transferencia de E/S
 	}
@@ -1,7 +1,12 @@
 package hardware;
 
+import java.util.concurrent.atomic.AtomicLongArray;
+
 public class Memory {
+		public static final int BLOCO = 8; // palavras por bit do mapa de blocos sujos (= pagina padrao)
+
 		public Word[] pos; // pos[i] é a posição i da memória. cada posição é uma palavra.
+		private final AtomicLongArray sujos; // bit i: bloco i escrito desde o boot ou o ultimo limpar()
 
 		public Memory(int size) {
 			pos = new Word[size];
@@ -9,5 +14,49 @@ public class Memory {
 				pos[i] = new Word(Opcode.___, -1, -1, -1);
 			}
 			; // cada posicao da memoria inicializada
+			sujos = new AtomicLongArray((size + BLOCO * 64 - 1) / (BLOCO * 64));
+		}
+
+		public void marcarSuja(int endereco) {        // a cada escrita; so a primeira escrita do bloco paga o CAS
+			int bloco = endereco / BLOCO;
+			long bit = 1L << (bloco & 63);
+			if ((sujos.get(bloco >>> 6) & bit) == 0) {
+				sujos.getAndAccumulate(bloco >>> 6, bit, (atual, b) -> atual | b);
+			}
+		}
+
+		public void marcarSujas(int inicio, int fim) { // faixa [inicio, fim) escrita de uma vez (carga, swap-in)
+			for (int bloco = inicio / BLOCO; bloco * BLOCO < fim; bloco++) {
+				marcarSuja(bloco * BLOCO);
+			}
+		}
+
+		public int getBlocosSujos() {
+			int total = 0;
+			for (int i = 0; i < sujos.length(); i++) {
+				total += Long.bitCount(sujos.get(i));
+			}
+			return total;
+		}
+
+		public int limpar() {                          // volta ao estado de boot so os blocos sujos - custo proporcional
+			int limpos = 0;                            // a memoria tocada; devolve o numero de blocos limpos
+			for (int i = 0; i < sujos.length(); i++) {
+				long palavra = sujos.getAndSet(i, 0);
+				while (palavra != 0) {
+					int bloco = i * 64 + Long.numberOfTrailingZeros(palavra);
+					palavra &= palavra - 1;
+					int fim = Math.min(pos.length, (bloco + 1) * BLOCO);
+					for (int e = bloco * BLOCO; e < fim; e++) {
+						Word w = pos[e];
+						w.opc = Opcode.___;
+						w.ra = -1;
+						w.rb = -1;
+						w.p = -1;
+					}
+					limpos++;
+				}
+			}
+			return limpos;
 		}
 	}
@@ -0,0 +1,22 @@
+package hardware;
+
+public class PedidoIO {    // uma transferencia de um inteiro entre um processo e o dispositivo de E/S
+		public static final int LEITURA = 1;   // valores de reg[8] na chamada de sistema
+		public static final int ESCRITA = 2;
+
+		public int pid;        // processo que pediu a transferencia
+		public int operacao;   // LEITURA ou ESCRITA
+		public int endereco;   // endereco fisico do inteiro na memoria do processo
+		public int valor;      // escrita: valor a enviar / leitura: valor recebido do dispositivo
+		public int anel;       // endereco logico do anel de E/S em lote, -1 para chamada bloqueante
+		public int indice;     // indice do descritor no anel - devolvido na conclusao
+		public long prontoEm;  // instante simulado em que a latencia modelada do dispositivo termina
+
+		public PedidoIO(int _pid, int _operacao, int _endereco, int _valor) {
+			pid = _pid;
+			operacao = _operacao;
+			endereco = _endereco;
+			valor = _valor;
+			anel = -1;
+		}
+	}
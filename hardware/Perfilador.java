@@ -0,0 +1,273 @@
+package hardware;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class Perfilador implements Rastreador { // perfil dos programas convidados: execucoes por (programa, pc) e por
+		                                         // opcode, desvios condicionais tomados / nao tomados e leituras e
+		                                         // escritas por pagina logica. Um perfilador por CPU (nao é thread-safe)
+
+		private static final String SEM_CONTEXTO = "convidado"; // CPU usada sem SO (ex: Utilities.loadAndExec)
+		private static final boolean[] CONDICIONAL = new boolean[Opcode.values().length];
+
+		static {
+			for (Opcode o : new Opcode[] { Opcode.JMPIG, Opcode.JMPIL, Opcode.JMPIE, Opcode.JMPIGM, Opcode.JMPILM,
+					Opcode.JMPIEM, Opcode.JMPIGK, Opcode.JMPILK, Opcode.JMPIEK, Opcode.JMPIGT }) {
+				CONDICIONAL[o.ordinal()] = true;
+			}
+		}
+
+		private static final class Desvio {    // desvio sem desfecho de um processo fora da CPU
+			final Perfil perfil;               // programa em que o desvio foi executado
+			final int pc;
+
+			Desvio(Perfil perfil, int pc) {
+				this.perfil = perfil;
+				this.pc = pc;
+			}
+		}
+
+		private static final class Perfil {    // contagens de um programa, indexadas por pc ou pagina logica
+			final String programa;
+			long[] execucoes = new long[32];
+			Opcode[] opcodes = new Opcode[32];   // ultimo opcode visto em cada pc, para os relatorios
+			long[] tomados = new long[32];
+			long[] naoTomados = new long[32];
+			long[] leituras = new long[4];
+			long[] escritas = new long[4];
+
+			Perfil(String programa) {
+				this.programa = programa;
+			}
+
+			void garantirPc(int pc) {
+				if (pc >= execucoes.length) {
+					int tam = Math.max(pc + 1, execucoes.length * 2);
+					execucoes = Arrays.copyOf(execucoes, tam);
+					opcodes = Arrays.copyOf(opcodes, tam);
+					tomados = Arrays.copyOf(tomados, tam);
+					naoTomados = Arrays.copyOf(naoTomados, tam);
+				}
+			}
+		}
+
+		private final int tamPagina;
+		private final Map<String, Perfil> perfis = new LinkedHashMap<>();
+		private final long[] porOpcode = new long[Opcode.values().length];
+		private final Map<Integer, Desvio> desviosPendentes = new HashMap<>(); // pid fora da CPU -> desvio pendente
+		private Perfil atual;                  // programa na CPU - evita a busca no mapa a cada instrucao
+		private int pidAtual;
+		private int pcDesvio = -1;             // desvio condicional do processo na CPU ainda sem desfecho (em atual):
+		                                       // decidido pelo proximo pc deste processo, mesmo que outro tenha
+		                                       // rodado entre eles
+		private long total;
+
+		public Perfilador() {
+			this(Memory.BLOCO);
+		}
+
+		public Perfilador(int _tamPagina) {    // paginas dos relatorios de memoria (use o tamanho de pagina do SO)
+			if (_tamPagina <= 0) {
+				throw new IllegalArgumentException("Tamanho de pagina deve ser positivo: " + _tamPagina);
+			}
+			tamPagina = _tamPagina;
+		}
+
+		public void contexto(int pid, String programa) { // contagens por programa; o desvio pendente segue o pid
+			if (atual != null && pcDesvio >= 0) {
+				desviosPendentes.put(pidAtual, new Desvio(atual, pcDesvio));
+			}
+			atual = perfis.computeIfAbsent(programa, Perfil::new);
+			pidAtual = pid;
+			Desvio pendente = desviosPendentes.remove(pid);
+			// pid de volta com outro programa: o desvio era de um processo que ja terminou
+			pcDesvio = pendente != null && pendente.perfil == atual ? pendente.pc : -1;
+		}
+
+		public void reiniciado() {             // pids recomecam: descarta os desvios pendentes, mantem as contagens
+			desviosPendentes.clear();
+			pcDesvio = -1;
+		}
+
+		public void instrucao(int pc, Word ir, int[] reg) {
+			Perfil p = atual;
+			if (p == null) {
+				contexto(-1, SEM_CONTEXTO);
+				p = atual;
+			}
+			if (pcDesvio >= 0 && pc != pcDesvio) { // mesmo pc: desvio refeito apos falta de pagina
+				if (pc == pcDesvio + 1) {
+					p.naoTomados[pcDesvio]++;
+				} else {
+					p.tomados[pcDesvio]++;
+				}
+				pcDesvio = -1;
+			}
+			p.garantirPc(pc);
+			p.execucoes[pc]++;
+			p.opcodes[pc] = ir.opc;
+			porOpcode[ir.opc.ordinal()]++;
+			total++;
+			if (CONDICIONAL[ir.opc.ordinal()]) {
+				pcDesvio = pc;
+			}
+		}
+
+		public void leitura(int logico, int fisico) {
+			Perfil p = atual;
+			int pagina = logico / tamPagina;
+			if (pagina >= p.leituras.length) {
+				p.leituras = Arrays.copyOf(p.leituras, Math.max(pagina + 1, p.leituras.length * 2));
+			}
+			p.leituras[pagina]++;
+		}
+
+		public void escrita(int logico, int fisico, Word w) {
+			Perfil p = atual;
+			int pagina = logico / tamPagina;
+			if (pagina >= p.escritas.length) {
+				p.escritas = Arrays.copyOf(p.escritas, Math.max(pagina + 1, p.escritas.length * 2));
+			}
+			p.escritas[pagina]++;
+		}
+
+		public long getTotal() {
+			return total;
+		}
+
+		public long getExecucoes(Opcode opc) {
+			return porOpcode[opc.ordinal()];
+		}
+
+		public long getExecucoes(String programa, int pc) {
+			Perfil p = perfis.get(programa);
+			return p != null && pc < p.execucoes.length ? p.execucoes[pc] : 0;
+		}
+
+		public long getTomados(String programa, int pc) {
+			Perfil p = perfis.get(programa);
+			return p != null && pc < p.tomados.length ? p.tomados[pc] : 0;
+		}
+
+		public long getNaoTomados(String programa, int pc) {
+			Perfil p = perfis.get(programa);
+			return p != null && pc < p.naoTomados.length ? p.naoTomados[pc] : 0;
+		}
+
+		public long getLeituras(String programa, int pagina) {
+			Perfil p = perfis.get(programa);
+			return p != null && pagina < p.leituras.length ? p.leituras[pagina] : 0;
+		}
+
+		public long getEscritas(String programa, int pagina) {
+			Perfil p = perfis.get(programa);
+			return p != null && pagina < p.escritas.length ? p.escritas[pagina] : 0;
+		}
+
+		public void limpar() {
+			perfis.clear();
+			desviosPendentes.clear();
+			Arrays.fill(porOpcode, 0);
+			atual = null;
+			pcDesvio = -1;
+			total = 0;
+		}
+
+		private static final class PontoQuente { // (programa, pc) executado, para ordenar os relatorios
+			final Perfil perfil;
+			final int pc;
+
+			PontoQuente(Perfil perfil, int pc) {
+				this.perfil = perfil;
+				this.pc = pc;
+			}
+
+			long execucoes() {
+				return perfil.execucoes[pc];
+			}
+		}
+
+		private List<PontoQuente> pontosQuentes() { // mais executados primeiro; empate por programa e pc
+			List<PontoQuente> pontos = new ArrayList<>();
+			for (Perfil p : perfis.values()) {
+				for (int pc = 0; pc < p.execucoes.length; pc++) {
+					if (p.execucoes[pc] > 0) {
+						pontos.add(new PontoQuente(p, pc));
+					}
+				}
+			}
+			pontos.sort(Comparator.comparingLong(PontoQuente::execucoes).reversed()
+				.thenComparing(q -> q.perfil.programa).thenComparingInt(q -> q.pc));
+			return pontos;
+		}
+
+		public String getRelatorio(int topo) { // texto ordenado: pontos quentes, mistura de opcodes, memoria por pagina
+			StringBuilder sb = new StringBuilder();
+			sb.append(String.format(Locale.ROOT, "=== Perfil do convidado: %d instrucoes ===%n", total));
+
+			sb.append("Pontos quentes (programa:pc):\n");
+			List<PontoQuente> pontos = pontosQuentes();
+			for (PontoQuente q : pontos.subList(0, Math.min(topo, pontos.size()))) {
+				Perfil p = q.perfil;
+				sb.append(String.format(Locale.ROOT, "  %6.2f%% %10d  %s:%d %s", 100.0 * q.execucoes() / total,
+					q.execucoes(), p.programa, q.pc, p.opcodes[q.pc]));
+				if (CONDICIONAL[p.opcodes[q.pc].ordinal()]) {
+					sb.append(String.format(Locale.ROOT, "  (desvio: %d tomados, %d nao tomados)",
+						p.tomados[q.pc], p.naoTomados[q.pc]));
+				}
+				sb.append('\n');
+			}
+
+			sb.append("Mistura de opcodes:\n");
+			Integer[] ordem = new Integer[porOpcode.length];
+			for (int i = 0; i < ordem.length; i++) {
+				ordem[i] = i;
+			}
+			Arrays.sort(ordem, (a, b) -> Long.compare(porOpcode[b], porOpcode[a]));
+			Opcode[] opcodes = Opcode.values();
+			for (int i : ordem) {
+				if (porOpcode[i] > 0) {
+					sb.append(String.format(Locale.ROOT, "  %-8s %10d  %6.2f%%%n", opcodes[i], porOpcode[i],
+						100.0 * porOpcode[i] / total));
+				}
+			}
+
+			sb.append(String.format(Locale.ROOT, "Memoria por pagina de %d palavras:%n", tamPagina));
+			for (Perfil p : perfis.values()) {
+				for (int pg = 0; pg < Math.max(p.leituras.length, p.escritas.length); pg++) {
+					long l = pg < p.leituras.length ? p.leituras[pg] : 0;
+					long e = pg < p.escritas.length ? p.escritas[pg] : 0;
+					if (l + e > 0) {
+						sb.append(String.format(Locale.ROOT, "  %s pagina %d: %d leituras, %d escritas%n",
+							p.programa, pg, l, e));
+					}
+				}
+			}
+			return sb.toString();
+		}
+
+		public String getPilhasDobradas() { // formato "folded" dos flame graphs: programa;pc:OPCODE contagem
+			StringBuilder sb = new StringBuilder();
+			for (PontoQuente q : pontosQuentes()) {
+				sb.append(q.perfil.programa.replace(' ', '_').replace(';', '_')).append(";pc")
+					.append(q.pc).append(':').append(q.perfil.opcodes[q.pc])
+					.append(' ').append(q.execucoes()).append('\n');
+			}
+			return sb.toString();
+		}
+
+		public void gravar(Path relatorio, Path pilhas) throws IOException { // os dois relatorios em arquivos UTF-8
+			Files.writeString(relatorio, getRelatorio(Integer.MAX_VALUE), StandardCharsets.UTF_8);
+			Files.writeString(pilhas, getPilhasDobradas(), StandardCharsets.UTF_8);
+		}
+	}
@@ -0,0 +1,19 @@
+package hardware;
+
+public interface Rastreador {    // gancho de rastreio instalado na CPU (setRastreador); sem rastreador o ciclo
+		                         // de instrucao nao faz nenhum trabalho de depuracao
+		void instrucao(int pc, Word ir, int[] reg); // apos o fetch, antes de executar ir; reg é o banco vivo da CPU -
+		                                            // copiar o que precisar guardar
+
+		default void escrita(int logico, int fisico, Word w) { // apos STD/STX gravar w
+		}
+
+		default void leitura(int logico, int fisico) { // leitura de dado: LDD, LDX e desvios com alvo em memoria
+		}
+
+		default void contexto(int pid, String programa) { // SO carregou outro processo na CPU
+		}
+
+		default void reiniciado() { // CPU reiniciada: processos anteriores se foram e os pids podem ser reusados
+		}
+	}
@@ -0,0 +1,110 @@
+package hardware;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class RastreadorBinario implements Rastreador { // grava o rastro em registros binarios de tamanho fixo num
+		                                                // buffer pre-alocado; cheio, conta os registros perdidos
+		public static final byte INSTRUCAO = 1; // pc (int), opcode (byte), ra (byte), rb (byte), p (int)
+		public static final byte REGISTRO = 2;  // indice (byte), valor (int): mudou desde a instrucao anterior
+		public static final byte ESCRITA = 3;   // endereco fisico (int), valor (int)
+
+		private static final int TAM_INSTRUCAO = 1 + 4 + 3 + 4;
+		private static final int TAM_REGISTRO = 1 + 1 + 4;
+		private static final int TAM_ESCRITA = 1 + 4 + 4;
+
+		private final ByteBuffer buffer;
+		private final boolean instrucoes;  // o que gravar - desligado nao ocupa espaco
+		private final boolean registros;
+		private final boolean escritas;
+		private final int[] anteriores;    // banco visto na instrucao anterior, para gravar so as diferencas
+		private long perdidos;             // registros que nao couberam no buffer
+
+		public RastreadorBinario(int capacidadeBytes) {
+			this(capacidadeBytes, true, true, true);
+		}
+
+		public RastreadorBinario(int capacidadeBytes, boolean _instrucoes, boolean _registros, boolean _escritas) {
+			buffer = ByteBuffer.allocate(capacidadeBytes);
+			instrucoes = _instrucoes;
+			registros = _registros;
+			escritas = _escritas;
+			anteriores = new int[10];
+		}
+
+		public void instrucao(int pc, Word ir, int[] reg) {
+			if (registros) {
+				for (int i = 0; i < anteriores.length; i++) {
+					if (reg[i] != anteriores[i]) {
+						anteriores[i] = reg[i];
+						if (cabe(TAM_REGISTRO)) {
+							buffer.put(REGISTRO).put((byte) i).putInt(reg[i]);
+						}
+					}
+				}
+			}
+			if (instrucoes && cabe(TAM_INSTRUCAO)) {
+				buffer.put(INSTRUCAO).putInt(pc).put((byte) ir.opc.ordinal()).put((byte) ir.ra).put((byte) ir.rb)
+					.putInt(ir.p);
+			}
+		}
+
+		public void escrita(int logico, int fisico, Word w) {
+			if (escritas && cabe(TAM_ESCRITA)) {
+				buffer.put(ESCRITA).putInt(fisico).putInt(w.p);
+			}
+		}
+
+		private boolean cabe(int tamanho) {
+			if (buffer.remaining() < tamanho) {
+				perdidos++;
+				return false;
+			}
+			return true;
+		}
+
+		public byte[] getBytes() {        // copia do que foi gravado
+			return Arrays.copyOf(buffer.array(), buffer.position());
+		}
+
+		public int getTamanho() {
+			return buffer.position();
+		}
+
+		public long getPerdidos() {
+			return perdidos;
+		}
+
+		public void limpar() {            // reusa o buffer; diferencas de registros voltam a partir de zeros
+			buffer.clear();
+			Arrays.fill(anteriores, 0);
+			perdidos = 0;
+		}
+
+		public List<String> decodificar() { // uma linha por registro, na ordem gravada
+			Opcode[] opcodes = Opcode.values();
+			ByteBuffer leitura = ByteBuffer.wrap(buffer.array(), 0, buffer.position());
+			List<String> linhas = new ArrayList<>();
+			while (leitura.hasRemaining()) {
+				byte tipo = leitura.get();
+				switch (tipo) {
+					case INSTRUCAO:
+						int pc = leitura.getInt();
+						Opcode opc = opcodes[leitura.get()];
+						linhas.add("pc " + pc + ": " + opc + " " + leitura.get() + " " + leitura.get() + " " + leitura.getInt());
+						break;
+					case REGISTRO:
+						linhas.add("r" + leitura.get() + " = " + leitura.getInt());
+						break;
+					case ESCRITA:
+						linhas.add("[" + leitura.getInt() + "] = " + leitura.getInt());
+						break;
+					default:
+						throw new IllegalStateException("Registro de rastro invalido: " + tipo);
+				}
+			}
+			return linhas;
+		}
+	}
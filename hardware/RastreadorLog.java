@@ -0,0 +1,22 @@
+package hardware;
+
+import software.LogKernel;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
+
+public class RastreadorLog implements Rastreador { // rastro legivel da antiga flag debug: registros, instrucao e
+		                                            // escritas no log do nucleo (categoria cpu, nivel DEBUG)
+		public void instrucao(int pc, Word ir, int[] reg) {
+			if (LogKernel.ativo(Categoria.CPU, Nivel.DEBUG)) { // registros copiados: formatados depois
+				LogKernel.registrar(Categoria.CPU, Nivel.DEBUG,
+					"                                              regs: %s", reg.clone());
+				LogKernel.registrar(Categoria.CPU, Nivel.DEBUG,
+					"                      pc: %d       exec: [ %s, %d, %d, %d  ] ", pc, ir.opc, ir.ra, ir.rb, ir.p);
+			}
+		}
+
+		public void escrita(int logico, int fisico, Word w) {
+			LogKernel.registrar(Categoria.CPU, Nivel.DEBUG, "                                  %d:  [ %s, %d, %d, %d  ] ",
+				fisico, w.opc, w.ra, w.rb, w.p);
+		}
+	}
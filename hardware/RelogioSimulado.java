@@ -0,0 +1,167 @@
+package hardware;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RelogioSimulado { // tempo simulado em ciclos, compartilhado por CPUs, dispositivos, timers e escalonadores
+		                       // avanca com as instrucoes executadas; com todas as CPUs paradas salta direto
+		                       // para o proximo evento agendado (simulacao por eventos discretos)
+
+		public static class Evento implements Comparable<Evento> { // acao agendada para um instante simulado
+			public final long instante;
+			private final long sequencia;  // desempate: mesma ordem de agendamento
+			private final Runnable acao;
+			private volatile boolean cancelado;
+
+			private Evento(long _instante, long _sequencia, Runnable _acao) {
+				instante = _instante;
+				sequencia = _sequencia;
+				acao = _acao;
+			}
+
+			public int compareTo(Evento outro) {
+				int c = Long.compare(instante, outro.instante);
+				return c != 0 ? c : Long.compare(sequencia, outro.sequencia);
+			}
+		}
+
+		private final AtomicLong agora;          // instante simulado atual - so cresce
+		private volatile long proximoInstante;   // instante do primeiro evento (Long.MAX_VALUE sem eventos) - leitura sem trava
+		private final PriorityQueue<Evento> eventos; // cancelados ficam na fila ate chegarem ao topo (cancelamento preguicoso)
+		private int cancelados;                  // cancelados ainda na fila
+		private long sequencia;
+
+		private long eventosDisparados;          // estatisticas
+		private long saltos;
+		private long ciclosSaltados;
+
+		public RelogioSimulado() {
+			agora = new AtomicLong();
+			proximoInstante = Long.MAX_VALUE;
+			eventos = new PriorityQueue<>();
+		}
+
+		public long agora() {
+			return agora.get();
+		}
+
+		public long proximoInstante() {           // instante do proximo evento sem trava - a CPU so empurra o relogio
+			return proximoInstante;               // quando o seu tempo local chega nele
+		}
+
+		public void avancarPara(long instante) {  // chamado pelas CPUs nas fronteiras (interrupcao, syscall, troca de
+		                                          // contexto) e quando o tempo local alcanca o proximo evento
+			if (instante > agora.get()) {
+				agora.accumulateAndGet(instante, Math::max);
+			}
+			if (agora.get() >= proximoInstante) {
+				disparar(vencidos(agora.get()));
+			}
+		}
+
+		public Evento agendar(long instante, Runnable acao) { // instante absoluto; se ja passou dispara em seguida
+			Evento evento;
+			synchronized (this) {
+				evento = new Evento(instante, sequencia++, acao);
+				eventos.add(evento);
+				proximoInstante = eventos.peek().instante;
+			}
+			avancarPara(agora.get());
+			return evento;
+		}
+
+		public Evento agendarApos(long atraso, Runnable acao) {
+			return agendar(agora.get() + atraso, acao);
+		}
+
+		public synchronized void cancelar(Evento evento) { // so marca - O(1); sai da fila quando chegar ao topo
+			if (evento.cancelado) {
+				return;
+			}
+			evento.cancelado = true;
+			cancelados++;
+			descartarCancelados();
+		}
+
+		private void descartarCancelados() {       // topo da fila nunca e um evento cancelado (com a trava)
+			while (!eventos.isEmpty() && eventos.peek().cancelado) {
+				eventos.poll();
+				cancelados--;
+			}
+			proximoInstante = eventos.isEmpty() ? Long.MAX_VALUE : eventos.peek().instante;
+		}
+
+		public boolean saltarParaProximoEvento() { // CPUs paradas: o tempo pula ate o proximo evento, que dispara
+			List<Evento> lista;
+			synchronized (this) {
+				Evento proximo = eventos.peek();
+				if (proximo == null) {
+					return false;
+				}
+				long atual = agora.get();
+				if (proximo.instante > atual) {
+					saltos++;
+					ciclosSaltados += proximo.instante - atual;
+					agora.accumulateAndGet(proximo.instante, Math::max);
+				}
+				lista = vencidos(agora.get());
+			}
+			disparar(lista);
+			return true;
+		}
+
+		public void reiniciar() {                  // instante zero, sem eventos e sem estatisticas (reinicio do HW)
+			synchronized (this) {
+				eventos.clear();
+				cancelados = 0;
+				proximoInstante = Long.MAX_VALUE;
+				sequencia = 0;
+				eventosDisparados = 0;
+				saltos = 0;
+				ciclosSaltados = 0;
+				agora.set(0);
+			}
+		}
+
+		public synchronized boolean temEventos() { // topo nunca cancelado: fila vazia so sem eventos validos
+			return !eventos.isEmpty();
+		}
+
+		private synchronized List<Evento> vencidos(long instante) { // retira da fila os eventos ate o instante
+			List<Evento> lista = new ArrayList<>();
+			while (!eventos.isEmpty() && eventos.peek().instante <= instante) {
+				Evento evento = eventos.poll();
+				if (evento.cancelado) {
+					cancelados--;
+				} else {
+					lista.add(evento);
+				}
+			}
+			descartarCancelados();
+			eventosDisparados += lista.size();
+			return lista;
+		}
+
+		private void disparar(List<Evento> lista) { // fora da trava: a acao pode agendar outros eventos
+			for (Evento evento : lista) {
+				if (!evento.cancelado) {
+					evento.acao.run();
+				}
+			}
+		}
+
+		public synchronized long getSaltos() {
+			return saltos;
+		}
+
+		public synchronized long getCiclosSaltados() {
+			return ciclosSaltados;
+		}
+
+		public synchronized String getEstatisticas() {
+			return "Tempo simulado: " + agora.get() + " ciclos (" + ciclosSaltados + " saltados em " + saltos
+				+ " saltos, " + eventosDisparados + " eventos disparados, " + (eventos.size() - cancelados) + " agendados)";
+		}
+	}
@@ -1,12 +1,39 @@
 package memory;
 
+import software.LogKernel;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Gerenciador de Memória implementando paginação para a Máquina Virtual.
  * Conforme especificação da Etapa 01.
+ * 
+ * Alocação e liberação não usam trava global: o mapa de frames é um bitmap
+ * atualizado por CAS e os frames livres são reservados por CAS antes de serem
+ * coletados. No modo concorrente (numCaches > 0) cada núcleo usa uma faixa com
+ * seu próprio cache de frames, reabastecido do bitmap em lotes: a thread de um
+ * núcleo se prende à faixa do núcleo (fixarFaixa) e as demais threads recebem
+ * faixas em rodízio no primeiro uso. Sem caches os frames são escolhidos pelo
+ * primeiro livre, como na versão original.
  */
 public class GerenciadorMemoria {
+    private static final int CAPACIDADE_CACHE = 16; // Frames guardados por faixa
+    private static final int LOTE_CACHE = 8;        // Frames trazidos do bitmap por recarga
+    
+    /**
+     * Faixa de alocação: pilha de frames já marcados no bitmap e ainda livres
+     */
+    private static final class CacheFrames {
+        final int[] frames = new int[CAPACIDADE_CACHE];
+        int tamanho;
+    }
+    
     // Configurações de memória (podem ser alteradas para testes)
     private final int tamMem;      // Tamanho total da memória em palavras
     private final int tamPg;       // Tamanho da página em palavras  
@@ -15,12 +42,18 @@ public class GerenciadorMemoria {
     
     // Estruturas de dados internas
     private final PosicaoDeMemoria[] memoria;     // Array da memória física
-    private final boolean[] framesAlocados;       // Controle de frames: true=alocado, false=livre
-    private final Map<Integer, String> frameOwner; // Para debugging: qual processo possui cada frame
+    private final AtomicLongArray framesAlocados; // Bitmap de frames: bit 1 = alocado ou guardado em cache
+    private final Map<Integer, String> frameOwner; // Qual processo possui cada frame (só frames alocados)
+    private final AtomicInteger framesLivres;     // Livres no bitmap + em caches, reservados antes da coleta
+    private final CacheFrames[] caches;           // Faixas por núcleo (vazio = sem cache)
+    private final AtomicInteger proximaFaixa = new AtomicInteger(); // Rodízio das threads sem núcleo
+    private final ThreadLocal<Integer> faixas;    // Faixa de cada thread, escolhida no primeiro uso
     
     // Estatísticas
-    private int totalAlocacoes = 0;
-    private int totalDesalocacoes = 0;
+    private final LongAdder totalAlocacoes = new LongAdder();
+    private final LongAdder totalDesalocacoes = new LongAdder();
+    private final LongAdder framesDoCache = new LongAdder();    // Frames entregues direto de um cache
+    private final LongAdder recargasCache = new LongAdder();    // Lotes trazidos do bitmap para um cache
     
     /**
      * Construtor com valores padrão (conforme especificação)
@@ -33,9 +66,19 @@ public class GerenciadorMemoria {
      * Construtor parametrizado para testes com diferentes tamanhos
      */
     public GerenciadorMemoria(int tamMem, int tamPg) {
+        this(tamMem, tamPg, 0);
+    }
+    
+    /**
+     * Construtor do modo concorrente: numCaches faixas com cache de frames, uma por núcleo
+     */
+    public GerenciadorMemoria(int tamMem, int tamPg, int numCaches) {
         if (tamMem <= 0 || tamPg <= 0) {
             throw new IllegalArgumentException("Tamanhos de memória e página devem ser positivos");
         }
+        if (numCaches < 0) {
+            throw new IllegalArgumentException("Número de caches não pode ser negativo");
+        }
         if (tamMem % tamPg != 0) {
             throw new IllegalArgumentException("Tamanho da memória deve ser múltiplo do tamanho da página");
         }
@@ -47,16 +90,29 @@ public class GerenciadorMemoria {
         
         // Inicializa estruturas
         this.memoria = new PosicaoDeMemoria[tamMem];
-        this.framesAlocados = new boolean[numFrames];
-        this.frameOwner = new HashMap<>();
+        this.framesAlocados = new AtomicLongArray((numFrames + 63) / 64);
+        this.frameOwner = new ConcurrentHashMap<>();
+        this.framesLivres = new AtomicInteger(numFrames);
+        this.caches = new CacheFrames[numCaches];
+        for (int i = 0; i < numCaches; i++) {
+            caches[i] = new CacheFrames();
+        }
+        this.faixas = ThreadLocal.withInitial(() -> proximaFaixa.getAndIncrement() % caches.length);
+        
+        // Bits além do último frame ficam marcados para nunca serem alocados
+        int resto = numFrames % 64;
+        if (resto != 0) {
+            framesAlocados.set(framesAlocados.length() - 1, -1L << resto);
+        }
         
         // Inicializa todas as posições de memória como vazias
         for (int i = 0; i < tamMem; i++) {
             memoria[i] = new PosicaoDeMemoria(); // DATA com valor 0
         }
         
-        System.out.printf("Gerenciador de Memória inicializado: %d palavras, %d frames de %d palavras cada%n", 
-                         tamMem, numFrames, tamFrame);
+        LogKernel.registrar(Categoria.MEM, Nivel.INFO,
+            "Gerenciador de Memória inicializado: %d palavras, %d frames de %d palavras cada",
+            tamMem, numFrames, tamFrame);
     }
     
     /**
@@ -66,7 +122,7 @@ public class GerenciadorMemoria {
      * @return true se conseguiu alocar, false caso contrário
      */
     public boolean aloca(int nroPalavras, int[] tabelaPaginas) {
-        return aloca(nroPalavras, tabelaPaginas, "Processo-" + (totalAlocacoes + 1));
+        return aloca(nroPalavras, tabelaPaginas, "Processo-" + (totalAlocacoes.sum() + 1));
     }
     
     /**
@@ -87,24 +143,20 @@ public class GerenciadorMemoria {
             return false;
         }
         
-        // Verifica disponibilidade
-        List<Integer> framesDisponiveis = new ArrayList<>();
-        for (int i = 0; i < numFrames; i++) {
-            if (!framesAlocados[i]) {
-                framesDisponiveis.add(i);
+        // Reserva os frames: depois do CAS eles existem (no bitmap ou em algum cache)
+        int disponiveis;
+        do {
+            disponiveis = framesLivres.get();
+            if (disponiveis < paginasNecessarias) {
+                System.err.printf("Erro: Memória insuficiente. Necessário: %d frames, Disponível: %d frames%n",
+                                 paginasNecessarias, disponiveis);
+                return false;
             }
-        }
-        
-        if (framesDisponiveis.size() < paginasNecessarias) {
-            System.err.printf("Erro: Memória insuficiente. Necessário: %d frames, Disponível: %d frames%n",
-                             paginasNecessarias, framesDisponiveis.size());
-            return false;
-        }
+        } while (!framesLivres.compareAndSet(disponiveis, disponiveis - paginasNecessarias));
         
-        // Aloca os frames (pega os primeiros disponíveis)
+        // Coleta os frames reservados
         for (int i = 0; i < paginasNecessarias; i++) {
-            int frame = framesDisponiveis.get(i);
-            framesAlocados[frame] = true;
+            int frame = obterFrame();
             frameOwner.put(frame, processoId);
             tabelaPaginas[i] = frame;
         }
@@ -114,10 +166,12 @@ public class GerenciadorMemoria {
             tabelaPaginas[i] = -1; // Marca como não utilizado
         }
         
-        totalAlocacoes++;
-        System.out.printf("Alocação bem-sucedida para %s: %d palavras em %d páginas (frames: %s)%n",
-                         processoId, nroPalavras, paginasNecessarias, 
-                         Arrays.toString(Arrays.copyOf(tabelaPaginas, paginasNecessarias)));
+        totalAlocacoes.increment();
+        if (LogKernel.ativo(Categoria.MEM, Nivel.INFO)) {
+            LogKernel.registrar(Categoria.MEM, Nivel.INFO,
+                "Alocação bem-sucedida para %s: %d palavras em %d páginas (frames: %s)",
+                processoId, nroPalavras, paginasNecessarias, Arrays.copyOf(tabelaPaginas, paginasNecessarias));
+        }
         
         return true;
     }
@@ -128,12 +182,10 @@ public class GerenciadorMemoria {
      */
     public void desaloca(int[] tabelaPaginas) {
         int framesLiberados = 0;
-        List<Integer> framesLiberadosList = new ArrayList<>();
+        List<Integer> framesLiberadosList = LogKernel.ativo(Categoria.MEM, Nivel.INFO) ? new ArrayList<>() : null;
         
         for (int frame : tabelaPaginas) {
-            if (frame >= 0 && frame < numFrames && framesAlocados[frame]) {
-                framesAlocados[frame] = false;
-                
+            if (frame >= 0 && frame < numFrames && frameOwner.remove(frame) != null) {
                 // Limpa o conteúdo do frame
                 int inicioFrame = frame * tamFrame;
                 int fimFrame = inicioFrame + tamFrame;
@@ -141,15 +193,165 @@ public class GerenciadorMemoria {
                     memoria[i] = new PosicaoDeMemoria(); // Reset para DATA com valor 0
                 }
                 
-                framesLiberadosList.add(frame);
-                frameOwner.remove(frame);
+                devolverFrame(frame);
+                if (framesLiberadosList != null) {
+                    framesLiberadosList.add(frame);
+                }
                 framesLiberados++;
             }
         }
+        // Só depois de visíveis no bitmap ou em cache os frames podem ser reservados de novo
+        framesLivres.addAndGet(framesLiberados);
         
-        totalDesalocacoes++;
-        System.out.printf("Desalocação realizada: %d frames liberados %s%n", 
-                         framesLiberados, framesLiberadosList);
+        totalDesalocacoes.increment();
+        if (framesLiberadosList != null) {
+            LogKernel.registrar(Categoria.MEM, Nivel.INFO, "Desalocação realizada: %d frames liberados %s",
+                framesLiberados, framesLiberadosList);
+        }
+    }
+    
+    /**
+     * Volta ao estado inicial (todos os frames livres, estatísticas zeradas) sem
+     * realocar as estruturas. Só os frames ainda alocados são limpos: os liberados
+     * já foram limpos na desalocação. Chamar sem alocações em andamento.
+     */
+    public void reiniciar() {
+        for (int frame : frameOwner.keySet()) {
+            for (int i = frame * tamFrame; i < (frame + 1) * tamFrame; i++) {
+                memoria[i] = new PosicaoDeMemoria();
+            }
+        }
+        frameOwner.clear();
+        for (CacheFrames cache : caches) {
+            synchronized (cache) {
+                cache.tamanho = 0;
+            }
+        }
+        for (int i = 0; i < framesAlocados.length(); i++) {
+            framesAlocados.set(i, 0);
+        }
+        int resto = numFrames % 64;
+        if (resto != 0) {
+            framesAlocados.set(framesAlocados.length() - 1, -1L << resto);
+        }
+        framesLivres.set(numFrames);
+        totalAlocacoes.reset();
+        totalDesalocacoes.reset();
+        framesDoCache.reset();
+        recargasCache.reset();
+    }
+    
+    /**
+     * Retira um frame já reservado: do cache da faixa da thread, recarregando-o
+     * do bitmap, ou do cache de outra faixa quando o bitmap está esgotado
+     */
+    private int obterFrame() {
+        if (caches.length == 0) {
+            while (true) {
+                int frame = marcarNoBitmap(0); // Primeiro livre, como na versão original
+                if (frame >= 0) {
+                    return frame;
+                }
+                Thread.onSpinWait(); // Frame reservado ainda sendo devolvido por outra thread
+            }
+        }
+        int faixa = faixaDaThread();
+        while (true) {
+            CacheFrames local = caches[faixa];
+            synchronized (local) {
+                if (local.tamanho == 0) {
+                    recarregar(local, faixa);
+                }
+                if (local.tamanho > 0) {
+                    framesDoCache.increment();
+                    return local.frames[--local.tamanho];
+                }
+            }
+            for (int i = 1; i < caches.length; i++) {
+                CacheFrames outro = caches[(faixa + i) % caches.length];
+                synchronized (outro) {
+                    if (outro.tamanho > 0) {
+                        framesDoCache.increment();
+                        return outro.frames[--outro.tamanho];
+                    }
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    /**
+     * Traz um lote de frames do bitmap para o cache (chamado com a faixa travada)
+     */
+    private void recarregar(CacheFrames cache, int faixa) {
+        int inicio = framesAlocados.length() * faixa / caches.length; // Faixas começam em palavras diferentes
+        while (cache.tamanho < LOTE_CACHE) {
+            int frame = marcarNoBitmap(inicio);
+            if (frame < 0) {
+                break;
+            }
+            cache.frames[cache.tamanho++] = frame;
+        }
+        if (cache.tamanho > 0) {
+            recargasCache.increment();
+        }
+    }
+    
+    /**
+     * Devolve um frame livre ao cache da faixa da thread, ou ao bitmap se o cache está cheio
+     */
+    private void devolverFrame(int frame) {
+        if (caches.length > 0) {
+            CacheFrames local = caches[faixaDaThread()];
+            synchronized (local) {
+                if (local.tamanho < CAPACIDADE_CACHE) {
+                    local.frames[local.tamanho++] = frame;
+                    return;
+                }
+            }
+        }
+        int palavra = frame / 64;
+        long bit = 1L << (frame % 64);
+        long atual;
+        do {
+            atual = framesAlocados.get(palavra);
+        } while (!framesAlocados.compareAndSet(palavra, atual, atual & ~bit));
+    }
+    
+    /**
+     * Marca por CAS o primeiro frame livre do bitmap a partir de uma palavra; -1 se não há
+     */
+    private int marcarNoBitmap(int palavraInicial) {
+        int palavras = framesAlocados.length();
+        for (int i = 0; i < palavras; i++) {
+            int palavra = (palavraInicial + i) % palavras;
+            long atual = framesAlocados.get(palavra);
+            while (atual != -1L) {
+                int bit = Long.numberOfTrailingZeros(~atual);
+                if (framesAlocados.compareAndSet(palavra, atual, atual | (1L << bit))) {
+                    return palavra * 64 + bit;
+                }
+                atual = framesAlocados.get(palavra);
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Prende a thread que chama à faixa do núcleo (ex: thread da CPU nucleo);
+     * sem caches não faz nada
+     */
+    public void fixarFaixa(int nucleo) {
+        if (nucleo < 0) {
+            throw new IllegalArgumentException("Núcleo inválido: " + nucleo);
+        }
+        if (caches.length > 0) {
+            faixas.set(nucleo % caches.length);
+        }
+    }
+    
+    int faixaDaThread() {
+        return faixas.get();
     }
     
     /**
@@ -167,7 +369,7 @@ public class GerenciadorMemoria {
         int paginaAtual = 0;
         int posicaoNaPagina = 0;
         
-        System.out.printf("Carregando programa de %d instruções...%n", programa.length);
+        LogKernel.registrar(Categoria.MEM, Nivel.DEBUG, "Carregando programa de %d instruções...", programa.length);
         
         while (posicaoPrograma < programa.length && paginaAtual < tabelaPaginas.length) {
             int frame = tabelaPaginas[paginaAtual];
@@ -190,8 +392,8 @@ public class GerenciadorMemoria {
             }
         }
         
-        System.out.printf("Programa carregado: %d instruções em %d páginas%n", 
-                         posicaoPrograma, paginaAtual + (posicaoNaPagina > 0 ? 1 : 0));
+        LogKernel.registrar(Categoria.MEM, Nivel.INFO, "Programa carregado: %d instruções em %d páginas",
+            posicaoPrograma, paginaAtual + (posicaoNaPagina > 0 ? 1 : 0));
     }
     
     /**
@@ -247,21 +449,23 @@ public class GerenciadorMemoria {
     public int getTamFrame() { return tamFrame; }
     public int getNumFrames() { return numFrames; }
     
+    /**
+     * Retorna o número de frames livres
+     */
+    public int getFramesLivres() {
+        return framesLivres.get();
+    }
+    
     /**
      * Retorna estatísticas do gerenciador
      */
     public String getEstatisticas() {
-        int framesLivres = 0;
-        int framesOcupados = 0;
-        
-        for (boolean alocado : framesAlocados) {
-            if (alocado) framesOcupados++;
-            else framesLivres++;
-        }
+        int framesLivres = this.framesLivres.get();
+        int framesOcupados = numFrames - framesLivres;
         
         double percentualUso = (double) framesOcupados / numFrames * 100;
         
-        return String.format(
+        String estatisticas = String.format(
             "=== Estatísticas do Gerenciador de Memória ===%n" +
             "Memória: %d palavras (%d frames de %d palavras)%n" +
             "Frames livres: %d/%d (%.1f%% livre)%n" +
@@ -271,8 +475,13 @@ public class GerenciadorMemoria {
             tamMem, numFrames, tamFrame,
             framesLivres, numFrames, (100.0 - percentualUso),
             framesOcupados, numFrames, percentualUso,
-            totalAlocacoes, totalDesalocacoes
+            totalAlocacoes.sum(), totalDesalocacoes.sum()
         );
+        if (caches.length > 0) {
+            estatisticas += String.format("Caches por faixa: %d (frames entregues pelo cache: %d, recargas: %d)%n",
+                caches.length, framesDoCache.sum(), recargasCache.sum());
+        }
+        return estatisticas;
     }
     
     /**
@@ -283,12 +492,12 @@ public class GerenciadorMemoria {
         for (int frame = 0; frame < numFrames; frame++) {
             int inicio = frame * tamFrame;
             int fim = inicio + tamFrame - 1;
-            String status = framesAlocados[frame] ? "OCUPADO" : "LIVRE";
-            String owner = frameOwner.getOrDefault(frame, "N/A");
+            String owner = frameOwner.get(frame);
+            String status = owner != null ? "OCUPADO" : "LIVRE";
             
             System.out.printf("Frame %3d: [%4d-%4d] %s %s%n", 
                              frame, inicio, fim, status, 
-                             framesAlocados[frame] ? "(" + owner + ")" : "");
+                             owner != null ? "(" + owner + ")" : "");
         }
     }
     
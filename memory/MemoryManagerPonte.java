@@ -2,6 +2,7 @@ package memory;
 
 import hardware.Word;
 import hardware.Opcode;
+import hardware.Memory;
 
 /**
  * Ponte class to connect the advanced GerenciadorMemoria with the existing system
@@ -9,15 +10,37 @@ import hardware.Opcode;
  */
 public class MemoryManagerPonte {
     private GerenciadorMemoria gerenciador;
+    private Word[] memoriaFisica; // HW memory the CPU executes from (null when not bound)
+    private Memory memoria;       // ... and its dirty-block map, marked for every frame handed out
     
     public MemoryManagerPonte(int tamMem, int tamPg) {
         this.gerenciador = new GerenciadorMemoria(tamMem, tamPg);
     }
     
+    /**
+     * Concurrent allocator: one frame cache per stripe (e.g. one per CPU core)
+     */
+    public MemoryManagerPonte(int tamMem, int tamPg, int numCaches) {
+        this.gerenciador = new GerenciadorMemoria(tamMem, tamPg, numCaches);
+    }
+    
     public MemoryManagerPonte() {
         this.gerenciador = new GerenciadorMemoria(); // default: 1024 words, 8 words per page
     }
     
+    /**
+     * Binds the HW memory so allocated frames are also loaded/cleared where the CPU runs.
+     * Frame i of the manager maps to HW addresses [i * tamPg, (i + 1) * tamPg).
+     */
+    public void vincularMemoriaFisica(Memory mem) {
+        if (mem.pos.length < gerenciador.getTamMem()) {
+            throw new IllegalArgumentException("HW memory smaller than managed memory: "
+                    + mem.pos.length + " < " + gerenciador.getTamMem());
+        }
+        this.memoriaFisica = mem.pos;
+        this.memoria = mem;
+    }
+    
     /**
      * Converts Word array to PosicaoDeMemoria array
      */
@@ -47,6 +70,8 @@ public class MemoryManagerPonte {
             // Load the program into allocated memory
             PosicaoDeMemoria[] posicoes = wordToPosicao(programa);
             gerenciador.carregaPrograma(posicoes, tabelaPaginas);
+            carregaNaMemoriaFisica(programa, tabelaPaginas);
+            marcaSujos(tabelaPaginas);
             return tabelaPaginas;
         }
         
@@ -57,9 +82,95 @@ public class MemoryManagerPonte {
      * Deallocates memory for a program
      */
     public void desalocaPrograma(int[] tabelaPaginas) {
+        for (int frame : tabelaPaginas) {
+            limpaFrameFisico(frame);
+        }
         gerenciador.desaloca(tabelaPaginas);
     }
     
+    /**
+     * Allocates a single clean frame (demand paging); returns -1 when memory is full
+     */
+    public int alocaPagina(String processoId) {
+        int[] tabela = new int[1];
+        if (!gerenciador.aloca(gerenciador.getTamPg(), tabela, processoId)) {
+            return -1;
+        }
+        limpaFrameFisico(tabela[0]);
+        marcaSujos(tabela);
+        return tabela[0];
+    }
+
+    /**
+     * Allocates frames without loading or clearing them (swap-in overwrites every word);
+     * returns null when memory is full
+     */
+    public int[] alocaFrames(int quantidade, String processoId) {
+        int[] frames = new int[quantidade];
+        if (quantidade > 0 && !gerenciador.aloca(quantidade * gerenciador.getTamPg(), frames, processoId)) {
+            return null;
+        }
+        marcaSujos(frames);
+        return frames;
+    }
+    
+    /**
+     * Back to the boot state: every frame free. Only frames still allocated are cleared
+     * in the manager; the HW memory is reset separately (HW.reiniciar)
+     */
+    public void reiniciar() {
+        gerenciador.reiniciar();
+    }
+    
+    /**
+     * Marks the frames as dirty in the bound HW memory, so HW.reiniciar clears them
+     */
+    private void marcaSujos(int[] frames) {
+        if (memoria == null) {
+            return;
+        }
+        int tamPg = gerenciador.getTamPg();
+        for (int frame : frames) {
+            if (frame >= 0) {
+                memoria.marcarSujas(frame * tamPg, (frame + 1) * tamPg);
+            }
+        }
+    }
+    
+    /**
+     * Copies the program into the bound HW memory following the page table
+     */
+    private void carregaNaMemoriaFisica(Word[] programa, int[] tabelaPaginas) {
+        if (memoriaFisica == null) {
+            return;
+        }
+        int tamPg = gerenciador.getTamPg();
+        for (int i = 0; i < programa.length; i++) {
+            Word w = memoriaFisica[tabelaPaginas[i / tamPg] * tamPg + i % tamPg];
+            w.opc = programa[i].opc;
+            w.ra = programa[i].ra;
+            w.rb = programa[i].rb;
+            w.p = programa[i].p;
+        }
+    }
+    
+    /**
+     * Resets a frame of the bound HW memory to the power-on state
+     */
+    private void limpaFrameFisico(int frame) {
+        if (memoriaFisica == null || frame < 0 || frame >= gerenciador.getNumFrames()) {
+            return;
+        }
+        int tamPg = gerenciador.getTamPg();
+        for (int i = frame * tamPg; i < (frame + 1) * tamPg; i++) {
+            Word w = memoriaFisica[i];
+            w.opc = Opcode.___;
+            w.ra = -1;
+            w.rb = -1;
+            w.p = -1;
+        }
+    }
+    
     /**
      * Reads a memory position using logical address
      */
@@ -29,6 +29,11 @@ public class TesteGerenciadorMemoria {
         
         // Teste de fragmentação
         testeFragmentacao();
+        
+        System.out.println("\n" + "=".repeat(60) + "\n");
+        
+        // Teste do modo concorrente (caches por faixa)
+        testeAlocacaoConcorrente();
     }
     
     /**
@@ -172,6 +177,77 @@ public class TesteGerenciadorMemoria {
         System.out.println("\n" + gm.getEstatisticas());
     }
     
+    /**
+     * Teste do modo concorrente: várias threads alocam e liberam ao mesmo tempo
+     * e cada uma confere que nenhum frame seu foi entregue a outra
+     */
+    public static void testeAlocacaoConcorrente() {
+        System.out.println(">>> TESTE DE ALOCAÇÃO CONCORRENTE <<<");
+        
+        GerenciadorMemoria gm = new GerenciadorMemoria(256, 4, 4); // 64 frames, 4 faixas com cache
+        int numThreads = 4;
+        int iteracoes = 100;
+        int[] conflitos = new int[numThreads];
+        
+        Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < iteracoes; i++) {
+                    int paginas = 1 + (id + i) % 3;
+                    int[] tabela = new int[paginas];
+                    if (!gm.aloca(paginas * 4, tabela, "Thread-" + id)) {
+                        continue;
+                    }
+                    PosicaoDeMemoria marca = new PosicaoDeMemoria(Opcode.DATA, -1, -1, id);
+                    for (int e = 0; e < paginas * 4; e++) {
+                        gm.escreveMemoria(e, marca, tabela);
+                    }
+                    for (int e = 0; e < paginas * 4; e++) {
+                        if (gm.acessaMemoria(e, tabela).getP() != id) {
+                            conflitos[id]++;
+                        }
+                    }
+                    gm.desaloca(tabela);
+                }
+            }, "Alocador-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        System.out.println("\n" + gm.getEstatisticas());
+        System.out.println("Conflitos (frame entregue a duas threads): " + Arrays.stream(conflitos).sum());
+        System.out.println("Frames livres ao final: " + gm.getFramesLivres() + "/" + gm.getNumFrames());
+        assert Arrays.stream(conflitos).sum() == 0;
+        assert gm.getFramesLivres() == gm.getNumFrames();
+        
+        // Uma faixa por núcleo, independente do id das threads
+        int[] faixas = new int[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int nucleo = t;
+            threads[t] = new Thread(() -> {
+                gm.fixarFaixa(nucleo);
+                faixas[nucleo] = gm.faixaDaThread();
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("Faixas dos núcleos: " + Arrays.toString(faixas));
+        assert Arrays.equals(faixas, new int[] {0, 1, 2, 3});
+    }
+    
     // Métodos auxiliares para criar programas de teste
     
     private static void testeProgramaPequeno(GerenciadorMemoria gm) {
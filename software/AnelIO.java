@@ -0,0 +1,50 @@
+package software;
+
+/**
+ * Layout dos anéis de E/S em lote na memória do processo (estilo io_uring)
+ * 
+ * O processo monta os anéis a partir de um endereço base e faz uma única
+ * SYSCALL (reg[8] = SYSCALL_SUBMETER, reg[9] = base) para submeter todos os
+ * descritores pendentes. O SO escreve as conclusões no anel de conclusão,
+ * que o processo consulta com LDD sem nova chamada de sistema.
+ * 
+ * Índices head/tail são contadores crescentes; a posição é o índice módulo a capacidade.
+ * 
+ *   base + CAPACIDADE : C, número de entradas de cada anel
+ *   base + SQ_HEAD    : próximo descritor a consumir (escrito pelo SO)
+ *   base + SQ_TAIL    : próximo descritor livre (escrito pelo processo)
+ *   base + CQ_HEAD    : próxima conclusão a ler (escrito pelo processo)
+ *   base + CQ_TAIL    : próxima conclusão livre (escrito pelo SO)
+ *   base + SQ         : C descritores [operação, endereço do inteiro]
+ *   base + SQ + 2C    : C conclusões [índice do descritor, status]
+ */
+public final class AnelIO {
+    public static final int SYSCALL_SUBMETER = 3;  // Valor de reg[8] para submeter o lote
+    
+    public static final int CAPACIDADE = 0;
+    public static final int SQ_HEAD = 1;
+    public static final int SQ_TAIL = 2;
+    public static final int CQ_HEAD = 3;
+    public static final int CQ_TAIL = 4;
+    public static final int SQ = 5;
+    
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_ERRO = -1;      // Operação ou endereço inválido no descritor
+    
+    private AnelIO() {
+    }
+    
+    /**
+     * Deslocamento (a partir da base) do descritor de índice i
+     */
+    public static int descritor(int capacidade, int i) {
+        return SQ + 2 * (i % capacidade);
+    }
+    
+    /**
+     * Deslocamento (a partir da base) da conclusão de índice i
+     */
+    public static int conclusao(int capacidade, int i) {
+        return SQ + 2 * capacidade + 2 * (i % capacidade);
+    }
+}
@@ -0,0 +1,319 @@
+package software;
+
+import hardware.HW;
+import memory.MemoryManagerPonte;
+import programs.Program;
+import programs.Programs;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execução em lote, sem terminal, de muitas máquinas independentes
+ *
+ * Cada job roda numa instância isolada (HW próprio com um núcleo, memória e
+ * gerenciador de processos), então os jobs não compartilham estado e executam
+ * em paralelo num ForkJoinPool com um trabalhador por núcleo do host. Cada
+ * trabalhador cria uma máquina e a reinicia entre jobs (ProcessManager.reiniciar),
+ * limpando só a memória que o job anterior tocou. A saída
+ * do programa é capturada por job; o log do núcleo é silenciado só nas threads
+ * dos trabalhadores e o console de cada máquina escreve num destino descartado,
+ * sem tocar no System.out nem nos níveis de log do processo hospedeiro. Ao final, o relatório traz jobs/s e MIPS do convidado
+ * (instruções simuladas por segundo de parede).
+ */
+public class ExecutorLote {
+
+    /**
+     * Programa e entrada programada de um job
+     */
+    public static class Job {
+        private final Program programa;
+        private final int[] entrada;
+
+        public Job(Program programa, int... entrada) {
+            this.programa = programa;
+            this.entrada = entrada.clone();
+        }
+
+        public Program getPrograma() {
+            return programa;
+        }
+    }
+
+    /**
+     * Resultados na ordem dos jobs e totais do lote
+     */
+    public static class Relatorio {
+        private final List<ProcessResult> resultados;
+        private final Map<MotivoTermino, Integer> porMotivo;
+        private final long instrucoes;
+        private final long duracaoNanos;
+        private final int paralelismo;
+        private final int maquinas;
+
+        private Relatorio(List<ProcessResult> resultados, long instrucoes, long duracaoNanos, int paralelismo,
+                          int maquinas) {
+            this.resultados = resultados;
+            this.instrucoes = instrucoes;
+            this.duracaoNanos = duracaoNanos;
+            this.paralelismo = paralelismo;
+            this.maquinas = maquinas;
+            this.porMotivo = new EnumMap<>(MotivoTermino.class);
+            for (ProcessResult r : resultados) {
+                porMotivo.merge(r.getMotivoTermino(), 1, Integer::sum);
+            }
+        }
+
+        public List<ProcessResult> getResultados() {
+            return resultados;
+        }
+
+        public int getJobs() {
+            return resultados.size();
+        }
+
+        public int getJobs(MotivoTermino motivo) {
+            return porMotivo.getOrDefault(motivo, 0);
+        }
+
+        /**
+         * Máquinas construídas; as demais execuções reusaram uma delas
+         */
+        public int getMaquinas() {
+            return maquinas;
+        }
+
+        public long getInstrucoes() {
+            return instrucoes;
+        }
+
+        public double getSegundos() {
+            return duracaoNanos / 1e9;
+        }
+
+        public double getJobsPorSegundo() {
+            return resultados.size() / Math.max(getSegundos(), 1e-9);
+        }
+
+        public double getMips() {
+            return instrucoes / Math.max(getSegundos(), 1e-9) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                "=== Execução em Lote ===%n" +
+                "Jobs: %d em %.3f s com %d trabalhadores e %d máquinas%n" +
+                "Término: %s%n" +
+                "Vazão: %.1f jobs/s, %.2f MIPS do convidado (%d instruções)%n",
+                resultados.size(), getSegundos(), paralelismo, maquinas, porMotivo,
+                getJobsPorSegundo(), getMips(), instrucoes);
+        }
+    }
+
+    /**
+     * PrintStream que descarta tudo sem passar pela trava interna: os consoles
+     * das máquinas não disputam a saída descartada
+     */
+    private static class SaidaDescartada extends PrintStream {
+        SaidaDescartada() {
+            super(OutputStream.nullOutputStream());
+        }
+
+        @Override public void write(int b) { }
+        @Override public void write(byte[] buf, int off, int len) { }
+        @Override public void print(String s) { }
+        @Override public void print(Object obj) { }
+        @Override public void print(int i) { }
+        @Override public void print(long l) { }
+        @Override public void print(char c) { }
+        @Override public void println() { }
+        @Override public void println(String x) { }
+        @Override public void println(Object x) { }
+        @Override public void println(int x) { }
+        @Override public void println(long x) { }
+        @Override public PrintStream printf(String format, Object... args) { return this; }
+        @Override public PrintStream format(String format, Object... args) { return this; }
+        @Override public void flush() { }
+    }
+
+    /**
+     * Máquina de um trabalhador, reiniciada entre jobs
+     */
+    private static class Maquina {
+        final HW hw;
+        final ProcessManager processManager;
+
+        Maquina(HW hw, ProcessManager processManager) {
+            this.hw = hw;
+            this.processManager = processManager;
+        }
+    }
+
+    private static final PrintStream SAIDA_DESCARTADA = new SaidaDescartada();
+
+    private final int paralelismo;
+    private boolean reusarMaquinas;
+    private int tamMem;
+    private int tamPagina;
+    private LimitesRecursos limites;
+
+    /**
+     * Um trabalhador por núcleo do host
+     */
+    public ExecutorLote() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ExecutorLote(int paralelismo) {
+        if (paralelismo <= 0) {
+            throw new IllegalArgumentException("Paralelismo deve ser positivo: " + paralelismo);
+        }
+        this.paralelismo = paralelismo;
+        this.reusarMaquinas = true;
+        this.tamMem = 1024;
+        this.tamPagina = 8;
+        this.limites = LimitesRecursos.SEM_LIMITES;
+    }
+
+    /**
+     * Memória e página de cada máquina do lote
+     */
+    public void setMemoria(int tamMem, int tamPagina) {
+        this.tamMem = tamMem;
+        this.tamPagina = tamPagina;
+    }
+
+    /**
+     * false: cada job constrói e desliga a sua máquina
+     */
+    public void setReusarMaquinas(boolean reusar) {
+        this.reusarMaquinas = reusar;
+    }
+
+    /**
+     * Limites de cada job (ex: teto de ciclos contra laços infinitos)
+     */
+    public void setLimites(LimitesRecursos limites) {
+        this.limites = limites != null ? limites : LimitesRecursos.SEM_LIMITES;
+    }
+
+    /**
+     * Executa todos os jobs e devolve o relatório; resultados na ordem dos jobs
+     */
+    public Relatorio executar(List<Job> jobs) {
+        LongAdder instrucoes = new LongAdder();
+        ThreadLocal<Maquina> maquinaDoTrabalhador = new ThreadLocal<>();
+        Queue<Maquina> maquinas = new ConcurrentLinkedQueue<>();
+        List<Callable<ProcessResult>> tarefas = new ArrayList<>(jobs.size());
+        for (Job job : jobs) {
+            tarefas.add(() -> {
+                LogKernel.silenciar(); // threads criadas pela máquina (E/S) herdam o silêncio
+                try {
+                    if (!reusarMaquinas) {
+                        Maquina maquina = novaMaquina();
+                        try {
+                            return executarIsolado(job, maquina, instrucoes);
+                        } finally {
+                            maquina.hw.desligar();
+                        }
+                    }
+                    Maquina maquina = maquinaDoTrabalhador.get();
+                    if (maquina == null) {
+                        maquina = novaMaquina();
+                        maquinas.add(maquina);
+                        maquinaDoTrabalhador.set(maquina);
+                    } else {
+                        maquina.processManager.reiniciar();
+                    }
+                    return executarIsolado(job, maquina, instrucoes);
+                } finally {
+                    LogKernel.retomar();
+                }
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        List<ProcessResult> resultados = new ArrayList<>(jobs.size());
+        long inicio = System.nanoTime();
+        try {
+            for (Future<ProcessResult> f : pool.invokeAll(tarefas)) {
+                resultados.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Lote interrompido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha num job do lote", e.getCause());
+        } finally {
+            pool.shutdown();
+            for (Maquina maquina : maquinas) {
+                maquina.hw.desligar();
+            }
+        }
+        long duracao = System.nanoTime() - inicio;
+        return new Relatorio(resultados, instrucoes.sum(), duracao, paralelismo,
+            reusarMaquinas ? maquinas.size() : jobs.size());
+    }
+
+    /**
+     * Máquina de um job: HW de um núcleo sem debug, sem entrada do terminal e
+     * com o console descartando o que não foi capturado
+     */
+    private Maquina novaMaquina() {
+        HW hw = new HW(tamMem, 1, false);
+        hw.io.setEntrada(new BufferedReader(Reader.nullReader())); // Leitura além da entrada programada lê 0
+        hw.io.setSaida(SAIDA_DESCARTADA);
+        return new Maquina(hw, new ProcessManager(hw, new MemoryManagerPonte(tamMem, tamPagina)));
+    }
+
+    /**
+     * Um job numa máquina recém-criada ou reiniciada
+     */
+    private ProcessResult executarIsolado(Job job, Maquina maquina, LongAdder instrucoes) {
+        ProcessManager processManager = maquina.processManager;
+        processManager.setLimitesPadrao(limites);
+        Future<ProcessResult> resultado = processManager.submeter(job.programa, job.entrada);
+        processManager.executarCPU();
+        instrucoes.add(maquina.hw.cpu.getCiclos());
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Job interrompido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Job " + job.programa.name + " não executou", e.getCause());
+        }
+    }
+
+    /**
+     * Lote de regressão: cada programa de programs.Programs com várias entradas.
+     * Uso: java software.ExecutorLote [jobs] [trabalhadores]
+     */
+    public static void main(String[] args) {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        ExecutorLote executor = args.length > 1 ? new ExecutorLote(Integer.parseInt(args[1])) : new ExecutorLote();
+        executor.setLimites(new LimitesRecursos(100_000, 0, 0, 0));
+
+        Program[] programas = new Programs().progs;
+        List<Job> jobs = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            jobs.add(new Job(programas[i % programas.length], 1 + i % 12));
+        }
+        System.out.println(executor.executar(jobs));
+    }
+}
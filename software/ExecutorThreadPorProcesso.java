@@ -0,0 +1,424 @@
+package software;
+
+import hardware.CPU;
+import hardware.HW;
+import hardware.Interrupts;
+import hardware.Opcode;
+import hardware.PedidoIO;
+import hardware.Word;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
+import memory.MemoryManagerPonte;
+import programs.Program;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo uma thread por processo: alternativa ao laço de despacho do ProcessManager
+ *
+ * Cada processo ganha uma thread com a sua própria CPU (contexto do
+ * interpretador: PC, registradores e tabela de páginas) sobre a memória do HW.
+ * Um semáforo justo com uma permissão por núcleo simulado limita quantas
+ * threads interpretam ao mesmo tempo; ao fim da fatia de tempo a thread
+ * devolve a permissão e entra no fim da fila. Leituras e escritas que não
+ * completam na hora liberam a permissão e estacionam a thread no próprio
+ * dispositivo, sem fila de bloqueados nem interrupção de fim de E/S.
+ *
+ * Processos cuja imagem não cabe esperam frames de quem termina; páginas além
+ * da imagem são alocadas sob demanda. Não há prioridades, swap, limites de
+ * recursos nem as SYSCALLs que dependem do SO (anel, sleep, leitura com
+ * prazo) - para isso use o ProcessManager.
+ */
+public class ExecutorThreadPorProcesso {
+    private static final long PILHA_THREAD = 256 * 1024; // Threads de plataforma: pilha pequena para milhares delas
+
+    private final HW hardware;
+    private final MemoryManagerPonte gerenciadorMemoria;
+    private final int numNucleos;
+    private final Semaphore nucleos;                     // Uma permissão por núcleo simulado, em ordem de chegada
+    private final AtomicInteger proximoPID;
+    private final Set<Thread> threads;                   // Processos ainda não terminados
+    private final Object memoria;                        // Monitor de quem espera frames
+    private int residentes;                              // Processos com frames alocados (trava: memoria)
+    private int esperandoPagina;                         // ... e destes, esperando frame para uma falta de página
+    private volatile int quantum;
+    private volatile int maxPaginasPorProcesso;
+
+    // Estatísticas
+    private final AtomicLong ciclosExecutados;           // Total de ciclos, atualizado a cada saída do núcleo
+    private final AtomicLong processosExecutados;
+    private final AtomicLong trocas;                     // Fatias encerradas com outra thread esperando núcleo
+    private final AtomicLong bloqueiosIO;                // Transferências que estacionaram a thread
+    private final AtomicLong esperasMemoria;             // Admissões e faltas de página que esperaram frames
+    private final AtomicInteger threadsVivas;
+    private final AtomicInteger maxThreadsVivas;
+
+    public ExecutorThreadPorProcesso(HW hardware, MemoryManagerPonte gerenciadorMemoria) {
+        this(hardware, gerenciadorMemoria, hardware.cpus.length);
+    }
+
+    /**
+     * Executor com o número de núcleos simulados dado (interpretadores simultâneos)
+     */
+    public ExecutorThreadPorProcesso(HW hardware, MemoryManagerPonte gerenciadorMemoria, int numNucleos) {
+        if (numNucleos <= 0) {
+            throw new IllegalArgumentException("Número de núcleos deve ser positivo: " + numNucleos);
+        }
+        this.hardware = hardware;
+        this.gerenciadorMemoria = gerenciadorMemoria;
+        this.numNucleos = numNucleos;
+        this.nucleos = new Semaphore(numNucleos, true);
+        this.proximoPID = new AtomicInteger(1);
+        this.threads = ConcurrentHashMap.newKeySet();
+        this.memoria = new Object();
+        this.quantum = 10;
+        this.maxPaginasPorProcesso = 32;
+        this.ciclosExecutados = new AtomicLong();
+        this.processosExecutados = new AtomicLong();
+        this.trocas = new AtomicLong();
+        this.bloqueiosIO = new AtomicLong();
+        this.esperasMemoria = new AtomicLong();
+        this.threadsVivas = new AtomicInteger();
+        this.maxThreadsVivas = new AtomicInteger();
+        gerenciadorMemoria.vincularMemoriaFisica(hardware.mem);
+    }
+
+    /**
+     * Cria a thread do processo e devolve o resultado futuro; os argumentos viram
+     * a entrada programada (sem argumentos, as leituras vão para a entrada do dispositivo)
+     */
+    public CompletableFuture<ProcessResult> submeter(Program programa, int... argumentos) {
+        int paginas = (programa.image.length + getTamPg() - 1) / getTamPg();
+        if (paginas > gerenciadorMemoria.getGerenciador().getNumFrames()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                "Imagem maior que a memória para processo " + programa.name));
+        }
+        Processo processo = new Processo(proximoPID.getAndIncrement(), programa, argumentos.clone());
+        Thread thread = new Thread(null, processo, "Processo-" + processo.pid, PILHA_THREAD);
+        thread.setDaemon(true);
+        threads.add(thread);
+        maxThreadsVivas.accumulateAndGet(threadsVivas.incrementAndGet(), Math::max);
+        thread.start();
+        return processo.resultado;
+    }
+
+    /**
+     * Espera todos os processos submetidos terminarem
+     */
+    public void aguardarTermino() throws InterruptedException {
+        while (!threads.isEmpty()) {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        hardware.console.esvaziar();
+    }
+
+    /**
+     * Equivalente ao ProcessManager.executarProcessosConcorrentes neste modo
+     */
+    public void executarProcessosConcorrentes(List<Program> programas) throws InterruptedException {
+        System.out.println("\n=== Iniciando " + programas.size() + " processos em threads ("
+            + numNucleos + " núcleos) ===");
+        for (Program programa : programas) {
+            submeter(programa);
+        }
+        aguardarTermino();
+        System.out.println("\n=== Execução concorrente finalizada ===");
+        System.out.println(getEstatisticas());
+    }
+
+    public void setQuantum(int quantum) {
+        if (quantum <= 0) {
+            throw new IllegalArgumentException("Quantum deve ser positivo: " + quantum);
+        }
+        this.quantum = quantum;
+    }
+
+    public void setMaxPaginasPorProcesso(int max) {
+        this.maxPaginasPorProcesso = max;
+    }
+
+    public long getProcessosExecutados() {
+        return processosExecutados.get();
+    }
+
+    public long getTrocas() {
+        return trocas.get();
+    }
+
+    public long getBloqueiosIO() {
+        return bloqueiosIO.get();
+    }
+
+    public long getEsperasMemoria() {
+        return esperasMemoria.get();
+    }
+
+    public int getMaxThreadsVivas() {
+        return maxThreadsVivas.get();
+    }
+
+    public String getEstatisticas() {
+        return String.format("=== Thread por Processo ===%n" +
+            "Processos: %d, núcleos: %d, threads simultâneas: %d%n" +
+            "Ciclos: %d, trocas: %d, E/S estacionadas: %d, esperas por memória: %d",
+            processosExecutados.get(), numNucleos, maxThreadsVivas.get(),
+            ciclosExecutados.get(), trocas.get(), bloqueiosIO.get(), esperasMemoria.get());
+    }
+
+    private int getTamPg() {
+        return gerenciadorMemoria.getGerenciador().getTamPg();
+    }
+
+    /**
+     * Processo: a thread, a CPU que o interpreta e os tratadores que o SO daria a ela
+     */
+    private class Processo implements Runnable {
+        final int pid;
+        final Program programa;
+        final int[] argumentos;
+        final CompletableFuture<ProcessResult> resultado = new CompletableFuture<>();
+        final CPU cpu;
+        int[] tabelaPaginas;
+        MotivoTermino motivo;
+        boolean comNucleo;              // Segura uma permissão do semáforo
+        long ciclosNaEntrada;           // Ciclos da CPU ao obter o núcleo
+        long espera;                    // Ciclos executados pelos outros enquanto esperava núcleo
+
+        Processo(int pid, Program programa, int[] argumentos) {
+            this.pid = pid;
+            this.programa = programa;
+            this.argumentos = argumentos;
+            this.cpu = new CPU(hardware.mem); // Relógio próprio: sem disputa pelo relógio compartilhado
+            cpu.setTamanhoPagina(getTamPg());
+            cpu.setAddressOfHandlers(new InterruptHandling(hardware) {
+                @Override
+                public boolean handle(Interrupts irpt) {
+                    return tratarInterrupcao(irpt);
+                }
+            }, new SysCallHandling(hardware) {
+                @Override
+                public boolean stop() {
+                    motivo = MotivoTermino.NORMAL;
+                    return false;
+                }
+
+                @Override
+                public boolean handle() {
+                    return tratarSysCall();
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            hardware.console.capturarEmMemoria(pid);
+            if (argumentos.length > 0) {
+                hardware.entrada.programarValores(pid, argumentos);
+            }
+            try {
+                admitir();
+                cpu.setContext(0, new int[10], tabelaPaginas);
+                cpu.setTimer(quantum);
+                if (adquirirNucleo()) {
+                    cpu.run();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                motivo = MotivoTermino.ENCERRADO;
+            } finally {
+                liberarNucleo();
+                terminar();
+            }
+        }
+
+        /**
+         * Espera frames livres para a imagem; quem espera uma falta de página tem a vez
+         */
+        private void admitir() throws InterruptedException {
+            int paginas = (programa.image.length + getTamPg() - 1) / getTamPg();
+            synchronized (memoria) {
+                boolean esperou = false;
+                while (esperandoPagina > 0 || paginas > gerenciadorMemoria.getGerenciador().getFramesLivres()
+                        || (tabelaPaginas = gerenciadorMemoria.alocaPrograma(programa.image, "Processo-" + pid)) == null) {
+                    esperou = true;
+                    memoria.wait();
+                }
+                residentes++;
+                if (esperou) {
+                    esperasMemoria.incrementAndGet();
+                }
+            }
+        }
+
+        private void terminar() {
+            if (motivo == null) {
+                motivo = MotivoTermino.ENCERRADO;
+            }
+            if (tabelaPaginas != null) {
+                synchronized (memoria) {
+                    gerenciadorMemoria.desalocaPrograma(tabelaPaginas);
+                    residentes--;
+                    memoria.notifyAll();
+                }
+            }
+            hardware.entrada.descartar(pid);
+            String saida = hardware.console.encerrarCaptura(pid);
+            processosExecutados.incrementAndGet();
+            threadsVivas.decrementAndGet();
+            threads.remove(Thread.currentThread());
+            resultado.complete(new ProcessResult(pid, programa.name, motivo, saida == null ? "" : saida,
+                cpu.getCiclos(), espera));
+        }
+
+        /**
+         * Fila do semáforo: false se a thread foi interrompida esperando
+         */
+        private boolean adquirirNucleo() {
+            long antes = ciclosExecutados.get();
+            try {
+                nucleos.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                motivo = MotivoTermino.ENCERRADO;
+                return false;
+            }
+            comNucleo = true;
+            ciclosNaEntrada = cpu.getCiclos();
+            espera += ciclosExecutados.get() - antes;
+            return true;
+        }
+
+        private void liberarNucleo() {
+            if (comNucleo) {
+                comNucleo = false;
+                ciclosExecutados.addAndGet(cpu.getCiclos() - ciclosNaEntrada);
+                nucleos.release();
+            }
+        }
+
+        private boolean tratarInterrupcao(Interrupts irpt) {
+            switch (irpt) {
+                case intTimer:         // Fatia esgotada: cede o núcleo só se alguém espera por ele
+                    if (!nucleos.hasQueuedThreads()) {
+                        return true;
+                    }
+                    trocas.incrementAndGet();
+                    liberarNucleo();
+                    return adquirirNucleo();
+                case intFaltaDePagina:
+                    return mapearPagina(cpu.getEnderecoFalta());
+                case intIO:            // Transferências são síncronas neste modo: nada a desbloquear
+                    return true;
+                default:
+                    motivo = MotivoTermino.deInterrupcao(irpt);
+                    return false;
+            }
+        }
+
+        /**
+         * Leitura e escrita; sem valor pronto ou sem espaço no console a thread
+         * estaciona no dispositivo fora do núcleo
+         */
+        private boolean tratarSysCall() {
+            int operacao = cpu.getReg(8);
+            if (operacao != PedidoIO.LEITURA && operacao != PedidoIO.ESCRITA) {
+                LogKernel.registrar(Categoria.SYSCALL, Nivel.AVISO, "  PARAMETRO INVALIDO");
+                return true;
+            }
+            int enderecoLogico = cpu.getReg(9);
+            int pagina = enderecoLogico / getTamPg();
+            if (enderecoLogico >= 0 && (pagina >= tabelaPaginas.length || tabelaPaginas[pagina] < 0)
+                    && !mapearPagina(enderecoLogico)) {
+                return false; // Buffer em página ainda sem frame
+            }
+            Word palavra;
+            try {
+                palavra = hardware.mem.pos[gerenciadorMemoria.traduzirEndereco(enderecoLogico, tabelaPaginas)];
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                motivo = MotivoTermino.ENDERECO_INVALIDO;
+                return false;
+            }
+
+            if (operacao == PedidoIO.ESCRITA && hardware.console.tentarEscrever(pid, palavra.p)) {
+                return true;
+            }
+            if (operacao == PedidoIO.LEITURA) {
+                Integer valor = hardware.entrada.tentarLer(pid);
+                if (valor != null) {
+                    palavra.opc = Opcode.DATA;
+                    palavra.p = valor;
+                    return true;
+                }
+            }
+            PedidoIO pedido = new PedidoIO(pid, operacao, -1, palavra.p);
+            bloqueiosIO.incrementAndGet();
+            liberarNucleo();
+            hardware.io.executar(pedido); // Estaciona a thread até a transferência terminar
+            if (!adquirirNucleo()) {
+                return false;
+            }
+            if (operacao == PedidoIO.LEITURA) {
+                palavra.opc = Opcode.DATA;
+                palavra.p = pedido.valor;
+            }
+            return true;
+        }
+
+        /**
+         * Falta de página: aloca um frame; com a memória cheia espera outro processo
+         * liberar frames, a não ser que todos os residentes também estejam esperando
+         */
+        private boolean mapearPagina(int enderecoLogico) {
+            int pagina = enderecoLogico / getTamPg();
+            if (enderecoLogico < 0 || pagina >= maxPaginasPorProcesso) {
+                motivo = MotivoTermino.ENDERECO_INVALIDO;
+                return false;
+            }
+            int frame = gerenciadorMemoria.alocaPagina("Processo-" + pid);
+            if (frame < 0) {
+                liberarNucleo();
+                synchronized (memoria) {
+                    esperandoPagina++;
+                    esperasMemoria.incrementAndGet();
+                    try {
+                        while ((frame = gerenciadorMemoria.alocaPagina("Processo-" + pid)) < 0) {
+                            if (esperandoPagina >= residentes) {
+                                motivo = MotivoTermino.SEM_MEMORIA; // Ninguém vai liberar: impasse
+                                return false;
+                            }
+                            memoria.wait();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        motivo = MotivoTermino.ENCERRADO;
+                        return false;
+                    } finally {
+                        esperandoPagina--;
+                        memoria.notifyAll(); // Admissões seguradas por esta espera
+                    }
+                }
+                if (!adquirirNucleo()) {
+                    gerenciadorMemoria.desalocaPrograma(new int[] { frame });
+                    return false;
+                }
+            }
+            int[] novaTabela = Arrays.copyOf(tabelaPaginas, Math.max(tabelaPaginas.length, pagina + 1));
+            for (int i = tabelaPaginas.length; i < novaTabela.length; i++) {
+                novaTabela[i] = -1;
+            }
+            novaTabela[pagina] = frame;
+            tabelaPaginas = novaTabela;
+            cpu.setTabelaPaginas(tabelaPaginas);
+            return true;
+        }
+    }
+}
@@ -6,16 +6,52 @@ import hardware.Interrupts;
 import hardware.Memory;
 import hardware.Word;
 import hardware.CPU;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
 public class InterruptHandling {
 		private HW hw; // referencia ao hw se tiver que setar algo
+		private ProcessManager gp; // gerente de processos - null quando o SO roda um unico programa
+		private CPU cpu;           // nucleo atendido por este tratador
+		private int nucleo;
 
 		public InterruptHandling(HW _hw) {
+			this(_hw, null);
+		}
+
+		public InterruptHandling(HW _hw, ProcessManager _gp) {
+			this(_hw, _gp, 0);
+		}
+
+		public InterruptHandling(HW _hw, ProcessManager _gp, int _nucleo) {
 			hw = _hw;
+			gp = _gp;
+			nucleo = _nucleo;
+			cpu = hw.cpus[nucleo];
+		}
+
+		public boolean handle(Interrupts irpt) { // retorna true se a CPU deve continuar executando
+			if (gp == null) {
+				// sem gerente de processos ha um unico programa - toda interrupcao finaliza o programa
+				registrar(irpt);
+				return false;
+			}
+			switch (irpt) {
+				case intTimer:         // fatia esgotada - processo volta para a fila de prontos
+					return gp.preemptarProcessoAtual(nucleo);
+				case intFaltaDePagina: // pagina ainda sem frame - aloca e reexecuta a instrucao
+					return gp.tratarFaltaDePagina(nucleo, cpu.getEnderecoFalta());
+				case intIO:            // transferencia concluida - processo que esperava volta a ficar pronto
+					return gp.tratarFimDeIO(nucleo);
+				default:               // erro do programa - encerra somente o processo corrente
+					registrar(irpt);
+					return gp.encerrarProcessoAtual(nucleo, MotivoTermino.deInterrupcao(irpt));
+			}
 		}
 
-		public void handle(Interrupts irpt) {
-			// apenas avisa - todas interrupcoes neste momento finalizam o programa
-			System.out.println(
-					"                                               Interrupcao " + irpt + "   pc: " + hw.cpu.getPc());
+		private void registrar(Interrupts irpt) { // categoria desligada: nem o pc e convertido
+			if (LogKernel.ativo(Categoria.INTERRUPCAO, Nivel.INFO)) {
+				LogKernel.registrar(Categoria.INTERRUPCAO, Nivel.INFO,
+						"                                               Interrupcao %s   pc: %d", irpt, cpu.getPc());
+			}
 		}
 	}
@@ -0,0 +1,59 @@
+package software;
+
+/**
+ * Limites de recursos de um processo (0 = sem limite)
+ *
+ * - Ciclos de CPU executados
+ * - Frames residentes (páginas com frame na memória)
+ * - Volume de saída: valores escritos pelas SYSCALLs de escrita
+ * - Tempo de parede desde a criação, em milissegundos
+ *
+ * Verificados nas fronteiras de quantum, ao bloquear (E/S, sleep), ao voltar a
+ * ficar pronto e a cada escrita ou falta de página; processo que segue
+ * bloqueado é encerrado pelo prazo do limite de tempo de parede.
+ * Quem excede é finalizado com o MotivoTermino correspondente.
+ */
+public class LimitesRecursos {
+    public static final LimitesRecursos SEM_LIMITES = new LimitesRecursos(0, 0, 0, 0);
+
+    private final long maxCiclos;
+    private final int maxFrames;
+    private final long maxSaida;
+    private final long maxTempoParedeMs;
+
+    public LimitesRecursos(long maxCiclos, int maxFrames, long maxSaida, long maxTempoParedeMs) {
+        if (maxCiclos < 0 || maxFrames < 0 || maxSaida < 0 || maxTempoParedeMs < 0) {
+            throw new IllegalArgumentException("Limites não podem ser negativos");
+        }
+        this.maxCiclos = maxCiclos;
+        this.maxFrames = maxFrames;
+        this.maxSaida = maxSaida;
+        this.maxTempoParedeMs = maxTempoParedeMs;
+    }
+
+    public long getMaxCiclos() {
+        return maxCiclos;
+    }
+
+    public int getMaxFrames() {
+        return maxFrames;
+    }
+
+    public long getMaxSaida() {
+        return maxSaida;
+    }
+
+    public long getMaxTempoParedeMs() {
+        return maxTempoParedeMs;
+    }
+
+    public boolean isIlimitado() {
+        return maxCiclos == 0 && maxFrames == 0 && maxSaida == 0 && maxTempoParedeMs == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Limites[CPU=%d ciclos, Frames=%d, Saída=%d, Parede=%d ms]",
+                maxCiclos, maxFrames, maxSaida, maxTempoParedeMs);
+    }
+}
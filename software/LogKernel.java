@@ -0,0 +1,348 @@
+package software;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log do núcleo com níveis e categorias, assíncrono
+ *
+ * As mensagens dos caminhos quentes (alocação de memória, trocas de contexto,
+ * ciclo da CPU) não são formatadas nem escritas por quem as emite: o formato e
+ * os argumentos vão para um anel de registros pré-alocados e uma thread daemon
+ * formata e escreve em lote. Categoria desligada custa uma leitura volátil;
+ * com o anel cheio o registro é descartado e contado, sem bloquear o emissor.
+ *
+ * Os argumentos são guardados por referência e formatados depois: quem emite
+ * passa valores imutáveis ou cópias (arrays int[] saem com Arrays.toString).
+ * Níveis iniciais podem vir da propriedade so.log, ex: -Dso.log=mem=DEBUG,cpu=DESLIGADO
+ *
+ * silenciar/retomar calam só a thread que chama e as threads que ela criar
+ * (núcleos, dispositivo de E/S): uma máquina isolada fica muda sem mexer nos
+ * níveis globais vistos pelas demais.
+ */
+public final class LogKernel {
+
+    /**
+     * Severidade; DESLIGADO como limite de uma categoria silencia tudo
+     */
+    public enum Nivel {
+        DESLIGADO, ERRO, AVISO, INFO, DEBUG
+    }
+
+    /**
+     * Origem da mensagem; cada categoria tem seu limite de nível
+     */
+    public enum Categoria {
+        MEM(Nivel.INFO),
+        SCHED(Nivel.INFO),
+        PROC(Nivel.INFO),
+        SYSCALL(Nivel.INFO),     // parâmetros de cada chamada em DEBUG: desligados por padrão
+        INTERRUPCAO(Nivel.INFO),
+        SWAP(Nivel.INFO),
+        IO(Nivel.INFO),
+        CPU(Nivel.DEBUG); // o rastro da CPU já é filtrado pela flag debug de cada CPU
+
+        private final Nivel padrao;
+        private volatile int limite;
+
+        Categoria(Nivel padrao) {
+            this.padrao = padrao;
+            this.limite = padrao.ordinal();
+        }
+    }
+
+    /**
+     * Posição do anel; publicado == sequência quando o registro está completo
+     */
+    private static final class Registro {
+        volatile long publicado = -1;
+        String formato;
+        int numArgs;
+        Object a0, a1, a2, a3, a4;
+    }
+
+    private static final int CAPACIDADE = 4096; // potência de 2
+    private static final long INTERVALO_NANOS = 2_000_000; // espera da thread de escrita sem registros
+
+    private static final Registro[] anel = new Registro[CAPACIDADE];
+    private static final AtomicLong cabeca = new AtomicLong(); // próxima sequência a reservar
+    private static volatile long cauda; // próxima sequência a escrever; só avança sob a trava
+    private static final Object trava = new Object();
+    private static final LongAdder escritos = new LongAdder();
+    private static final LongAdder descartados = new LongAdder();
+    private static volatile PrintStream saida; // null: System.out vigente no momento da escrita
+    private static volatile Thread escritor;
+    private static final InheritableThreadLocal<int[]> silencio = new InheritableThreadLocal<>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[1];
+        }
+
+        @Override
+        protected int[] childValue(int[] pai) { // contagem própria: a filha não desfaz o silêncio da mãe
+            return new int[] { pai[0] };
+        }
+    };
+
+    static {
+        for (int i = 0; i < CAPACIDADE; i++) {
+            anel[i] = new Registro();
+        }
+        String config = System.getProperty("so.log");
+        if (config != null) {
+            configurar(config);
+        }
+    }
+
+    private LogKernel() {
+    }
+
+    /**
+     * Se uma mensagem do nível na categoria seria registrada; use para não
+     * montar argumentos caros (cópias, listas) com a categoria desligada
+     */
+    public static boolean ativo(Categoria categoria, Nivel nivel) {
+        int n = nivel.ordinal();
+        return n != 0 && n <= categoria.limite && silencio.get()[0] == 0;
+    }
+
+    /**
+     * Cala o log nesta thread e nas que ela criar daqui em diante; chamadas
+     * aninhadas se acumulam e cada uma é desfeita por um retomar
+     */
+    public static void silenciar() {
+        silencio.get()[0]++;
+    }
+
+    public static void retomar() {
+        int[] contagem = silencio.get();
+        if (contagem[0] == 0) {
+            throw new IllegalStateException("retomar sem silenciar");
+        }
+        contagem[0]--;
+    }
+
+    public static void setNivel(Categoria categoria, Nivel nivel) {
+        categoria.limite = nivel.ordinal();
+    }
+
+    public static Nivel getNivel(Categoria categoria) {
+        return Nivel.values()[categoria.limite];
+    }
+
+    /**
+     * Mesmo nível em todas as categorias
+     */
+    public static void setNivel(Nivel nivel) {
+        for (Categoria c : Categoria.values()) {
+            c.limite = nivel.ordinal();
+        }
+    }
+
+    /**
+     * Volta aos níveis de fábrica de cada categoria
+     */
+    public static void restaurarNiveis() {
+        for (Categoria c : Categoria.values()) {
+            c.limite = c.padrao.ordinal();
+        }
+    }
+
+    /**
+     * Níveis em texto: "mem=DEBUG,cpu=DESLIGADO" ou "*=ERRO"
+     */
+    public static void configurar(String config) {
+        for (String item : config.split(",")) {
+            String[] partes = item.trim().split("=");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("Configuração de log inválida: " + item);
+            }
+            Nivel nivel = Nivel.valueOf(partes[1].trim().toUpperCase(Locale.ROOT));
+            String categoria = partes[0].trim().toUpperCase(Locale.ROOT);
+            if (categoria.equals("*")) {
+                setNivel(nivel);
+            } else {
+                setNivel(Categoria.valueOf(categoria), nivel);
+            }
+        }
+    }
+
+    /**
+     * Destino das linhas; null volta ao System.out vigente
+     */
+    public static void setSaida(PrintStream destino) {
+        flush();
+        saida = destino;
+    }
+
+    public static void registrar(Categoria c, Nivel n, String formato) {
+        if (ativo(c, n)) {
+            publicar(formato, 0, null, null, null, null, null);
+        }
+    }
+
+    public static void registrar(Categoria c, Nivel n, String formato, Object a0) {
+        if (ativo(c, n)) {
+            publicar(formato, 1, a0, null, null, null, null);
+        }
+    }
+
+    public static void registrar(Categoria c, Nivel n, String formato, Object a0, Object a1) {
+        if (ativo(c, n)) {
+            publicar(formato, 2, a0, a1, null, null, null);
+        }
+    }
+
+    public static void registrar(Categoria c, Nivel n, String formato, Object a0, Object a1, Object a2) {
+        if (ativo(c, n)) {
+            publicar(formato, 3, a0, a1, a2, null, null);
+        }
+    }
+
+    public static void registrar(Categoria c, Nivel n, String formato, Object a0, Object a1, Object a2,
+                                 Object a3) {
+        if (ativo(c, n)) {
+            publicar(formato, 4, a0, a1, a2, a3, null);
+        }
+    }
+
+    public static void registrar(Categoria c, Nivel n, String formato, Object a0, Object a1, Object a2,
+                                 Object a3, Object a4) {
+        if (ativo(c, n)) {
+            publicar(formato, 5, a0, a1, a2, a3, a4);
+        }
+    }
+
+    /**
+     * Reserva uma posição do anel sem bloquear; cheio, descarta e conta
+     */
+    private static void publicar(String formato, int numArgs,
+                                 Object a0, Object a1, Object a2, Object a3, Object a4) {
+        long seq;
+        do {
+            seq = cabeca.get();
+            if (seq - cauda >= CAPACIDADE) {
+                descartados.increment();
+                return;
+            }
+        } while (!cabeca.compareAndSet(seq, seq + 1));
+
+        Registro r = anel[(int) seq & (CAPACIDADE - 1)];
+        r.formato = formato;
+        r.numArgs = numArgs;
+        r.a0 = a0;
+        r.a1 = a1;
+        r.a2 = a2;
+        r.a3 = a3;
+        r.a4 = a4;
+        r.publicado = seq;
+        if (escritor == null) {
+            iniciarEscritor();
+        }
+    }
+
+    private static synchronized void iniciarEscritor() {
+        if (escritor != null) {
+            return;
+        }
+        Thread t = new Thread(() -> {
+            while (true) {
+                try {
+                    if (drenar(false) == 0) {
+                        LockSupport.parkNanos(INTERVALO_NANOS);
+                    }
+                } catch (RuntimeException e) { // destino com falha: perde o lote, segue escrevendo
+                    LockSupport.parkNanos(INTERVALO_NANOS);
+                }
+            }
+        }, "log-kernel");
+        t.setDaemon(true);
+        escritor = t;
+        t.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(LogKernel::flush, "log-kernel-fim")); // daemon não escreve o resto
+    }
+
+    /**
+     * Escreve agora, na thread chamadora, tudo o que já foi registrado.
+     * Pontos de sincronização (fim da execução, antes de relatórios na tela)
+     * chamam para que o log não apareça depois da saída seguinte
+     */
+    public static void flush() {
+        drenar(true);
+    }
+
+    /**
+     * Escreve os registros publicados em ordem de sequência. Com esperar, aguarda
+     * também os já reservados e ainda em preenchimento até a cabeça atual
+     */
+    private static int drenar(boolean esperar) {
+        synchronized (trava) {
+            long fim = cabeca.get();
+            PrintStream destino = saida != null ? saida : System.out;
+            int escritosAgora = 0;
+            long seq = cauda;
+            while (seq < fim) {
+                Registro r = anel[(int) seq & (CAPACIDADE - 1)];
+                if (r.publicado != seq) {
+                    if (!esperar) {
+                        break;
+                    }
+                    Thread.onSpinWait();
+                    continue;
+                }
+                String linha = formatar(r);
+                r.formato = null;
+                r.a0 = r.a1 = r.a2 = r.a3 = r.a4 = null;
+                cauda = ++seq; // libera a posição para os emissores
+                destino.println(linha);
+                escritosAgora++;
+            }
+            if (escritosAgora > 0) {
+                destino.flush();
+                escritos.add(escritosAgora);
+            }
+            return escritosAgora;
+        }
+    }
+
+    private static String formatar(Registro r) {
+        if (r.numArgs == 0) {
+            return r.formato;
+        }
+        Object[] args = {r.a0, r.a1, r.a2, r.a3, r.a4};
+        for (int i = 0; i < r.numArgs; i++) {
+            if (args[i] instanceof int[]) {
+                args[i] = Arrays.toString((int[]) args[i]);
+            }
+        }
+        try {
+            return String.format(r.formato, Arrays.copyOf(args, r.numArgs));
+        } catch (IllegalFormatException e) { // formato errado não derruba a thread de escrita
+            return r.formato + " " + Arrays.toString(Arrays.copyOf(args, r.numArgs));
+        }
+    }
+
+    /**
+     * Linhas já escritas no destino
+     */
+    public static long getEscritos() {
+        return escritos.sum();
+    }
+
+    /**
+     * Registros perdidos com o anel cheio
+     */
+    public static long getDescartados() {
+        return descartados.sum();
+    }
+
+    public static String getEstatisticas() {
+        return String.format("Log do núcleo: %d linhas escritas, %d descartadas (anel de %d)",
+            getEscritos(), getDescartados(), CAPACIDADE);
+    }
+}
@@ -0,0 +1,145 @@
+package software;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Escalonador de longo prazo: fila de admissão na frente do ProcessManager
+ *
+ * Programas submetidos esperam aqui até haver vaga de processo e frames livres
+ * para a imagem inteira; em sobrecarga o trabalho fica enfileirado em vez de
+ * ser rejeitado. A ordem de admissão é configurável:
+ * - FIFO: ordem de chegada
+ * - MENOR_IMAGEM_PRIMEIRO: menor imagem primeiro (desempate pela chegada)
+ *
+ * A cabeça da fila bloqueia as demais: um programa grande não é ultrapassado
+ * indefinidamente pelos menores na política FIFO.
+ */
+public class LongTermScheduler {
+
+    /**
+     * Política de ordenação da fila de admissão
+     */
+    public enum Politica {
+        FIFO,
+        MENOR_IMAGEM_PRIMEIRO
+    }
+
+    private Politica politica;
+    private PriorityQueue<Submissao> fila;
+
+    // Métricas
+    private int profundidadeMaxima;
+    private long totalEnfileirados;
+    private long totalAdmitidos;
+    private long esperaTotalNanos;            // Soma das esperas na fila dos admitidos
+
+    public LongTermScheduler() {
+        this(Politica.FIFO);
+    }
+
+    public LongTermScheduler(Politica politica) {
+        this.politica = politica;
+        this.fila = new PriorityQueue<>(comparador(politica));
+    }
+
+    private static Comparator<Submissao> comparador(Politica politica) {
+        Comparator<Submissao> chegada = Comparator.comparingLong(s -> s.sequencia);
+        if (politica == Politica.MENOR_IMAGEM_PRIMEIRO) {
+            return Comparator.comparingInt(Submissao::getTamanho).thenComparing(chegada);
+        }
+        return chegada;
+    }
+
+    /**
+     * Troca a política, reordenando os programas já enfileirados
+     */
+    public synchronized void setPolitica(Politica novaPolitica) {
+        PriorityQueue<Submissao> novaFila = new PriorityQueue<>(comparador(novaPolitica));
+        novaFila.addAll(fila);
+        this.fila = novaFila;
+        this.politica = novaPolitica;
+        System.out.println("Política de admissão alterada para: " + novaPolitica);
+    }
+
+    public synchronized Politica getPolitica() {
+        return politica;
+    }
+
+    synchronized void enfileirar(Submissao submissao) {
+        fila.offer(submissao);
+        totalEnfileirados++;
+        profundidadeMaxima = Math.max(profundidadeMaxima, fila.size());
+    }
+
+    /**
+     * Próximo programa a admitir, sem retirá-lo da fila (null se vazia)
+     */
+    synchronized Submissao proximo() {
+        return fila.peek();
+    }
+
+    /**
+     * Retira o próximo programa, que será admitido agora
+     */
+    synchronized Submissao retirar() {
+        Submissao submissao = fila.poll();
+        if (submissao != null) {
+            totalAdmitidos++;
+            esperaTotalNanos += System.nanoTime() - submissao.instanteSubmissao;
+        }
+        return submissao;
+    }
+
+    /**
+     * Retira o próximo programa sem admiti-lo (não cabe nunca na memória)
+     */
+    synchronized Submissao descartar() {
+        return fila.poll();
+    }
+
+    public synchronized boolean isEmpty() {
+        return fila.isEmpty();
+    }
+
+    /**
+     * Programas aguardando admissão
+     */
+    public synchronized int getProfundidade() {
+        return fila.size();
+    }
+
+    public synchronized int getProfundidadeMaxima() {
+        return profundidadeMaxima;
+    }
+
+    public synchronized long getTotalEnfileirados() {
+        return totalEnfileirados;
+    }
+
+    public synchronized long getTotalAdmitidos() {
+        return totalAdmitidos;
+    }
+
+    /**
+     * Tempo médio de espera na fila dos programas já admitidos, em milissegundos
+     */
+    public synchronized double getEsperaMediaMs() {
+        return totalAdmitidos == 0 ? 0 : esperaTotalNanos / 1e6 / totalAdmitidos;
+    }
+
+    /**
+     * Estatísticas do escalonador de longo prazo
+     */
+    public synchronized String getEstatisticas() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Estatísticas do Escalonador de Longo Prazo ===\n");
+        sb.append("Política: ").append(politica).append("\n");
+        sb.append("Programas na fila de admissão: ").append(fila.size()).append("\n");
+        sb.append("Profundidade máxima da fila: ").append(profundidadeMaxima).append("\n");
+        sb.append("Total enfileirados: ").append(totalEnfileirados).append("\n");
+        sb.append("Total admitidos: ").append(totalAdmitidos).append("\n");
+        sb.append(String.format("Espera média na fila: %.3f ms%n", getEsperaMediaMs()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,365 @@
+package software;
+
+import hardware.Opcode;
+import hardware.Word;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Escalonador de médio prazo: retira processos inteiros da memória (swap)
+ *
+ * Quando a fila de admissão não cabe na memória, processos bloqueados (WAITING)
+ * ou prontos de baixa prioridade têm todo o espaço de endereçamento residente
+ * gravado na área de swap com uma única escrita NIO, e seus frames voltam ao
+ * gerenciador de memória. O processo volta à memória (em outros frames) quando
+ * estiver pronto e houver frames livres. Processos com pedidos do anel de E/S
+ * em andamento não são escolhidos: as conclusões escrevem direto na memória.
+ *
+ * Formato na área: cada palavra ocupa 16 bytes (opcode, ra, rb, p).
+ * Sem arquivo configurado cada instância usa o seu arquivo temporário,
+ * apagado em fechar(); a área só é truncada na primeira abertura.
+ */
+public class MediumTermScheduler {
+    private static final int BYTES_POR_PALAVRA = 16;
+    private static final Opcode[] OPCODES = Opcode.values();
+
+    /**
+     * Imagem de um processo na área de swap
+     */
+    private static class ImagemSwap {
+        final long posicao;
+        final long tamanho;
+        final int[] paginas;        // Páginas lógicas gravadas, na ordem da área
+        final int[] framesAntigos;  // Frame de cada página antes do swap-out (traduz E/S em andamento)
+        final int tamanhoTabela;
+
+        ImagemSwap(long posicao, long tamanho, int[] paginas, int[] framesAntigos, int tamanhoTabela) {
+            this.posicao = posicao;
+            this.tamanho = tamanho;
+            this.paginas = paginas;
+            this.framesAntigos = framesAntigos;
+            this.tamanhoTabela = tamanhoTabela;
+        }
+    }
+
+    private final Word[] memoria;                 // Memória física do HW
+    private final int tamPg;
+    private Path arquivo;                         // Área de swap (arquivo temporário se não configurada)
+    private boolean arquivoTemporario;            // Criado por esta instância: apagado em fechar()
+    private boolean areaInicializada;             // Conteúdo anterior do arquivo já descartado
+    private FileChannel canal;                    // Aberto no primeiro swap-out
+    private final Map<Integer, ImagemSwap> imagens;
+    private final TreeMap<Long, Long> extensoesLivres; // Posição -> tamanho dos trechos liberados da área
+    private long fimArea;
+    private int limiarPrioridade;                 // Prontos com prioridade abaixo disto podem ir para o swap
+
+    // Estatísticas (latência em nanossegundos)
+    private long totalSwapOuts;
+    private long totalSwapIns;
+    private long latenciaSwapOut;
+    private long latenciaSwapIn;
+    private long maiorLatenciaSwapOut;
+    private long maiorLatenciaSwapIn;
+
+    public MediumTermScheduler(Word[] memoria, int tamPg) {
+        this.memoria = memoria;
+        this.tamPg = tamPg;
+        this.imagens = new HashMap<>();
+        this.extensoesLivres = new TreeMap<>();
+        this.limiarPrioridade = 1; // Prioridade padrão é 1: só prioridade 0 sai da memória estando pronta
+    }
+
+    /**
+     * Define o arquivo da área de swap (antes do primeiro swap-out)
+     */
+    public synchronized void setArquivo(Path arquivo) {
+        if (areaInicializada) {
+            throw new IllegalStateException("Área de swap já em uso: " + this.arquivo);
+        }
+        this.arquivo = arquivo;
+    }
+
+    /**
+     * Arquivo da área de swap (null antes do primeiro swap-out sem arquivo configurado)
+     */
+    public synchronized Path getArquivo() {
+        return arquivo;
+    }
+
+    public synchronized void setLimiarPrioridade(int limiar) {
+        this.limiarPrioridade = limiar;
+    }
+
+    /**
+     * Escolhe processos cujo swap-out libera ao menos framesNecessarios:
+     * bloqueados primeiro, depois prontos de baixa prioridade, maiores primeiro.
+     * Lista vazia se nem todos os candidatos juntos liberariam o suficiente.
+     */
+    public synchronized List<ProcessControlBlock> escolherVitimas(Collection<ProcessControlBlock> processos,
+                                                                  int framesNecessarios) {
+        List<ProcessControlBlock> candidatos = new ArrayList<>();
+        for (ProcessControlBlock pcb : processos) {
+            boolean bloqueado = pcb.getEstado() == ProcessState.WAITING;
+            boolean prontoBaixaPrioridade = pcb.getEstado() == ProcessState.READY
+                && pcb.getPrioridade() < limiarPrioridade;
+            if (!pcb.isEmSwap() && pcb.getIOEmVoo() == 0 && (bloqueado || prontoBaixaPrioridade)) {
+                candidatos.add(pcb);
+            }
+        }
+        candidatos.sort(Comparator
+            .comparing((ProcessControlBlock pcb) -> pcb.getEstado() != ProcessState.WAITING)
+            .thenComparing(pcb -> -framesResidentes(pcb.getTabelaPaginas())));
+
+        List<ProcessControlBlock> vitimas = new ArrayList<>();
+        int liberados = 0;
+        for (ProcessControlBlock pcb : candidatos) {
+            if (liberados >= framesNecessarios) {
+                break;
+            }
+            vitimas.add(pcb);
+            liberados += framesResidentes(pcb.getTabelaPaginas());
+        }
+        return liberados >= framesNecessarios ? vitimas : new ArrayList<>();
+    }
+
+    /**
+     * Grava as páginas residentes do processo na área de swap (uma escrita em lote).
+     * Os frames continuam ocupados: quem chama os devolve ao gerenciador de memória.
+     */
+    public synchronized void swapOut(ProcessControlBlock pcb) throws IOException {
+        long inicio = System.nanoTime();
+        int[] tabela = pcb.getTabelaPaginas();
+        int n = framesResidentes(tabela);
+        int[] paginas = new int[n];
+        int[] frames = new int[n];
+        for (int pagina = 0, i = 0; pagina < tabela.length; pagina++) {
+            if (tabela[pagina] >= 0) {
+                paginas[i] = pagina;
+                frames[i++] = tabela[pagina];
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(n * tamPg * BYTES_POR_PALAVRA);
+        for (int frame : frames) {
+            for (int e = frame * tamPg; e < (frame + 1) * tamPg; e++) {
+                Word w = memoria[e];
+                buffer.putInt(w.opc.ordinal()).putInt(w.ra).putInt(w.rb).putInt(w.p);
+            }
+        }
+        buffer.flip();
+        long posicao = reservar(buffer.capacity());
+        FileChannel area = canal();
+        while (buffer.hasRemaining()) {
+            area.write(buffer, posicao + buffer.position());
+        }
+        imagens.put(pcb.getPid(), new ImagemSwap(posicao, buffer.capacity(), paginas, frames, tabela.length));
+
+        long latencia = System.nanoTime() - inicio;
+        totalSwapOuts++;
+        latenciaSwapOut += latencia;
+        maiorLatenciaSwapOut = Math.max(maiorLatenciaSwapOut, latencia);
+        if (LogKernel.ativo(Categoria.SWAP, Nivel.INFO)) {
+            LogKernel.registrar(Categoria.SWAP, Nivel.INFO, "Swap-out: %s (PID: %d, %d páginas) em %.3f ms",
+                pcb.getNome(), pcb.getPid(), n, latencia / 1e6);
+        }
+    }
+
+    /**
+     * Lê a imagem do processo para os frames dados (um por página gravada)
+     * e devolve a nova tabela de páginas; o trecho da área é liberado
+     */
+    public synchronized int[] swapIn(ProcessControlBlock pcb, int[] frames) throws IOException {
+        long inicio = System.nanoTime();
+        ImagemSwap imagem = imagens.remove(pcb.getPid());
+        if (imagem == null) {
+            throw new IllegalStateException("Processo " + pcb.getPid() + " não está na área de swap");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) imagem.tamanho);
+        FileChannel area = canal();
+        while (buffer.hasRemaining()) {
+            if (area.read(buffer, imagem.posicao + buffer.position()) < 0) {
+                throw new IOException("Área de swap truncada (PID " + pcb.getPid() + ")");
+            }
+        }
+        buffer.flip();
+
+        int[] tabela = new int[imagem.tamanhoTabela];
+        java.util.Arrays.fill(tabela, -1);
+        for (int i = 0; i < imagem.paginas.length; i++) {
+            tabela[imagem.paginas[i]] = frames[i];
+            for (int e = frames[i] * tamPg; e < (frames[i] + 1) * tamPg; e++) {
+                Word w = memoria[e];
+                w.opc = OPCODES[buffer.getInt()];
+                w.ra = buffer.getInt();
+                w.rb = buffer.getInt();
+                w.p = buffer.getInt();
+            }
+        }
+        liberar(imagem.posicao, imagem.tamanho);
+
+        long latencia = System.nanoTime() - inicio;
+        totalSwapIns++;
+        latenciaSwapIn += latencia;
+        maiorLatenciaSwapIn = Math.max(maiorLatenciaSwapIn, latencia);
+        if (LogKernel.ativo(Categoria.SWAP, Nivel.INFO)) {
+            LogKernel.registrar(Categoria.SWAP, Nivel.INFO, "Swap-in: %s (PID: %d, %d páginas) em %.3f ms",
+                pcb.getNome(), pcb.getPid(), imagem.paginas.length, latencia / 1e6);
+        }
+        return tabela;
+    }
+
+    /**
+     * Leitura concluída para processo em swap: grava o valor na imagem, na
+     * palavra que ocupava o endereço físico do pedido antes do swap-out
+     */
+    public synchronized void escreverDado(int pid, int enderecoFisicoAntigo, int valor) throws IOException {
+        ImagemSwap imagem = imagens.get(pid);
+        if (imagem == null) {
+            return;
+        }
+        int frame = enderecoFisicoAntigo / tamPg;
+        for (int i = 0; i < imagem.framesAntigos.length; i++) {
+            if (imagem.framesAntigos[i] == frame) {
+                long posicao = imagem.posicao
+                    + ((long) i * tamPg + enderecoFisicoAntigo % tamPg) * BYTES_POR_PALAVRA;
+                FileChannel area = canal();
+                area.write(ByteBuffer.allocate(4).putInt(0, Opcode.DATA.ordinal()), posicao);
+                area.write(ByteBuffer.allocate(4).putInt(0, valor), posicao + 12);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Processo finalizado estando em swap: libera seu trecho da área
+     */
+    public synchronized void descartar(int pid) {
+        ImagemSwap imagem = imagens.remove(pid);
+        if (imagem != null) {
+            liberar(imagem.posicao, imagem.tamanho);
+        }
+    }
+
+    /**
+     * Frames necessários para trazer o processo de volta (0 se não está em swap)
+     */
+    public synchronized int getPaginasEmSwap(int pid) {
+        ImagemSwap imagem = imagens.get(pid);
+        return imagem == null ? 0 : imagem.paginas.length;
+    }
+
+    private static int framesResidentes(int[] tabela) {
+        int n = 0;
+        for (int frame : tabela) {
+            if (frame >= 0) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Canal da área de swap. Reabrir (ex: canal fechado por interrupção da thread)
+     * mantém as imagens gravadas: só a primeira abertura descarta o conteúdo antigo
+     */
+    private FileChannel canal() throws IOException {
+        if (canal == null || !canal.isOpen()) {
+            if (arquivo == null) {
+                arquivo = Files.createTempFile("sisop-swap", ".bin");
+                arquivo.toFile().deleteOnExit();
+                arquivoTemporario = true;
+            }
+            canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            if (!areaInicializada) {
+                canal.truncate(0);
+                areaInicializada = true;
+            }
+        }
+        return canal;
+    }
+
+    /**
+     * Fecha a área de swap e apaga o arquivo temporário; as imagens gravadas são
+     * descartadas e um novo swap-out começa uma área vazia
+     */
+    public synchronized void fechar() throws IOException {
+        try {
+            if (canal != null) {
+                canal.close();
+            }
+            if (arquivoTemporario) {
+                Files.deleteIfExists(arquivo);
+                arquivo = null;
+                arquivoTemporario = false;
+            }
+        } finally {
+            canal = null;
+            areaInicializada = false;
+            imagens.clear();
+            extensoesLivres.clear();
+            fimArea = 0;
+        }
+    }
+
+    /**
+     * Primeiro trecho liberado que comporta o tamanho, ou o fim da área
+     */
+    private long reservar(long tamanho) {
+        for (Map.Entry<Long, Long> livre : extensoesLivres.entrySet()) {
+            if (livre.getValue() >= tamanho) {
+                long posicao = livre.getKey();
+                extensoesLivres.remove(posicao);
+                if (livre.getValue() > tamanho) {
+                    extensoesLivres.put(posicao + tamanho, livre.getValue() - tamanho);
+                }
+                return posicao;
+            }
+        }
+        long posicao = fimArea;
+        fimArea += tamanho;
+        return posicao;
+    }
+
+    private void liberar(long posicao, long tamanho) {
+        if (tamanho > 0) {
+            extensoesLivres.put(posicao, tamanho);
+        }
+    }
+
+    public synchronized long getTotalSwapOuts() {
+        return totalSwapOuts;
+    }
+
+    public synchronized long getTotalSwapIns() {
+        return totalSwapIns;
+    }
+
+    /**
+     * Estatísticas do escalonador de médio prazo
+     */
+    public synchronized String getEstatisticas() {
+        return String.format(
+            "=== Estatísticas do Escalonador de Médio Prazo ===%n" +
+            "Processos em swap: %d (área: %d bytes)%n" +
+            "Swap-outs: %d (latência média %.3f ms, máxima %.3f ms)%n" +
+            "Swap-ins: %d (latência média %.3f ms, máxima %.3f ms)%n",
+            imagens.size(), fimArea,
+            totalSwapOuts, totalSwapOuts == 0 ? 0 : latenciaSwapOut / 1e6 / totalSwapOuts, maiorLatenciaSwapOut / 1e6,
+            totalSwapIns, totalSwapIns == 0 ? 0 : latenciaSwapIn / 1e6 / totalSwapIns, maiorLatenciaSwapIn / 1e6);
+    }
+}
@@ -0,0 +1,562 @@
+package software;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Registro central de métricas do SO: contadores, medidores e histogramas
+ *
+ * Os caminhos quentes só incrementam (LongAdder e AtomicLongArray, sem trava
+ * nem alocação); nada é formatado até alguém ler. A leitura sai de duas formas:
+ * um MBean dinâmico no servidor JMX da plataforma (jconsole, VisualVM) e o
+ * formato texto do Prometheus, sob demanda ou despejado periodicamente num
+ * arquivo (substituído de forma atômica, para o coletor nunca ler pela metade).
+ *
+ * Histogramas guardam valores inteiros (ex: nanossegundos) em baldes
+ * log-lineares como o HdrHistogram: cada potência de 2 é dividida em
+ * SUB_BALDES faixas iguais, então o erro relativo dos percentis fica abaixo de
+ * 1/SUB_BALDES em toda a escala, com memória fixa.
+ */
+public final class Metricas {
+
+    private static final Pattern NOME_VALIDO = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final double[] QUANTIS = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * Métrica registrada: nome no formato do Prometheus e texto de ajuda
+     */
+    public abstract static class Metrica {
+        private final String nome;
+        private final String ajuda;
+
+        Metrica(String nome, String ajuda) {
+            this.nome = nome;
+            this.ajuda = ajuda;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public String getAjuda() {
+            return ajuda;
+        }
+
+        abstract String tipo();
+
+        abstract void escrever(StringBuilder sb);
+
+        abstract void atributos(Map<String, Object> destino);
+
+        abstract void zerar();
+    }
+
+    /**
+     * Contagem monotônica (ex: trocas de contexto); só cresce até zerar()
+     */
+    public static final class Contador extends Metrica {
+        private final LongAdder valor = new LongAdder();
+
+        Contador(String nome, String ajuda) {
+            super(nome, ajuda);
+        }
+
+        public void incrementar() {
+            valor.increment();
+        }
+
+        public void somar(long n) {
+            valor.add(n);
+        }
+
+        public long get() {
+            return valor.sum();
+        }
+
+        String tipo() {
+            return "counter";
+        }
+
+        void escrever(StringBuilder sb) {
+            sb.append(getNome()).append(' ').append(get()).append('\n');
+        }
+
+        void atributos(Map<String, Object> destino) {
+            destino.put(getNome(), get());
+        }
+
+        void zerar() {
+            valor.reset();
+        }
+    }
+
+    /**
+     * Valor instantâneo lido na hora (ex: frames em uso); não guarda estado
+     */
+    public static final class Medidor extends Metrica {
+        private final DoubleSupplier valor;
+
+        Medidor(String nome, String ajuda, DoubleSupplier valor) {
+            super(nome, ajuda);
+            this.valor = valor;
+        }
+
+        public double get() {
+            return valor.getAsDouble();
+        }
+
+        String tipo() {
+            return "gauge";
+        }
+
+        void escrever(StringBuilder sb) {
+            sb.append(getNome()).append(' ').append(numero(get())).append('\n');
+        }
+
+        void atributos(Map<String, Object> destino) {
+            destino.put(getNome(), get());
+        }
+
+        void zerar() {
+        }
+    }
+
+    /**
+     * Taxa por segundo de parede de um contador, medida entre leituras com
+     * pelo menos um segundo de intervalo; leituras mais próximas repetem a
+     * última taxa (0 no primeiro segundo após a criação ou zerar())
+     */
+    public static final class Taxa extends Metrica {
+        private static final long JANELA_NANOS = 1_000_000_000L;
+
+        private final Contador contador;
+        private long contagemAnterior;
+        private long instanteAnterior = System.nanoTime();
+        private double ultima;
+
+        Taxa(String nome, String ajuda, Contador contador) {
+            super(nome, ajuda);
+            this.contador = contador;
+        }
+
+        public synchronized double get() {
+            long agora = System.nanoTime();
+            long decorrido = agora - instanteAnterior;
+            if (decorrido >= JANELA_NANOS) {
+                long contagem = contador.get();
+                ultima = (contagem - contagemAnterior) * 1e9 / decorrido;
+                contagemAnterior = contagem;
+                instanteAnterior = agora;
+            }
+            return ultima;
+        }
+
+        String tipo() {
+            return "gauge";
+        }
+
+        void escrever(StringBuilder sb) {
+            sb.append(getNome()).append(' ').append(numero(get())).append('\n');
+        }
+
+        void atributos(Map<String, Object> destino) {
+            destino.put(getNome(), get());
+        }
+
+        synchronized void zerar() {
+            contagemAnterior = contador.get(); // o contador pode ser zerado antes ou depois desta taxa
+            instanteAnterior = System.nanoTime();
+            ultima = 0;
+        }
+    }
+
+    /**
+     * Distribuição de valores inteiros não negativos em baldes log-lineares.
+     * Exportada como summary do Prometheus (quantis, soma e contagem), com os
+     * valores divididos pelo divisor na exportação (ex: 1e9 de ns para s)
+     */
+    public static final class Histograma extends Metrica {
+        private static final int BITS_SUB = 6;               // 64 faixas por potência de 2: erro < 1,6%
+        private static final int SUB_BALDES = 1 << BITS_SUB;
+        private static final int BALDES = (64 - BITS_SUB) * SUB_BALDES;
+
+        private final double divisor;
+        private final AtomicLongArray contagens = new AtomicLongArray(BALDES);
+        private final LongAdder total = new LongAdder();
+        private final LongAdder soma = new LongAdder();
+        private final AtomicLong maximo = new AtomicLong();
+
+        Histograma(String nome, String ajuda, double divisor) {
+            super(nome, ajuda);
+            this.divisor = divisor;
+        }
+
+        /**
+         * Balde do valor: direto abaixo de 2*SUB_BALDES; acima, a potência de 2
+         * escolhe o grupo e os BITS_SUB bits seguintes ao mais alto, a faixa
+         */
+        static int balde(long valor) {
+            if (valor < 2 * SUB_BALDES) {
+                return (int) valor;
+            }
+            int deslocamento = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUB;
+            return (deslocamento + 1) * SUB_BALDES + (int) (valor >>> deslocamento) - SUB_BALDES;
+        }
+
+        /**
+         * Maior valor que cai no balde (percentis nunca subestimam)
+         */
+        static long limiteSuperior(int balde) {
+            if (balde < 2 * SUB_BALDES) {
+                return balde;
+            }
+            int deslocamento = balde / SUB_BALDES - 1;
+            long base = (long) (balde % SUB_BALDES + SUB_BALDES) << deslocamento;
+            return base + (1L << deslocamento) - 1;
+        }
+
+        public void registrar(long valor) {
+            if (valor < 0) {
+                valor = 0;
+            }
+            contagens.incrementAndGet(balde(valor));
+            total.increment();
+            soma.add(valor);
+            long atual = maximo.get();
+            while (valor > atual && !maximo.compareAndSet(atual, valor)) {
+                atual = maximo.get();
+            }
+        }
+
+        public long getContagem() {
+            return total.sum();
+        }
+
+        public long getSoma() {
+            return soma.sum();
+        }
+
+        public long getMaximo() {
+            return maximo.get();
+        }
+
+        public double getMedia() {
+            long n = getContagem();
+            return n == 0 ? 0 : (double) getSoma() / n;
+        }
+
+        /**
+         * Valor abaixo do qual está a fração q das amostras (0 sem amostras),
+         * na unidade registrada
+         */
+        public long getPercentil(double q) {
+            long n = 0;
+            long[] copia = new long[BALDES];
+            for (int i = 0; i < BALDES; i++) {
+                copia[i] = contagens.get(i);
+                n += copia[i];
+            }
+            if (n == 0) {
+                return 0;
+            }
+            long alvo = Math.max(1, (long) Math.ceil(q * n));
+            long acumulado = 0;
+            for (int i = 0; i < BALDES; i++) {
+                acumulado += copia[i];
+                if (acumulado >= alvo) {
+                    return Math.min(limiteSuperior(i), getMaximo());
+                }
+            }
+            return getMaximo();
+        }
+
+        String tipo() {
+            return "summary";
+        }
+
+        void escrever(StringBuilder sb) {
+            for (double q : QUANTIS) {
+                sb.append(getNome()).append("{quantile=\"").append(q).append("\"} ")
+                  .append(numero(getPercentil(q) / divisor)).append('\n');
+            }
+            sb.append(getNome()).append("_sum ").append(numero(getSoma() / divisor)).append('\n');
+            sb.append(getNome()).append("_count ").append(getContagem()).append('\n');
+        }
+
+        void atributos(Map<String, Object> destino) {
+            destino.put(getNome() + "_count", getContagem());
+            destino.put(getNome() + "_media", getMedia() / divisor);
+            destino.put(getNome() + "_p50", getPercentil(0.5) / divisor);
+            destino.put(getNome() + "_p99", getPercentil(0.99) / divisor);
+            destino.put(getNome() + "_p999", getPercentil(0.999) / divisor);
+            destino.put(getNome() + "_max", getMaximo() / divisor);
+        }
+
+        void zerar() {
+            for (int i = 0; i < BALDES; i++) {
+                contagens.set(i, 0);
+            }
+            total.reset();
+            soma.reset();
+            maximo.set(0);
+        }
+    }
+
+    private final Map<String, Metrica> metricas = new LinkedHashMap<>();
+    private ObjectName nomeJmx;
+    private ScheduledExecutorService despejo;
+
+    /**
+     * Contador registrado com o nome, criando-o na primeira chamada
+     */
+    public synchronized Contador contador(String nome, String ajuda) {
+        return registrar(Contador.class, new Contador(nome, ajuda));
+    }
+
+    public synchronized Medidor medidor(String nome, String ajuda, DoubleSupplier valor) {
+        return registrar(Medidor.class, new Medidor(nome, ajuda, valor));
+    }
+
+    /**
+     * Taxa por segundo do contador (ex: syscalls/s)
+     */
+    public synchronized Taxa taxa(String nome, String ajuda, Contador contador) {
+        return registrar(Taxa.class, new Taxa(nome, ajuda, contador));
+    }
+
+    /**
+     * Histograma de valores inteiros; divisor converte para a unidade exportada
+     */
+    public synchronized Histograma histograma(String nome, String ajuda, double divisor) {
+        return registrar(Histograma.class, new Histograma(nome, ajuda, divisor));
+    }
+
+    private <M extends Metrica> M registrar(Class<M> tipo, M nova) {
+        if (!NOME_VALIDO.matcher(nova.getNome()).matches()) {
+            throw new IllegalArgumentException("Nome de métrica inválido: " + nova.getNome());
+        }
+        Metrica existente = metricas.get(nova.getNome());
+        if (existente == null) {
+            metricas.put(nova.getNome(), nova);
+            return nova;
+        }
+        if (!tipo.isInstance(existente)) {
+            throw new IllegalArgumentException("Métrica " + nova.getNome() + " já registrada como "
+                + existente.tipo());
+        }
+        return tipo.cast(existente);
+    }
+
+    public synchronized Metrica get(String nome) {
+        return metricas.get(nome);
+    }
+
+    private synchronized List<Metrica> registradas() {
+        return new ArrayList<>(metricas.values());
+    }
+
+    /**
+     * Zera contadores, histogramas e taxas (ex: reinício da máquina entre jobs)
+     */
+    public void zerar() {
+        for (Metrica m : registradas()) {
+            m.zerar();
+        }
+    }
+
+    /**
+     * Todas as métricas no formato texto de exposição do Prometheus (versão 0.0.4)
+     */
+    public String getTextoPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        for (Metrica m : registradas()) {
+            sb.append("# HELP ").append(m.getNome()).append(' ')
+              .append(m.getAjuda().replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            sb.append("# TYPE ").append(m.getNome()).append(' ').append(m.tipo()).append('\n');
+            m.escrever(sb);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Grava o texto do Prometheus no arquivo: escreve ao lado e move por cima,
+     * então quem lê vê o arquivo anterior ou o novo, nunca um pela metade
+     */
+    public void gravar(Path arquivo) throws IOException {
+        Path absoluto = arquivo.toAbsolutePath();
+        Path temporario = absoluto.resolveSibling(absoluto.getFileName() + ".tmp");
+        Files.writeString(temporario, getTextoPrometheus(), StandardCharsets.UTF_8);
+        try {
+            Files.move(temporario, absoluto, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) { // sistema de arquivos sem move atômico
+            Files.move(temporario, absoluto, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Despejo periódico no arquivo (ex: lido pelo textfile collector do
+     * node_exporter) numa thread daemon; substitui um despejo já iniciado
+     */
+    public synchronized void iniciarDespejo(Path arquivo, long periodoMs) {
+        if (periodoMs <= 0) {
+            throw new IllegalArgumentException("Período deve ser positivo: " + periodoMs);
+        }
+        pararDespejo();
+        despejo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas-despejo");
+            t.setDaemon(true);
+            return t;
+        });
+        despejo.scheduleAtFixedRate(() -> {
+            try {
+                gravar(arquivo);
+            } catch (IOException e) { // tenta de novo no próximo período
+                LogKernel.registrar(LogKernel.Categoria.PROC, LogKernel.Nivel.AVISO,
+                    "Falha ao gravar métricas em %s: %s", arquivo, e.getMessage());
+            }
+        }, 0, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void pararDespejo() {
+        if (despejo != null) {
+            despejo.shutdown();
+            despejo = null;
+        }
+    }
+
+    /**
+     * Publica as métricas como atributos de um MBean em software:type=Metricas,name=nome
+     * no servidor JMX da plataforma; substitui um MBean anterior com o mesmo nome
+     */
+    public synchronized void registrarJmx(String nome) {
+        removerJmx();
+        try {
+            ObjectName objeto = new ObjectName("software", new Hashtable<>(Map.of("type", "Metricas", "name", nome)));
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            if (servidor.isRegistered(objeto)) {
+                servidor.unregisterMBean(objeto);
+            }
+            servidor.registerMBean(new MBean(), objeto);
+            nomeJmx = objeto;
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao registrar métricas no JMX: " + nome, e);
+        }
+    }
+
+    public synchronized void removerJmx() {
+        if (nomeJmx == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(nomeJmx);
+        } catch (JMException e) {
+            // já removido por outro registro com o mesmo nome
+        }
+        nomeJmx = null;
+    }
+
+    public synchronized ObjectName getNomeJmx() {
+        return nomeJmx;
+    }
+
+    /**
+     * Para o despejo e remove o MBean
+     */
+    public void encerrar() {
+        pararDespejo();
+        removerJmx();
+    }
+
+    private Map<String, Object> atributos() {
+        Map<String, Object> valores = new LinkedHashMap<>();
+        for (Metrica m : registradas()) {
+            m.atributos(valores);
+        }
+        return valores;
+    }
+
+    /**
+     * Atributos somente leitura, um por métrica (histogramas: contagem, média,
+     * percentis e máximo), lidos na hora a cada consulta
+     */
+    private final class MBean implements DynamicMBean {
+
+        public Object getAttribute(String atributo) throws AttributeNotFoundException {
+            Object valor = atributos().get(atributo);
+            if (valor == null) {
+                throw new AttributeNotFoundException(atributo);
+            }
+            return valor;
+        }
+
+        public AttributeList getAttributes(String[] nomes) {
+            Map<String, Object> valores = atributos();
+            AttributeList lista = new AttributeList();
+            for (String nome : nomes) {
+                if (valores.containsKey(nome)) {
+                    lista.add(new Attribute(nome, valores.get(nome)));
+                }
+            }
+            return lista;
+        }
+
+        public void setAttribute(Attribute atributo) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Métricas são somente leitura: " + atributo.getName());
+        }
+
+        public AttributeList setAttributes(AttributeList atributos) {
+            return new AttributeList();
+        }
+
+        public Object invoke(String operacao, Object[] parametros, String[] assinatura) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(operacao)); // MBean só de leitura, sem operações
+        }
+
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> infos = new ArrayList<>();
+            for (Map.Entry<String, Object> e : atributos().entrySet()) {
+                infos.add(new MBeanAttributeInfo(e.getKey(), e.getValue().getClass().getName(), e.getKey(),
+                    true, false, false));
+            }
+            return new MBeanInfo(Metricas.class.getName(), "Métricas do SO", infos.toArray(new MBeanAttributeInfo[0]),
+                null, null, null);
+        }
+    }
+
+    /**
+     * Número no texto do Prometheus: inteiros sem ".0"; os demais como Double.toString
+     */
+    private static String numero(double v) {
+        if (v == Math.rint(v) && Math.abs(v) < 1e15) {
+            return Long.toString((long) v);
+        }
+        return Double.toString(v);
+    }
+}
@@ -0,0 +1,71 @@
+package software;
+
+import hardware.Interrupts;
+
+/**
+ * Motivo pelo qual um processo foi finalizado
+ *
+ * - NORMAL: Processo executou STOP
+ * - ENDERECO_INVALIDO: Acesso fora do espaço de endereçamento do processo
+ * - INSTRUCAO_INVALIDA: PC sobre dados ou opcode inexistente
+ * - OVERFLOW: Resultado aritmético fora da capacidade da CPU
+ * - SEM_MEMORIA: Falta de página sem frame livre para atendê-la
+ * - ENCERRADO: Finalizado externamente (finalizarProcesso)
+ * - ERRO_SWAP: Imagem não pôde ser lida de volta da área de swap
+ * - LIMITE_CPU, LIMITE_MEMORIA, LIMITE_SAIDA, LIMITE_TEMPO: Excedeu um dos
+ *   limites de recursos do processo (vide LimitesRecursos)
+ */
+public enum MotivoTermino {
+    NORMAL("NORMAL"),
+    ENDERECO_INVALIDO("ENDERECO_INVALIDO"),
+    INSTRUCAO_INVALIDA("INSTRUCAO_INVALIDA"),
+    OVERFLOW("OVERFLOW"),
+    SEM_MEMORIA("SEM_MEMORIA"),
+    ENCERRADO("ENCERRADO"),
+    ERRO_SWAP("ERRO_SWAP"),
+    LIMITE_CPU("LIMITE_CPU"),
+    LIMITE_MEMORIA("LIMITE_MEMORIA"),
+    LIMITE_SAIDA("LIMITE_SAIDA"),
+    LIMITE_TEMPO("LIMITE_TEMPO");
+
+    private final String description;
+
+    MotivoTermino(String description) {
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+
+    /**
+     * Verifica se o processo terminou por erro
+     */
+    public boolean isErro() {
+        return this != NORMAL && this != ENCERRADO;
+    }
+
+    /**
+     * Verifica se o processo foi finalizado por exceder um limite de recursos
+     */
+    public boolean isLimiteExcedido() {
+        return this == LIMITE_CPU || this == LIMITE_MEMORIA || this == LIMITE_SAIDA || this == LIMITE_TEMPO;
+    }
+
+    /**
+     * Motivo correspondente a uma interrupção que encerra o processo.
+     * Interrupções recuperáveis (timer, falta de página, fim de E/S) são
+     * tratadas pelo SO e não têm motivo de término
+     */
+    public static MotivoTermino deInterrupcao(Interrupts irpt) {
+        switch (irpt) {
+            case intEnderecoInvalido: return ENDERECO_INVALIDO;
+            case intInstrucaoInvalida: return INSTRUCAO_INVALIDA;
+            case intOverflow: return OVERFLOW;
+            case intSTOP: return NORMAL;
+            default:
+                throw new IllegalArgumentException("Interrupcao nao encerra processo: " + irpt);
+        }
+    }
+}
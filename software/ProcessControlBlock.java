@@ -2,6 +2,7 @@ package software;
 
 import hardware.Word;
 import hardware.Interrupts;
+import hardware.PedidoIO;
 
 /**
  * Process Control Block (PCB) - Bloco de Controle de Processo
@@ -40,6 +41,35 @@ public class ProcessControlBlock {
     // Controle de escalonamento
     private long tempoUltimaExecucao;   // Último momento que executou
     private int quantumRestante;        // Quantum restante no Round-Robin
+    private long ciclosNaRajada;        // Ciclos de CPU desde o último bloqueio (rajada em andamento)
+    private double rajadaMedia;         // Média móvel das rajadas concluídas por bloqueio (0: nenhuma ainda)
+    
+    // Limites de recursos
+    private LimitesRecursos limites = LimitesRecursos.SEM_LIMITES;
+    private final long instanteCriacao = System.nanoTime(); // Base do limite de tempo de parede
+    private volatile long instantePronto = instanteCriacao; // Última entrada em READY (latência de escalonamento)
+    private long saidaProduzida;        // Valores escritos (console ou anel de E/S)
+    
+    // Afinidade
+    private volatile long mascaraAfinidade = -1L; // Bit i: pode executar no núcleo i (padrão: todos)
+    private int ultimoNucleo = -1;      // Núcleo da última execução (estado quente na CPU)
+    private long fimUltimaExecucao;     // Instante simulado em que deixou a CPU pela última vez
+    private int migracoes;              // Despachos em núcleo diferente do anterior
+    
+    // Tempo real (EDF)
+    private long prazo;                 // Prazo de conclusão relativo à admissão, em ciclos (0: melhor esforço)
+    private long orcamento;             // Ciclos de CPU reservados para cumprir o prazo
+    private long prazoAbsoluto;         // Instante simulado limite, fixado na admissão
+    private int nucleoTempoReal = -1;   // Núcleo em que a utilização foi reservada
+    private volatile boolean tempoReal; // Na classe de tempo real (false após estourar o orçamento)
+    private int ioEmVoo;                // Pedidos do anel de E/S submetidos e ainda sem conclusão
+    private boolean emSwap;             // Imagem na área de swap, sem frames na memória
+    private PedidoIO pedidoBloqueante;  // Transferência que o processo espera em WAITING (null: nenhuma)
+    private TimingWheel.Temporizador prazoBloqueio; // Prazo da espera atual (sleep ou leitura com prazo)
+    private TimingWheel.Temporizador prazoParede;   // Fim do limite de tempo de parede (armado ao bloquear)
+
+    // Término
+    private MotivoTermino motivoTermino; // Motivo do término (null enquanto ativo)
     
     /**
      * Construtor do PCB
@@ -80,9 +110,26 @@ public class ProcessControlBlock {
     }
     
     public void setEstado(ProcessState novoEstado) {
+        if (novoEstado == ProcessState.READY && estado != ProcessState.READY) {
+            instantePronto = System.nanoTime();
+        }
         this.estado = novoEstado;
     }
     
+    /**
+     * System.nanoTime() da criação do processo (base do tempo de retorno)
+     */
+    public long getInstanteCriacao() {
+        return instanteCriacao;
+    }
+    
+    /**
+     * System.nanoTime() da última passagem para READY
+     */
+    public long getInstantePronto() {
+        return instantePronto;
+    }
+    
     public int getPc() {
         return pc;
     }
@@ -164,6 +211,163 @@ public class ProcessControlBlock {
         return quantumRestante;
     }
     
+    public LimitesRecursos getLimites() {
+        return limites;
+    }
+    
+    public void setLimites(LimitesRecursos limites) {
+        this.limites = limites != null ? limites : LimitesRecursos.SEM_LIMITES;
+    }
+    
+    public long getSaidaProduzida() {
+        return saidaProduzida;
+    }
+    
+    /**
+     * Conta uma escrita; false se ela excede o limite de saída
+     */
+    public boolean registrarSaida() {
+        saidaProduzida++;
+        return limites.getMaxSaida() == 0 || saidaProduzida <= limites.getMaxSaida();
+    }
+    
+    /**
+     * Frames residentes: páginas da tabela com frame na memória
+     */
+    public int getFramesResidentes() {
+        int residentes = 0;
+        if (tabelaPaginas != null) {
+            for (int frame : tabelaPaginas) {
+                if (frame >= 0) {
+                    residentes++;
+                }
+            }
+        }
+        return residentes;
+    }
+    
+    /**
+     * Limite de CPU, memória ou tempo de parede excedido (null se dentro dos limites).
+     * O de saída é verificado a cada escrita, em registrarSaida
+     */
+    public MotivoTermino verificarLimites() {
+        if (limites.isIlimitado()) {
+            return null;
+        }
+        if (limites.getMaxCiclos() > 0 && tempoCPU > limites.getMaxCiclos()) {
+            return MotivoTermino.LIMITE_CPU;
+        }
+        if (limites.getMaxFrames() > 0 && getFramesResidentes() > limites.getMaxFrames()) {
+            return MotivoTermino.LIMITE_MEMORIA;
+        }
+        if (limites.getMaxTempoParedeMs() > 0
+                && System.nanoTime() - instanteCriacao > limites.getMaxTempoParedeMs() * 1_000_000) {
+            return MotivoTermino.LIMITE_TEMPO;
+        }
+        return null;
+    }
+    
+    public long getMascaraAfinidade() {
+        return mascaraAfinidade;
+    }
+    
+    public void setMascaraAfinidade(long mascaraAfinidade) {
+        this.mascaraAfinidade = mascaraAfinidade;
+    }
+    
+    /**
+     * Núcleo na máscara; a máscara cobre os núcleos 0 a 63 (1L << 64 voltaria ao bit 0)
+     */
+    public boolean podeExecutarEm(int nucleo) {
+        if (nucleo < 0 || nucleo >= Long.SIZE) {
+            throw new IllegalArgumentException("Núcleo fora da máscara de afinidade: " + nucleo);
+        }
+        return (mascaraAfinidade & (1L << nucleo)) != 0;
+    }
+    
+    public long getFimUltimaExecucao() {
+        return fimUltimaExecucao;
+    }
+    
+    /**
+     * Processo deixou a CPU (preempção, bloqueio): início da janela em que segue quente no núcleo
+     */
+    public void setFimUltimaExecucao(long instante) {
+        this.fimUltimaExecucao = instante;
+    }
+    
+    public int getUltimoNucleo() {
+        return ultimoNucleo;
+    }
+    
+    public int getMigracoes() {
+        return migracoes;
+    }
+    
+    /**
+     * Despacho no núcleo dado; true se o processo migrou (executou antes em outro núcleo)
+     */
+    public boolean registrarDespachoEm(int nucleo) {
+        boolean migrou = ultimoNucleo >= 0 && ultimoNucleo != nucleo;
+        if (migrou) {
+            migracoes++;
+        }
+        ultimoNucleo = nucleo;
+        return migrou;
+    }
+    
+    /**
+     * Coloca o processo na classe de tempo real, reservado no núcleo dado
+     */
+    public void definirTempoReal(long prazo, long orcamento, int nucleo) {
+        this.prazo = prazo;
+        this.orcamento = orcamento;
+        this.nucleoTempoReal = nucleo;
+        this.tempoReal = true;
+    }
+    
+    /**
+     * Estourou o orçamento: segue como melhor esforço, mantendo o prazo para contabilidade
+     */
+    public void rebaixarParaMelhorEsforco() {
+        this.tempoReal = false;
+    }
+    
+    public boolean isTempoReal() {
+        return tempoReal;
+    }
+    
+    public boolean temPrazo() {
+        return prazo > 0;
+    }
+    
+    public long getPrazo() {
+        return prazo;
+    }
+    
+    public long getOrcamento() {
+        return orcamento;
+    }
+    
+    public long getPrazoAbsoluto() {
+        return prazoAbsoluto;
+    }
+    
+    public void setPrazoAbsoluto(long prazoAbsoluto) {
+        this.prazoAbsoluto = prazoAbsoluto;
+    }
+    
+    public int getNucleoTempoReal() {
+        return nucleoTempoReal;
+    }
+    
+    /**
+     * Utilização reservada: fração da CPU que o orçamento ocupa até o prazo
+     */
+    public double getUtilizacao() {
+        return prazo > 0 ? (double) orcamento / prazo : 0;
+    }
+    
     public void setQuantumRestante(int quantum) {
         this.quantumRestante = quantum;
     }
@@ -174,6 +378,68 @@ public class ProcessControlBlock {
         }
     }
     
+    public void adicionarCiclosRajada(long ciclos) {
+        this.ciclosNaRajada += ciclos;
+    }
+    
+    public long getCiclosNaRajada() {
+        return ciclosNaRajada;
+    }
+    
+    /**
+     * Fim da rajada de CPU (processo bloqueou): atualiza a média móvel (peso 1/2 para a última)
+     */
+    public void encerrarRajada() {
+        if (ciclosNaRajada > 0) {
+            rajadaMedia = rajadaMedia == 0 ? ciclosNaRajada : (rajadaMedia + ciclosNaRajada) / 2;
+            ciclosNaRajada = 0;
+        }
+    }
+    
+    public double getRajadaMedia() {
+        return rajadaMedia;
+    }
+    
+    public synchronized int getIOEmVoo() {
+        return ioEmVoo;
+    }
+    
+    public synchronized void adicionarIOEmVoo(int pedidos) { // submissões e conclusões podem vir de núcleos diferentes
+        this.ioEmVoo += pedidos;
+    }
+    
+    public boolean isEmSwap() {
+        return emSwap;
+    }
+
+    public void setEmSwap(boolean emSwap) {
+        this.emSwap = emSwap;
+    }
+
+    public PedidoIO getPedidoBloqueante() {
+        return pedidoBloqueante;
+    }
+
+    public void setPedidoBloqueante(PedidoIO pedido) {
+        this.pedidoBloqueante = pedido;
+    }
+
+    public TimingWheel.Temporizador getPrazoBloqueio() {
+        return prazoBloqueio;
+    }
+
+    public void setPrazoBloqueio(TimingWheel.Temporizador prazo) {
+        this.prazoBloqueio = prazo;
+    }
+
+    public TimingWheel.Temporizador getPrazoParede() {
+        return prazoParede;
+    }
+
+    public void setPrazoParede(TimingWheel.Temporizador prazo) {
+        this.prazoParede = prazo;
+    }
+
     public long getTempoUltimaExecucao() {
         return tempoUltimaExecucao;
     }
@@ -212,6 +478,18 @@ public class ProcessControlBlock {
         setEstado(ProcessState.TERMINATED);
     }
     
+    /**
+     * Finaliza o processo registrando o motivo do término
+     */
+    public void finalizar(MotivoTermino motivo) {
+        this.motivoTermino = motivo;
+        finalizar();
+    }
+    
+    public MotivoTermino getMotivoTermino() {
+        return motivoTermino;
+    }
+    
     /**
      * Representação textual do PCB para debug
      */
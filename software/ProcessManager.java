@@ -1,15 +1,32 @@
 package software;
 
+import hardware.CPU;
 import hardware.HW;
 import hardware.Word;
 import hardware.Interrupts;
+import hardware.Opcode;
+import hardware.PedidoIO;
+import hardware.Rastreador;
+import hardware.RelogioSimulado;
 import memory.MemoryManagerPonte;
 import programs.Program;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
 
-import java.util.HashMap;
+import java.io.IOException;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Gerenciador de Processos do sistema SISOP
@@ -20,232 +37,1403 @@ import java.util.ArrayList;
  * - Alocação e liberação de memória para processos
  * - Coordenação com o escalonador
  * - Execução concorrente de múltiplos processos
+ * 
+ * Com várias CPUs no HW cada núcleo tem sua thread, sua fila de prontos
+ * (um RoundRobinScheduler) e o processo carregado nele; um núcleo sem
+ * processos rouba do final da fila de outro núcleo. As rotinas chamadas
+ * pelos tratadores recebem o índice do núcleo que gerou a interrupção.
+ * 
+ * Threads externas submetem programas por submeter(), que nunca bloqueia;
+ * o SO cria e admite os processos submetidos em lote nos pontos seguros
+ * (a cada despacho), sem que os produtores toquem nas estruturas do SO.
+ * O CompletableFuture devolvido é completado quando o processo é finalizado.
+ * Programas que não cabem (limite de processos ou frames) esperam na fila do
+ * escalonador de longo prazo em vez de serem rejeitados.
  */
 public class ProcessManager {
     
+    private static final int HISTERESE_CARGA = 1; // Desequilíbrio tolerado antes de migrar um processo do seu núcleo
+    
+    /**
+     * Estado do SO por núcleo
+     */
+    private static class Nucleo {
+        final int id;
+        final CPU cpu;
+        final RoundRobinScheduler escalonador;   // Fila de prontos deste núcleo
+        volatile ProcessControlBlock processoNaCPU; // Processo cujo contexto está carregado na CPU (só o núcleo troca)
+        volatile Thread thread;                  // Thread executando o núcleo (null: passo a passo pelo chamador)
+        final Queue<Encerramento> encerramentos = new ConcurrentLinkedQueue<>(); // Postados por outras threads
+        long ciclosNoDespacho;                   // Ciclos da CPU quando a fatia atual começou
+        long nanosNoDespacho;                    // Tempo de host quando a fatia atual começou (quantum adaptativo)
+        double utilizacaoTempoReal;              // Soma de orçamento/prazo dos processos de tempo real (trava: nucleos)
+        volatile boolean ocupado;                // Há processo carregado (lido pelos outros núcleos)
+        
+        Nucleo(int id, CPU cpu, RoundRobinScheduler escalonador) {
+            this.id = id;
+            this.cpu = cpu;
+            this.escalonador = escalonador;
+        }
+    }
+    
+    /**
+     * Término pedido por outra thread para o processo carregado em um núcleo
+     */
+    private static class Encerramento {
+        final ProcessControlBlock pcb;
+        final MotivoTermino motivo;
+        
+        Encerramento(ProcessControlBlock pcb, MotivoTermino motivo) {
+            this.pcb = pcb;
+            this.motivo = motivo;
+        }
+    }
+    
     // Componentes do sistema
     private HW hardware;
     private MemoryManagerPonte gerenciadorMemoria;
-    private RoundRobinScheduler escalonador;
+    private Nucleo[] nucleos;                           // Um por CPU do HW
     
     // Controle de processos
     private Map<Integer, ProcessControlBlock> processos; // Todos os processos do sistema
-    private int proximoPID;                             // Contador para PIDs únicos
+    private AtomicInteger proximoPID;                   // Contador para PIDs únicos
+    private AtomicInteger pedidosIOPendentes;           // Transferências submetidas e ainda não tratadas
+    private AtomicInteger nucleosOcupados;              // Núcleos com processo carregado
+    private Queue<Submissao> submissoes;                // Fila sem trava: vários produtores, o SO consome
+    private AtomicBoolean drenandoSubmissoes;           // Garante um único consumidor entre os núcleos
+    private volatile boolean aguardandoDrenagem;        // Núcleo parado esperando outro terminar de admitir
+    private Map<Integer, CompletableFuture<ProcessResult>> resultados; // Processos submetidos ainda ativos
+    private LongTermScheduler escalonadorLongoPrazo;    // Fila de admissão dos programas submetidos
+    private MediumTermScheduler escalonadorMedioPrazo;  // Swap de processos inteiros sob pressão de memória
+    private Queue<ProcessControlBlock> prontosEmSwap;   // Prontos cuja imagem ainda está na área de swap
+    private TimingWheel temporizadores;                 // Prazos de sleep e de leituras com prazo
+    private AtomicInteger processosDormindo;            // Em sleep: mantêm o sistema vivo como E/S pendente
+    private RelogioSimulado relogioParede;              // Milissegundos de parede desde a criação (ou reinício) do SO
+    private TimingWheel prazosParede;                   // Limites de tempo de parede de processos que bloquearam
+    private long inicioParedeNanos;
+    
+    // Estado do gerenciador
+    private volatile boolean sistemaAtivo;              // Sistema está executando?
+    private volatile boolean passoAPasso;               // executarCicloSO: só o núcleo 0 executa, ignora a afinidade ao roubar
+    private int maxProcessosConcorrentes;               // Limite de processos simultâneos
+    private int maxPaginasPorProcesso;                  // Espaço lógico máximo (páginas) para faltas de página
+    private long timerOciosoNanos;                      // HLT do modo passo a passo acorda no máximo a cada intervalo
+    private double limiteUtilizacaoTempoReal;           // Controle de admissão EDF: utilização máxima por núcleo
+    private long janelaAfinidade;                       // Ciclos após a execução em que o processo segue quente no núcleo
+    private volatile LimitesRecursos limitesPadrao;     // Aplicados a cada processo criado
+    
+    // Estatísticas
+    private AtomicLong totalProcessosCriados;
+    private AtomicLong totalProcessosFinalizados;
+    private AtomicLong totalRoubos;                     // Processos migrados por roubo de trabalho
+    private AtomicLong prazosCumpridos;                 // Processos de tempo real encerrados dentro do prazo
+    private AtomicLong prazosPerdidos;                  // ... e depois do prazo
+    private AtomicLong recusasTempoReal;                // Recusados pelo controle de admissão
+    private AtomicLong totalMigracoes;                  // Despachos em núcleo diferente do anterior
+    private AtomicLong despachosMesmoNucleo;            // Despachos no núcleo da execução anterior (estado quente)
+    private AtomicLong limitesExcedidos;                // Processos finalizados por exceder um limite de recursos
+    
+    // Métricas exportadas (JMX e texto do Prometheus), vide Metricas
+    private final Metricas metricas;
+    private final Metricas.Contador trocasContexto;
+    private final Metricas.Contador faltasPagina;
+    private final Metricas.Contador syscalls;
+    private final Metricas.Histograma latenciaEscalonamento; // READY -> despacho, em ns de parede
+    private final Metricas.Histograma tempoRetorno;          // Criação -> término, em ns de parede
+    
+    /**
+     * Construtor do Gerenciador de Processos
+     */
+    public ProcessManager(HW hardware, MemoryManagerPonte gerenciadorMemoria) {
+        this.hardware = hardware;
+        this.gerenciadorMemoria = gerenciadorMemoria;
+        
+        this.processos = new ConcurrentHashMap<>();
+        this.proximoPID = new AtomicInteger(1);
+        this.pedidosIOPendentes = new AtomicInteger();
+        this.nucleosOcupados = new AtomicInteger();
+        this.submissoes = new ConcurrentLinkedQueue<>();
+        this.drenandoSubmissoes = new AtomicBoolean();
+        this.resultados = new ConcurrentHashMap<>();
+        this.escalonadorLongoPrazo = new LongTermScheduler();
+        this.escalonadorMedioPrazo = new MediumTermScheduler(hardware.mem.pos, gerenciadorMemoria.getGerenciador().getTamPg());
+        this.prontosEmSwap = new ConcurrentLinkedQueue<>();
+        this.temporizadores = new TimingWheel(hardware.relogio);
+        this.processosDormindo = new AtomicInteger();
+        this.inicioParedeNanos = System.nanoTime();
+        this.relogioParede = new RelogioSimulado();
+        this.prazosParede = new TimingWheel(relogioParede);
+        this.sistemaAtivo = false;
+        this.maxProcessosConcorrentes = 10; // Limite padrão
+        this.maxPaginasPorProcesso = 32;
+        this.timerOciosoNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        this.limiteUtilizacaoTempoReal = 1.0; // Limite de escalonabilidade do EDF
+        this.janelaAfinidade = 50;
+        this.limitesPadrao = LimitesRecursos.SEM_LIMITES;
+        
+        this.totalProcessosCriados = new AtomicLong();
+        this.totalProcessosFinalizados = new AtomicLong();
+        this.totalRoubos = new AtomicLong();
+        this.prazosCumpridos = new AtomicLong();
+        this.prazosPerdidos = new AtomicLong();
+        this.recusasTempoReal = new AtomicLong();
+        this.totalMigracoes = new AtomicLong();
+        this.despachosMesmoNucleo = new AtomicLong();
+        this.limitesExcedidos = new AtomicLong();
+        
+        this.metricas = new Metricas();
+        this.trocasContexto = metricas.contador("so_trocas_contexto_total", "Trocas de contexto em todos os núcleos");
+        this.latenciaEscalonamento = metricas.histograma("so_latencia_escalonamento_segundos",
+            "Tempo de parede entre o processo ficar pronto e ser despachado", 1e9);
+        this.tempoRetorno = metricas.histograma("so_tempo_retorno_segundos",
+            "Tempo de parede entre a criação e o término do processo", 1e9);
+        this.faltasPagina = metricas.contador("so_faltas_pagina_total", "Faltas de página tratadas");
+        this.syscalls = metricas.contador("so_syscalls_total", "Chamadas de sistema, incluindo STOP");
+        metricas.taxa("so_syscalls_por_segundo", "Chamadas de sistema por segundo de parede", syscalls);
+        metricas.medidor("so_frames_em_uso", "Frames de memória alocados", () ->
+            gerenciadorMemoria.getGerenciador().getNumFrames() - gerenciadorMemoria.getGerenciador().getFramesLivres());
+        metricas.medidor("so_processos_ativos", "Processos no sistema ainda não finalizados", processos::size);
+        
+        // Os processos executam na memória do HW, traduzidos pela MMU de cada CPU
+        if (hardware.cpus.length > Long.SIZE) {
+            throw new IllegalArgumentException("Máscara de afinidade cobre no máximo " + Long.SIZE
+                + " núcleos: " + hardware.cpus.length);
+        }
+        gerenciadorMemoria.vincularMemoriaFisica(hardware.mem);
+        this.nucleos = new Nucleo[hardware.cpus.length];
+        for (int i = 0; i < nucleos.length; i++) {
+            CPU cpu = hardware.cpus[i];
+            nucleos[i] = new Nucleo(i, cpu, new RoundRobinScheduler(10)); // Quantum padrão de 10 ciclos
+            cpu.setTamanhoPagina(gerenciadorMemoria.getGerenciador().getTamPg());
+            cpu.setTimer(nucleos[i].escalonador.getQuantum());
+            nucleos[i].escalonador.setRelogio(hardware.relogio);
+            cpu.setAddressOfHandlers(new InterruptHandling(hardware, this, i), new SysCallHandling(hardware, this, i));
+            cpu.setUtilities(new Utilities(hardware));
+        }
+        
+        LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Gerenciador de Processos inicializado%s",
+            nucleos.length > 1 ? " (" + nucleos.length + " núcleos)" : "");
+    }
+    
+    /**
+     * Cria um novo processo a partir de um programa
+     */
+    public synchronized ProcessControlBlock criarProcesso(String nome, Word[] programa) {
+        if (processos.size() >= maxProcessosConcorrentes) {
+            LogKernel.registrar(Categoria.PROC, Nivel.ERRO, "ERRO: Limite máximo de processos atingido (%d)",
+                maxProcessosConcorrentes);
+            return null;
+        }
+        
+        // Cria PCB
+        int pid = proximoPID.getAndIncrement();
+        ProcessControlBlock pcb = new ProcessControlBlock(pid, nome, programa);
+        
+        // Aloca memória para o processo
+        int[] tabelaPaginas = gerenciadorMemoria.alocaPrograma(programa, "Processo-" + pid);
+        if (tabelaPaginas == null) {
+            LogKernel.registrar(Categoria.PROC, Nivel.ERRO, "ERRO: Falha na alocação de memória para processo %s", nome);
+            return null;
+        }
+        
+        pcb.setTabelaPaginas(tabelaPaginas);
+        pcb.setEstado(ProcessState.NEW);
+        pcb.setLimites(limitesPadrao);
+        
+        // Registra o processo
+        processos.put(pid, pcb);
+        totalProcessosCriados.incrementAndGet();
+        
+        LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Processo criado: %s (PID: %d, %d instruções)", nome, pid, programa.length);
+        return pcb;
+    }
+    
+    /**
+     * Cria um processo de tempo real: deve concluir até prazo ciclos após a admissão
+     * usando no máximo orcamento ciclos de CPU. Controle de admissão: a utilização
+     * (orcamento/prazo) é reservada no núcleo menos utilizado, e o processo é recusado
+     * (null) se nenhum núcleo comporta a soma dentro do limite
+     */
+    public ProcessControlBlock criarProcessoTempoReal(String nome, Word[] programa, long prazo, long orcamento) {
+        if (prazo <= 0 || orcamento <= 0 || orcamento > prazo) {
+            throw new IllegalArgumentException("Prazo e orçamento inválidos: " + prazo + "/" + orcamento);
+        }
+        double utilizacao = (double) orcamento / prazo;
+        Nucleo escolhido;
+        synchronized (nucleos) {
+            escolhido = null;
+            for (Nucleo n : nucleos) {
+                if (n.utilizacaoTempoReal + utilizacao <= limiteUtilizacaoTempoReal
+                        && (escolhido == null || n.utilizacaoTempoReal < escolhido.utilizacaoTempoReal)) {
+                    escolhido = n;
+                }
+            }
+            if (escolhido != null) {
+                escolhido.utilizacaoTempoReal += utilizacao;
+            }
+        }
+        if (escolhido == null) {
+            recusasTempoReal.incrementAndGet();
+            LogKernel.registrar(Categoria.PROC, Nivel.AVISO, "Admissão de tempo real recusada: %s (utilização %.2f excede o limite)",
+                nome, utilizacao);
+            return null;
+        }
+        ProcessControlBlock pcb = criarProcesso(nome, programa);
+        if (pcb == null) {
+            liberarUtilizacao(escolhido.id, utilizacao);
+            return null;
+        }
+        pcb.definirTempoReal(prazo, orcamento, escolhido.id);
+        return pcb;
+    }
+    
+    private void liberarUtilizacao(int nucleo, double utilizacao) {
+        synchronized (nucleos) {
+            nucleos[nucleo].utilizacaoTempoReal = Math.max(0, nucleos[nucleo].utilizacaoTempoReal - utilizacao);
+        }
+    }
+    
+    /**
+     * Cria processo a partir de um objeto Program
+     */
+    public ProcessControlBlock criarProcesso(Program program) {
+        return criarProcesso(program.name, program.image);
+    }
+    
+    /**
+     * Submete um programa a partir de qualquer thread, sem bloquear: o processo é
+     * criado e admitido pelo SO no próximo ponto seguro. Os argumentos viram a
+     * entrada programada do processo (lidos pelas SYSCALLs de leitura).
+     * O futuro é completado quando o processo termina, com sua saída capturada.
+     */
+    public CompletableFuture<ProcessResult> submeter(Program programa, int... argumentos) {
+        return submeter(new Submissao(programa, argumentos.clone()));
+    }
+    
+    /**
+     * Submissão com limites de recursos próprios em vez dos limites padrão
+     */
+    public CompletableFuture<ProcessResult> submeter(Program programa, LimitesRecursos limites, int... argumentos) {
+        return submeter(new Submissao(programa, limites, argumentos.clone()));
+    }
+    
+    private CompletableFuture<ProcessResult> submeter(Submissao submissao) {
+        submissoes.offer(submissao);
+        despertarNucleosOciosos();
+        return submissao.resultado;
+    }
+    
+    /**
+     * Ponto seguro: passa as submissões para a fila de admissão do escalonador
+     * de longo prazo e cria e admite, na ordem da política, os programas que
+     * cabem agora (vaga de processo e frames livres para a imagem inteira).
+     * Antes, processos prontos que estão em swap voltam à memória; se o próximo
+     * programa não cabe, o escalonador de médio prazo libera frames retirando
+     * processos bloqueados. Os demais esperam na fila até algum processo terminar.
+     */
+    private void drenarSubmissoes() {
+        if ((submissoes.isEmpty() && escalonadorLongoPrazo.isEmpty() && prontosEmSwap.isEmpty())
+                || !drenandoSubmissoes.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Submissao submissao;
+            while ((submissao = submissoes.poll()) != null) {
+                if (paginasDaImagem(submissao) > gerenciadorMemoria.getGerenciador().getNumFrames()) {
+                    submissao.resultado.completeExceptionally(new IllegalStateException(
+                        "Imagem maior que a memória para processo " + submissao.programa.name));
+                    continue;
+                }
+                escalonadorLongoPrazo.enfileirar(submissao);
+            }
+            trazerDoSwap();
+            while ((submissao = escalonadorLongoPrazo.proximo()) != null
+                    && (cabeNaMemoria(submissao) || liberarFramesPara(submissao))) {
+                ProcessControlBlock pcb = criarProcesso(submissao.programa);
+                if (pcb == null) {
+                    break; // Frames tomados por falta de página em outro núcleo: tenta no próximo ponto seguro
+                }
+                escalonadorLongoPrazo.retirar();
+                resultados.put(pcb.getPid(), submissao.resultado);
+                hardware.console.capturarEmMemoria(pcb.getPid());
+                if (submissao.argumentos.length > 0) {
+                    hardware.entrada.programarValores(pcb.getPid(), submissao.argumentos);
+                }
+                if (submissao.limites != null) {
+                    pcb.setLimites(submissao.limites);
+                }
+                admitirProcesso(pcb.getPid());
+            }
+        } finally {
+            drenandoSubmissoes.set(false);
+            if (aguardandoDrenagem) {
+                aguardandoDrenagem = false;
+                despertarNucleosOciosos();
+            }
+        }
+    }
+    
+    /**
+     * Há vaga de processo e frames livres para a imagem inteira do programa
+     */
+    private boolean cabeNaMemoria(Submissao submissao) {
+        return processos.size() < maxProcessosConcorrentes
+            && paginasDaImagem(submissao) <= gerenciadorMemoria.getGerenciador().getFramesLivres();
+    }
+    
+    /**
+     * Escalonador de médio prazo: retira da memória processos bloqueados (ou prontos
+     * de baixa prioridade) até os frames livres comportarem a imagem do programa
+     */
+    private boolean liberarFramesPara(Submissao submissao) {
+        if (processos.size() >= maxProcessosConcorrentes) {
+            return false; // Swap não libera vaga de processo
+        }
+        int faltam = paginasDaImagem(submissao) - gerenciadorMemoria.getGerenciador().getFramesLivres();
+        for (ProcessControlBlock vitima : escalonadorMedioPrazo.escolherVitimas(processos.values(), faltam)) {
+            levarParaSwap(vitima);
+        }
+        return cabeNaMemoria(submissao);
+    }
+    
+    /**
+     * Swap-out: grava a imagem residente na área de swap e devolve os frames.
+     * Trava o PCB contra a conclusão concorrente da E/S que o bloqueia.
+     */
+    private void levarParaSwap(ProcessControlBlock pcb) {
+        synchronized (pcb) {
+            boolean pronto = pcb.getEstado() == ProcessState.READY;
+            if (pcb.isEmSwap() || pcb.getIOEmVoo() > 0 || (!pronto && pcb.getEstado() != ProcessState.WAITING)) {
+                return; // Mudou de estado desde a escolha
+            }
+            if (pronto && !removerDasFilas(pcb.getPid())) {
+                return; // Já foi despachado por algum núcleo
+            }
+            try {
+                escalonadorMedioPrazo.swapOut(pcb);
+            } catch (IOException e) {
+                LogKernel.registrar(Categoria.PROC, Nivel.ERRO, "ERRO: Falha no swap-out de %s: %s", pcb.getNome(), e.getMessage());
+                if (pronto) {
+                    nucleoPara(pcb).escalonador.adicionarProcesso(pcb);
+                }
+                return;
+            }
+            int[] tabela = pcb.getTabelaPaginas();
+            gerenciadorMemoria.desalocaPrograma(tabela);
+            int[] semFrames = new int[tabela.length];
+            Arrays.fill(semFrames, -1);
+            pcb.setTabelaPaginas(semFrames);
+            pcb.setEmSwap(true);
+            if (pronto) {
+                prontosEmSwap.offer(pcb);
+            }
+        }
+    }
+    
+    private boolean removerDasFilas(int pid) {
+        for (Nucleo n : nucleos) {
+            if (n.escalonador.removerProcesso(pid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Swap-in, em ordem, dos processos prontos em swap enquanto houver frames livres
+     */
+    private void trazerDoSwap() {
+        ProcessControlBlock pcb;
+        while ((pcb = prontosEmSwap.peek()) != null) {
+            int paginas = escalonadorMedioPrazo.getPaginasEmSwap(pcb.getPid());
+            if (paginas > gerenciadorMemoria.getGerenciador().getFramesLivres()) {
+                return;
+            }
+            int[] frames = gerenciadorMemoria.alocaFrames(paginas, "Processo-" + pcb.getPid());
+            if (frames == null) {
+                return; // Frames tomados por falta de página em outro núcleo
+            }
+            prontosEmSwap.poll();
+            synchronized (pcb) {
+                try {
+                    pcb.setTabelaPaginas(escalonadorMedioPrazo.swapIn(pcb, frames));
+                } catch (IOException e) {
+                    LogKernel.registrar(Categoria.PROC, Nivel.ERRO, "ERRO: Falha no swap-in de %s: %s", pcb.getNome(), e.getMessage());
+                    pcb.setTabelaPaginas(frames);
+                    finalizarProcesso(pcb.getPid(), MotivoTermino.ERRO_SWAP);
+                    continue;
+                }
+                pcb.setEmSwap(false);
+            }
+            nucleoPara(pcb).escalonador.adicionarProcesso(pcb);
+            despertarNucleosOciosos();
+        }
+    }
+    
+    private int paginasDaImagem(Submissao submissao) {
+        int tamPg = gerenciadorMemoria.getGerenciador().getTamPg();
+        return (submissao.getTamanho() + tamPg - 1) / tamPg;
+    }
+    
+    /**
+     * Admite um processo no sistema (NEW -> READY)
+     */
+    public boolean admitirProcesso(int pid) {
+        ProcessControlBlock pcb = processos.get(pid);
+        if (pcb != null && pcb.getEstado() == ProcessState.NEW) {
+            pcb.setEstado(ProcessState.READY); // Muda o estado primeiro
+            if (pcb.temPrazo()) {
+                pcb.setPrazoAbsoluto(hardware.relogio.agora() + pcb.getPrazo());
+            }
+            nucleoPara(pcb).escalonador.adicionarProcesso(pcb);
+            LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Processo admitido no sistema: %s (PID: %d)", pcb.getNome(), pid);
+            despertarNucleosOciosos();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Finaliza um processo e libera seus recursos
+     */
+    public boolean finalizarProcesso(int pid) {
+        return finalizarProcesso(pid, MotivoTermino.ENCERRADO);
+    }
+    
+    /**
+     * Finaliza um processo registrando o motivo e libera seus recursos.
+     * Processo carregado em um núcleo que roda em outra thread não é tocado
+     * aqui: o término é postado ao núcleo dono, que o encerra na próxima
+     * interrupção (a CPU não executa sobre frames já liberados)
+     */
+    public boolean finalizarProcesso(int pid, MotivoTermino motivo) {
+        ProcessControlBlock pcb = processos.get(pid);
+        if (pcb == null) {
+            return false;
+        }
+        for (Nucleo n : nucleos) {
+            Thread dono = n.thread;
+            if (pcb == n.processoNaCPU && dono != null && dono != Thread.currentThread()) {
+                n.encerramentos.add(new Encerramento(pcb, motivo));
+                n.cpu.sinalizarFimDeIO(); // Interrompe o núcleo dono no próximo ciclo
+                return true;
+            }
+        }
+        
+        // Finaliza o processo (e cancela o prazo de uma espera em andamento)
+        synchronized (pcb) {
+            pcb.finalizar(motivo);
+            if (pcb.getPrazoBloqueio() != null && temporizadores.cancelar(pcb.getPrazoBloqueio())
+                    && pcb.getPedidoBloqueante() == null) {
+                processosDormindo.decrementAndGet();
+            }
+            pcb.setPrazoBloqueio(null);
+            pcb.setPedidoBloqueante(null);
+            if (pcb.getPrazoParede() != null) {
+                prazosParede.cancelar(pcb.getPrazoParede());
+                pcb.setPrazoParede(null);
+            }
+        }
+        for (Nucleo n : nucleos) {
+            if (pcb == n.processoNaCPU) {
+                n.processoNaCPU = null; // Núcleo dono ou passo a passo: ninguém executa o processo agora
+            }
+        }
+        
+        // Libera memória (ou o trecho da área de swap)
+        if (pcb.getTabelaPaginas() != null) {
+            gerenciadorMemoria.desalocaPrograma(pcb.getTabelaPaginas());
+        }
+        if (pcb.isEmSwap()) {
+            prontosEmSwap.remove(pcb);
+            escalonadorMedioPrazo.descartar(pid);
+        }
+        
+        // Remove das estruturas de dados
+        processos.remove(pid);
+        for (Nucleo n : nucleos) {
+            n.escalonador.removerProcesso(pid);
+        }
+        hardware.entrada.descartar(pid);
+        totalProcessosFinalizados.incrementAndGet();
+        tempoRetorno.registrar(System.nanoTime() - pcb.getInstanteCriacao());
+        if (pcb.temPrazo()) {
+            liberarUtilizacao(pcb.getNucleoTempoReal(), pcb.getUtilizacao());
+            if (hardware.relogio.agora() > pcb.getPrazoAbsoluto()) {
+                prazosPerdidos.incrementAndGet();
+                LogKernel.registrar(Categoria.PROC, Nivel.AVISO, "Prazo perdido: %s (prazo %d, encerrado em %d)",
+                    pcb.getNome(), pcb.getPrazoAbsoluto(), hardware.relogio.agora());
+            } else {
+                prazosCumpridos.incrementAndGet();
+            }
+        }
+        
+        // Processo submetido: entrega o resultado fora da thread da CPU
+        CompletableFuture<ProcessResult> resultado = resultados.remove(pid);
+        if (resultado != null) {
+            String saida = hardware.console.encerrarCaptura(pid);
+            ProcessResult r = new ProcessResult(pid, pcb.getNome(), motivo, saida == null ? "" : saida,
+                pcb.getTempoCPU(), pcb.getTempoEspera());
+            resultado.completeAsync(() -> r);
+        }
+        
+        LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Processo finalizado e recursos liberados: %s (PID: %d, motivo: %s)",
+            pcb.getNome(), pid, motivo);
+        return true;
+    }
+    
+    /**
+     * Executa um ciclo do sistema operacional
+     * Esta é a função principal que coordena execução de processos:
+     * despacha um processo se a CPU está livre e executa uma instrução dele.
+     * O modo passo a passo usa somente o núcleo 0, que rouba das demais filas.
+     * Sem processo pronto a CPU fica parada (HLT) até uma submissão, admissão,
+     * fim de E/S ou o timer de ociosidade, em vez de devolver o controle para
+     * o chamador girar.
+     */
+    public boolean executarCicloSO() {
+        if (!sistemaAtivo) {
+            return false;
+        }
+        
+        Nucleo nucleo = nucleos[0];
+        passoAPasso = true;
+        if (nucleo.processoNaCPU == null && !despacharProximo(nucleo)) {
+            // Não há processos para executar
+            if (processos.isEmpty()) {
+                LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Todos os processos finalizaram. Sistema encerrado.");
+                sistemaAtivo = false;
+                return false;
+            }
+            aguardarInterrupcao(nucleo, timerOciosoNanos); // Processos ainda não prontos: aguarda um evento
+            return true;
+        }
+        
+        // Executa uma instrução; interrupções são tratadas pelo SO dentro do ciclo
+        nucleo.cpu.step();
+        return true;
+    }
+    
+    /**
+     * Executa as CPUs continuamente até não haver processo pronto.
+     * Preempção, término e erros de um processo são tratados por interrupção sem parar a CPU.
+     * Com vários núcleos cada CPU roda em sua própria thread; retorna quando todas pararem.
+     */
+    public void executarCPU() {
+        sistemaAtivo = true;
+        passoAPasso = false;
+        if (nucleos.length == 1) {
+            executarNucleo(nucleos[0]);
+        } else {
+            Thread[] threads = new Thread[nucleos.length];
+            for (Nucleo nucleo : nucleos) {
+                threads[nucleo.id] = new Thread(() -> executarNucleo(nucleo), "CPU-" + nucleo.id);
+                threads[nucleo.id].start();
+            }
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        LogKernel.flush();
+        hardware.console.esvaziar();
+    }
+    
+    /**
+     * Laço de um núcleo: despacha e executa até o SO não ter mais trabalho para ele
+     */
+    private void executarNucleo(Nucleo nucleo) {
+        nucleo.thread = Thread.currentThread();
+        gerenciadorMemoria.getGerenciador().fixarFaixa(nucleo.id); // Cache de frames do núcleo
+        try {
+            if (nucleo.processoNaCPU != null || despacharProximo(nucleo)) {
+                nucleo.cpu.run();
+            }
+        } finally {
+            nucleo.thread = null;
+            encerrarPostados(nucleo); // Postado enquanto o núcleo parava
+        }
+    }
+    
+    // === ROTINAS CHAMADAS PELOS TRATADORES DE INTERRUPÇÃO E SYSCALL ===
+    // Recebem o núcleo que gerou a interrupção e retornam true se há um processo
+    // carregado nele para continuar a execução
+    
+    /**
+     * Timer: processo atual volta à fila de prontos e o próximo é despachado
+     */
+    public boolean preemptarProcessoAtual(int idNucleo) {
+        Nucleo nucleo = nucleos[idNucleo];
+        avancarRelogioParede();
+        contabilizarFatia(nucleo);
+        if (nucleo.processoNaCPU != null) {
+            MotivoTermino excedido = nucleo.processoNaCPU.verificarLimites(); // Fronteira de quantum
+            if (excedido != null) {
+                return encerrarPorLimite(idNucleo, excedido);
+            }
+        }
+        if (nucleo.processoNaCPU != null) {
+            salvarContextoCPU(nucleo, nucleo.processoNaCPU);
+        }
+        ProcessControlBlock preemptado = nucleo.processoNaCPU;
+        nucleo.escalonador.forcarContextSwitch();
+        if (preemptado != null && !preemptado.podeExecutarEm(nucleo.id)
+                && nucleo.escalonador.removerProcesso(preemptado.getPid())) {
+            nucleoPara(preemptado).escalonador.adicionarProcesso(preemptado); // Afinidade mudou durante a fatia
+        }
+        despertarNucleosOciosos(); // Processo devolvido à fila pode ser roubado
+        return despacharProximo(nucleo);
+    }
+    
+    /**
+     * Processo atual excedeu um limite de recursos
+     */
+    private boolean encerrarPorLimite(int idNucleo, MotivoTermino motivo) {
+        ProcessControlBlock pcb = nucleos[idNucleo].processoNaCPU;
+        registrarLimiteExcedido(pcb, motivo);
+        return encerrarProcessoAtual(idNucleo, motivo);
+    }
+    
+    /**
+     * Processo fora da CPU (bloqueado ou voltando a ficar pronto) excedeu um limite
+     */
+    private void encerrarForaDaCPUPorLimite(ProcessControlBlock pcb, MotivoTermino motivo) {
+        registrarLimiteExcedido(pcb, motivo);
+        finalizarProcesso(pcb.getPid(), motivo);
+    }
+    
+    private void registrarLimiteExcedido(ProcessControlBlock pcb, MotivoTermino motivo) {
+        limitesExcedidos.incrementAndGet();
+        LogKernel.registrar(Categoria.PROC, Nivel.AVISO, "Limite de recursos excedido: %s (%s, %s)",
+            pcb.getNome(), motivo, pcb.getLimites());
+    }
+    
+    /**
+     * Processo que vai bloquear: verifica os limites (quem só bloqueia nunca chega a uma
+     * fronteira de quantum) e arma, uma vez, o prazo do limite de tempo de parede, que o
+     * encerra mesmo se continuar bloqueado. Motivo do limite excedido ou null
+     */
+    private MotivoTermino verificarLimitesAoBloquear(ProcessControlBlock pcb) {
+        MotivoTermino excedido = pcb.verificarLimites();
+        long maxMs = pcb.getLimites().getMaxTempoParedeMs();
+        if (excedido == null && maxMs > 0 && pcb.getPrazoParede() == null) {
+            long expiracao = (pcb.getInstanteCriacao() - inicioParedeNanos) / 1_000_000 + maxMs + 1;
+            synchronized (pcb) {
+                pcb.setPrazoParede(prazosParede.agendar(expiracao, () -> expirarLimiteParede(pcb)));
+            }
+        }
+        return excedido;
+    }
+    
+    /**
+     * Prazo do limite de tempo de parede: encerra o processo se ele ainda está bloqueado.
+     * Pronto ou em execução, é encerrado na próxima fronteira de quantum ou bloqueio
+     */
+    private void expirarLimiteParede(ProcessControlBlock pcb) {
+        MotivoTermino excedido;
+        synchronized (pcb) {
+            pcb.setPrazoParede(null);
+            if (pcb.getEstado() != ProcessState.WAITING || processos.get(pcb.getPid()) != pcb) {
+                return;
+            }
+            excedido = pcb.verificarLimites();
+            if (excedido == null) {
+                verificarLimitesAoBloquear(pcb); // Arredondamento para milissegundos: rearma
+                return;
+            }
+        }
+        encerrarForaDaCPUPorLimite(pcb, excedido);
+    }
+    
+    /**
+     * Avança o relógio de parede dos limites até agora, disparando os prazos vencidos
+     */
+    private void avancarRelogioParede() {
+        relogioParede.avancarPara((System.nanoTime() - inicioParedeNanos) / 1_000_000);
+    }
+    
+    /**
+     * STOP ou erro do programa: encerra apenas o processo atual e libera seus frames
+     */
+    public boolean encerrarProcessoAtual(int idNucleo, MotivoTermino motivo) {
+        Nucleo nucleo = nucleos[idNucleo];
+        contabilizarFatia(nucleo);
+        ProcessControlBlock pcb = nucleo.processoNaCPU;
+        if (pcb != null) {
+            salvarContextoCPU(nucleo, pcb);
+            nucleo.escalonador.finalizarProcessoAtual();
+            finalizarProcesso(pcb.getPid(), motivo);
+        }
+        return despacharProximo(nucleo);
+    }
+    
+    /**
+     * Chamada de E/S: bloqueia o processo atual (WAITING) e entrega o pedido ao
+     * dispositivo; a CPU segue com o próximo processo pronto.
+     * Escritas que cabem no buffer do console e leituras com entrada programada
+     * já disponível não bloqueiam.
+     */
+    public boolean bloquearParaIO(int idNucleo, int operacao, int enderecoLogico) {
+        return bloquearParaIO(idNucleo, operacao, enderecoLogico, -1);
+    }
+    
+    /**
+     * Leitura com prazo (prazo >= 0, em ciclos simulados): se o dispositivo não
+     * concluir a tempo o processo volta a ficar pronto com reg[8] = -1 e o valor
+     * que chegar depois é descartado; concluída a tempo, reg[8] = 0.
+     */
+    public boolean bloquearParaIO(int idNucleo, int operacao, int enderecoLogico, int prazo) {
+        Nucleo nucleo = nucleos[idNucleo];
+        ProcessControlBlock pcb = nucleo.processoNaCPU;
+        if (pcb == null) {
+            return false;
+        }
+        int[] tabela = pcb.getTabelaPaginas();
+        int pagina = enderecoLogico / gerenciadorMemoria.getGerenciador().getTamPg();
+        if (enderecoLogico >= 0 && (pagina >= tabela.length || tabela[pagina] < 0)) {
+            boolean continuar = tratarFaltaDePagina(idNucleo, enderecoLogico); // Buffer em página ainda sem frame
+            if (nucleo.processoNaCPU != pcb) {
+                return continuar; // Processo encerrado na falta de página
+            }
+        }
+        int enderecoFisico;
+        try {
+            enderecoFisico = gerenciadorMemoria.traduzirEndereco(enderecoLogico, pcb.getTabelaPaginas());
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return encerrarProcessoAtual(idNucleo, MotivoTermino.ENDERECO_INVALIDO);
+        }
+        
+        if (operacao == PedidoIO.ESCRITA && !pcb.registrarSaida()) {
+            return encerrarPorLimite(idNucleo, MotivoTermino.LIMITE_SAIDA);
+        }
+        if (operacao == PedidoIO.ESCRITA
+                && hardware.console.tentarEscrever(pcb.getPid(), hardware.mem.pos[enderecoFisico].p)) {
+            return true; // Escrita coube no buffer do console: processo segue sem bloquear
+        }
+        if (operacao == PedidoIO.LEITURA) {
+            Integer valor = hardware.entrada.tentarLer(pcb.getPid());
+            if (valor != null) {
+                Word destino = hardware.mem.pos[enderecoFisico];
+                destino.opc = Opcode.DATA;
+                destino.p = valor;
+                if (prazo >= 0) {
+                    nucleo.cpu.setReg(8, 0);
+                }
+                return true; // Entrada programada já disponível: processo segue sem bloquear
+            }
+            if (prazo == 0) {
+                nucleo.cpu.setReg(8, -1); // Prazo zero: só consulta, sem esperar o dispositivo
+                return true;
+            }
+        }
+        
+        contabilizarFatia(nucleo);
+        MotivoTermino excedido = verificarLimitesAoBloquear(pcb);
+        if (excedido != null) {
+            return encerrarPorLimite(idNucleo, excedido);
+        }
+        PedidoIO pedido = new PedidoIO(pcb.getPid(), operacao, enderecoFisico, hardware.mem.pos[enderecoFisico].p);
+        salvarContextoCPU(nucleo, pcb);
+        pcb.setPedidoBloqueante(pedido);
+        nucleo.escalonador.bloquearProcessoAtual(); // A partir daqui o processo pode ir para o swap
+        nucleo.processoNaCPU = null;
+        if (prazo > 0) {
+            synchronized (pcb) {
+                pcb.setPrazoBloqueio(temporizadores.agendar(hardware.relogio.agora() + prazo,
+                    () -> expirarPrazo(pcb, pedido)));
+            }
+        }
+        
+        pedidosIOPendentes.incrementAndGet();
+        hardware.io.submeter(pedido);
+        return despacharProximo(nucleo);
+    }
+    
+    /**
+     * Sleep: o processo atual fica WAITING por N ciclos simulados e volta à fila
+     * de prontos quando o temporizador expira
+     */
+    public boolean dormir(int idNucleo, int ciclos) {
+        Nucleo nucleo = nucleos[idNucleo];
+        ProcessControlBlock pcb = nucleo.processoNaCPU;
+        if (pcb == null) {
+            return false;
+        }
+        if (ciclos <= 0) {
+            return true;
+        }
+        contabilizarFatia(nucleo);
+        MotivoTermino excedido = verificarLimitesAoBloquear(pcb);
+        if (excedido != null) {
+            return encerrarPorLimite(idNucleo, excedido);
+        }
+        salvarContextoCPU(nucleo, pcb);
+        processosDormindo.incrementAndGet();
+        nucleo.escalonador.bloquearProcessoAtual();
+        nucleo.processoNaCPU = null;
+        synchronized (pcb) {
+            pcb.setPrazoBloqueio(temporizadores.agendar(hardware.relogio.agora() + ciclos,
+                () -> expirarPrazo(pcb, null)));
+        }
+        LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Processo dormindo: %s por %d ciclos", pcb.getNome(), ciclos);
+        return despacharProximo(nucleo);
+    }
+    
+    /**
+     * Temporizador expirou: acaba o sleep (pedido null) ou a espera da leitura com prazo
+     */
+    private void expirarPrazo(ProcessControlBlock pcb, PedidoIO pedido) {
+        synchronized (pcb) {
+            if (pcb.getEstado() != ProcessState.WAITING || pcb.getPrazoBloqueio() == null
+                    || pcb.getPedidoBloqueante() != pedido) {
+                return; // Concluída ou finalizada antes do prazo
+            }
+            pcb.setPrazoBloqueio(null);
+            if (pedido != null) {
+                pcb.setPedidoBloqueante(null);   // Conclusão tardia será descartada
+                pcb.setRegistrador(8, -1);
+                LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Prazo de leitura esgotado: %s", pcb.getNome());
+            }
+            tornarPronto(pcb);
+        }
+        if (pedido == null) {
+            processosDormindo.decrementAndGet(); // Só depois do desbloqueio, como na conclusão de E/S
+        }
+    }
+    
+    /**
+     * WAITING -> READY: volta à fila de um núcleo ou, se está em swap, espera frames em prontosEmSwap.
+     * Quem excedeu um limite enquanto esperava é encerrado em vez de voltar
+     */
+    private void tornarPronto(ProcessControlBlock pcb) {
+        MotivoTermino excedido = pcb.verificarLimites();
+        if (excedido != null) {
+            encerrarForaDaCPUPorLimite(pcb, excedido);
+            return;
+        }
+        if (pcb.isEmSwap()) {
+            pcb.setEstado(ProcessState.READY);
+            prontosEmSwap.offer(pcb);
+            LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Processo desbloqueado (em swap): %s", pcb.getNome());
+        } else {
+            nucleoPara(pcb).escalonador.desbloquearProcesso(pcb);
+        }
+        despertarNucleosOciosos();
+    }
+    
+    /**
+     * E/S em lote: consome todos os descritores pendentes do anel de submissão
+     * do processo atual e os entrega ao dispositivo de uma vez. O processo não
+     * bloqueia; as conclusões aparecem no anel de conclusão (vide AnelIO).
+     */
+    public boolean submeterLoteIO(int idNucleo, int base) {
+        ProcessControlBlock pcb = nucleos[idNucleo].processoNaCPU;
+        if (pcb == null) {
+            return false;
+        }
+        Word capacidade = palavraDoProcesso(pcb, base + AnelIO.CAPACIDADE);
+        Word sqHead = palavraDoProcesso(pcb, base + AnelIO.SQ_HEAD);
+        Word sqTail = palavraDoProcesso(pcb, base + AnelIO.SQ_TAIL);
+        Word cqHead = palavraDoProcesso(pcb, base + AnelIO.CQ_HEAD);
+        Word cqTail = palavraDoProcesso(pcb, base + AnelIO.CQ_TAIL);
+        if (capacidade == null || sqHead == null || sqTail == null || cqHead == null || cqTail == null
+                || capacidade.p <= 0) {
+            return encerrarProcessoAtual(idNucleo, MotivoTermino.ENDERECO_INVALIDO);
+        }
+        
+        int c = capacidade.p;
+        int head = sqHead.p;
+        // Só consome descritores com vaga garantida no anel de conclusão
+        int vagas = c - (cqTail.p - cqHead.p) - pcb.getIOEmVoo();
+        List<PedidoIO> lote = new ArrayList<>();
+        boolean saidaExcedida = false;
+        while (head != sqTail.p && vagas > 0) {
+            Word operacao = palavraDoProcesso(pcb, base + AnelIO.descritor(c, head));
+            Word endereco = palavraDoProcesso(pcb, base + AnelIO.descritor(c, head) + 1);
+            Word buffer = endereco != null ? palavraDoProcesso(pcb, endereco.p) : null;
+            if (operacao == null || buffer == null
+                    || (operacao.p != PedidoIO.LEITURA && operacao.p != PedidoIO.ESCRITA)) {
+                postarConclusao(pcb, base, head, AnelIO.STATUS_ERRO);
+            } else if (operacao.p == PedidoIO.ESCRITA && !pcb.registrarSaida()) {
+                saidaExcedida = true;
+                break;
+            } else {
+                int enderecoFisico = gerenciadorMemoria.traduzirEndereco(endereco.p, pcb.getTabelaPaginas());
+                PedidoIO pedido = new PedidoIO(pcb.getPid(), operacao.p, enderecoFisico, buffer.p);
+                pedido.anel = base;
+                pedido.indice = head;
+                lote.add(pedido);
+            }
+            head++;
+            vagas--;
+        }
+        sqHead.p = head;
+        
+        pedidosIOPendentes.addAndGet(lote.size());
+        pcb.adicionarIOEmVoo(lote.size());
+        hardware.io.submeterLote(lote);
+        return saidaExcedida ? encerrarPorLimite(idNucleo, MotivoTermino.LIMITE_SAIDA) : true;
+    }
+    
+    /**
+     * Fim de E/S: conclui as transferências prontas e desbloqueia seus processos
+     */
+    public boolean tratarFimDeIO(int idNucleo) {
+        Nucleo nucleo = nucleos[idNucleo];
+        drenarIOConcluido();
+        encerrarPostados(nucleo);
+        return nucleo.processoNaCPU != null || despacharProximo(nucleo);
+    }
+    
+    /**
+     * Términos postados por outras threads: o processo ainda carregado é encerrado
+     * pelo próprio núcleo; o que já saiu da CPU (preemptado, bloqueado) é
+     * finalizado direto ou repostado ao núcleo que o roubou
+     */
+    private void encerrarPostados(Nucleo nucleo) {
+        Encerramento e;
+        while ((e = nucleo.encerramentos.poll()) != null) {
+            if (e.pcb == nucleo.processoNaCPU) {
+                contabilizarFatia(nucleo);
+                salvarContextoCPU(nucleo, e.pcb);
+                nucleo.escalonador.finalizarProcessoAtual();
+            }
+            finalizarProcesso(e.pcb.getPid(), e.motivo);
+        }
+    }
+    
+    /**
+     * Falta de página: aloca um frame para a página dentro do espaço lógico
+     * e retoma o processo na mesma instrução
+     */
+    public boolean tratarFaltaDePagina(int idNucleo, int enderecoLogico) {
+        Nucleo nucleo = nucleos[idNucleo];
+        ProcessControlBlock pcb = nucleo.processoNaCPU;
+        if (pcb == null) {
+            return false;
+        }
+        faltasPagina.incrementar();
+        int pagina = enderecoLogico / gerenciadorMemoria.getGerenciador().getTamPg();
+        if (pagina >= maxPaginasPorProcesso) {
+            return encerrarProcessoAtual(idNucleo, MotivoTermino.ENDERECO_INVALIDO);
+        }
+        int maxFrames = pcb.getLimites().getMaxFrames();
+        if (maxFrames > 0 && pcb.getFramesResidentes() >= maxFrames) {
+            return encerrarPorLimite(idNucleo, MotivoTermino.LIMITE_MEMORIA);
+        }
+        int frame = gerenciadorMemoria.alocaPagina("Processo-" + pcb.getPid());
+        if (frame < 0) {
+            return encerrarProcessoAtual(idNucleo, MotivoTermino.SEM_MEMORIA);
+        }
+        
+        int[] tabelaAtual = pcb.getTabelaPaginas();
+        int[] novaTabela = Arrays.copyOf(tabelaAtual, Math.max(tabelaAtual.length, pagina + 1));
+        for (int i = tabelaAtual.length; i < novaTabela.length; i++) {
+            novaTabela[i] = -1;
+        }
+        novaTabela[pagina] = frame;
+        pcb.setTabelaPaginas(novaTabela);
+        nucleo.cpu.setTabelaPaginas(pcb.getTabelaPaginas());
+        return true;
+    }
+    
+    /**
+     * Carrega na CPU o processo escolhido pelo escalonador do núcleo; sem processo
+     * na própria fila rouba de outro núcleo. Sem nada a roubar, a CPU fica parada
+     * enquanto houver E/S pendente ou outro núcleo ocupado (que pode liberar trabalho).
+     * Com todos os núcleos parados e eventos agendados (ex: E/S com latência modelada)
+     * o relógio simulado salta direto para o próximo evento, sem esperar.
+     */
+    private boolean despacharProximo(Nucleo nucleo) {
+        while (true) {
+            long inicio = System.nanoTime();
+            avancarRelogioParede();
+            drenarSubmissoes();
+            drenarIOConcluido();
+            ProcessControlBlock proximo = nucleo.escalonador.selecionarProximoProcesso();
+            if (proximo == null) {
+                proximo = roubarProcesso(nucleo);
+            }
+            if (proximo != null) {
+                marcarOcupado(nucleo, true);
+                if (proximo != nucleo.processoNaCPU) {
+                    executarContextSwitch(nucleo, proximo);
+                    if (nucleo.escalonador.isQuantumAdaptativo()) {
+                        nucleo.escalonador.registrarCustoTroca(System.nanoTime() - inicio);
+                    }
+                } else if (nucleo.escalonador.isQuantumAdaptativo()
+                        && nucleo.escalonador.getQuantumRestante() == nucleo.escalonador.getQuantum()) {
+                    nucleo.cpu.setTimer(nucleo.escalonador.getQuantum()); // Mesmo processo, fatia nova
+                }
+                return true;
+            }
+            nucleo.processoNaCPU = null;
+            marcarOcupado(nucleo, false);
+            if (!submissoes.isEmpty() || admissaoPossivel()) {
+                aguardandoDrenagem = true;
+                if (drenandoSubmissoes.get() && !aguardarInterrupcao(nucleo)) {
+                    return false; // Outro núcleo está admitindo: acorda quando ele terminar
+                }
+                continue;
+            }
+            if (pedidosIOPendentes.get() == 0 && processosDormindo.get() == 0 && nucleosOcupados.get() == 0
+                    && !haProcessosProntos()) {
+                for (Nucleo n : nucleos) {
+                    if (n != nucleo && !n.ocupado) {
+                        n.cpu.despertar(); // Núcleo parado esperando a E/S que este drenou percebe o fim
+                    }
+                }
+                return false;
+            }
+            if (nucleosOcupados.get() == 0 && !hardware.io.temTransferenciasEmExecucao()
+                    && hardware.relogio.saltarParaProximoEvento()) {
+                continue; // Todos os núcleos parados: o tempo simulado salta até o próximo evento
+            }
+            long proximoLimite = prazosParede.getProximoInstante();
+            boolean acordou = proximoLimite == Long.MAX_VALUE ? aguardarInterrupcao(nucleo)
+                : aguardarInterrupcao(nucleo, TimeUnit.MILLISECONDS.toNanos( // Acorda no prazo de um bloqueado
+                    Math.max(1, proximoLimite - relogioParede.agora())));
+            if (!acordou) {
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Há processo pronto em alguma fila. Outro núcleo que drena uma conclusão de E/S
+     * enfileira o processo antes de decrementar pedidosIOPendentes: com a contagem
+     * zerada depois da busca, o processo já está numa fila e o sistema não terminou
+     */
+    private boolean haProcessosProntos() {
+        if (!prontosEmSwap.isEmpty()) {
+            return true;
+        }
+        for (Nucleo n : nucleos) {
+            if (n.escalonador.getNumeroProcessosNaFila() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * O próximo processo em swap ou programa da fila de admissão já cabe (outro núcleo vai admiti-lo)
+     */
+    private boolean admissaoPossivel() {
+        ProcessControlBlock emSwap = prontosEmSwap.peek();
+        if (emSwap != null && escalonadorMedioPrazo.getPaginasEmSwap(emSwap.getPid())
+                <= gerenciadorMemoria.getGerenciador().getFramesLivres()) {
+            return true;
+        }
+        Submissao proximo = escalonadorLongoPrazo.proximo();
+        return proximo != null && cabeNaMemoria(proximo);
+    }
+    
+    /**
+     * Roubo de trabalho: retira um processo do final da fila de outro núcleo, respeitando
+     * a afinidade. Histerese: processo que executou há pouco no núcleo vítima (quente)
+     * só é levado se a vítima tem outros prontos para se manter ocupada.
+     * No modo passo a passo o núcleo 0 é o único que executa: a afinidade vira
+     * preferência, senão um processo sem o núcleo 0 na máscara nunca rodaria
+     */
+    private ProcessControlBlock roubarProcesso(Nucleo ladrao) {
+        long agora = hardware.relogio.agora();
+        for (int i = 1; i < nucleos.length; i++) {
+            Nucleo vitima = nucleos[(ladrao.id + i) % nucleos.length];
+            boolean vitimaSobrecarregada = vitima.escalonador.getNumeroProcessosNaFila() > HISTERESE_CARGA;
+            ProcessControlBlock pcb = vitima.escalonador.roubarProcesso(p -> (passoAPasso || p.podeExecutarEm(ladrao.id))
+                && (vitimaSobrecarregada || !quenteEm(p, vitima, agora)));
+            if (pcb != null) {
+                totalRoubos.incrementAndGet();
+                LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "CPU %d rouba %s da fila da CPU %d",
+                    ladrao.id, pcb.getNome(), vitima.id);
+                ladrao.escalonador.adicionarProcesso(pcb);
+                return ladrao.escalonador.selecionarProximoProcesso();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Atualiza a contagem de núcleos ocupados; quando o último fica livre os
+     * demais acordam para perceber que o sistema terminou
+     */
+    private void marcarOcupado(Nucleo nucleo, boolean ocupado) {
+        if (nucleo.ocupado == ocupado) {
+            return;
+        }
+        nucleo.ocupado = ocupado;
+        if (ocupado) {
+            nucleosOcupados.incrementAndGet();
+        } else if (nucleosOcupados.decrementAndGet() == 0) {
+            despertarNucleosOciosos();
+        }
+    }
+    
+    /**
+     * Interrupção entre processadores para os núcleos parados
+     */
+    private void despertarNucleosOciosos() {
+        if (nucleosOcupados.get() == nucleos.length) {
+            return;
+        }
+        for (Nucleo n : nucleos) {
+            if (!n.ocupado) {
+                n.cpu.despertar();
+            }
+        }
+    }
     
-    // Estado do gerenciador
-    private boolean sistemaAtivo;                       // Sistema está executando?
-    private int maxProcessosConcorrentes;               // Limite de processos simultâneos
+    /**
+     * Processo deixou o núcleo há menos de janelaAfinidade ciclos
+     */
+    private boolean quenteEm(ProcessControlBlock pcb, Nucleo nucleo, long agora) {
+        return pcb.getUltimoNucleo() == nucleo.id && agora - pcb.getFimUltimaExecucao() < janelaAfinidade;
+    }
     
-    // Estatísticas
-    private long totalProcessosCriados;
-    private long totalProcessosFinalizados;
+    /**
+     * Destino de um processo que fica pronto: processo de tempo real volta ao núcleo
+     * em que sua utilização está reservada. Os demais voltam ao núcleo da última
+     * execução (afinidade suave) enquanto ele não tiver mais que HISTERESE_CARGA
+     * processos acima do menos carregado entre os permitidos pela máscara
+     */
+    private Nucleo nucleoPara(ProcessControlBlock pcb) {
+        if (pcb.isTempoReal()) {
+            return nucleos[pcb.getNucleoTempoReal()];
+        }
+        Nucleo menosCarregado = nucleoMenosCarregado(pcb.getMascaraAfinidade());
+        int ultimo = pcb.getUltimoNucleo();
+        if (ultimo >= 0 && pcb.podeExecutarEm(ultimo)
+                && carga(nucleos[ultimo]) <= carga(menosCarregado) + HISTERESE_CARGA) {
+            return nucleos[ultimo];
+        }
+        return menosCarregado;
+    }
     
     /**
-     * Construtor do Gerenciador de Processos
+     * Núcleo com menos processos (prontos + em execução), destino de admissões e desbloqueios
      */
-    public ProcessManager(HW hardware, MemoryManagerPonte gerenciadorMemoria) {
-        this.hardware = hardware;
-        this.gerenciadorMemoria = gerenciadorMemoria;
-        this.escalonador = new RoundRobinScheduler(10); // Quantum padrão de 10 ciclos
-        
-        this.processos = new HashMap<>();
-        this.proximoPID = 1;
-        this.sistemaAtivo = false;
-        this.maxProcessosConcorrentes = 10; // Limite padrão
-        
-        this.totalProcessosCriados = 0;
-        this.totalProcessosFinalizados = 0;
-        
-        System.out.println("Gerenciador de Processos inicializado");
+    private Nucleo nucleoMenosCarregado() {
+        return nucleoMenosCarregado(-1L);
     }
     
     /**
-     * Cria um novo processo a partir de um programa
+     * Núcleo menos carregado entre os da máscara (todos, se a máscara não inclui nenhum)
      */
-    public ProcessControlBlock criarProcesso(String nome, Word[] programa) {
-        if (processos.size() >= maxProcessosConcorrentes) {
-            System.out.println("ERRO: Limite máximo de processos atingido (" + maxProcessosConcorrentes + ")");
-            return null;
+    private Nucleo nucleoMenosCarregado(long mascara) {
+        Nucleo escolhido = null;
+        int menorCarga = Integer.MAX_VALUE;
+        for (Nucleo n : nucleos) {
+            int carga = carga(n);
+            if ((mascara & (1L << n.id)) != 0 && carga < menorCarga) {
+                escolhido = n;
+                menorCarga = carga;
+            }
         }
-        
-        // Cria PCB
-        int pid = proximoPID++;
-        ProcessControlBlock pcb = new ProcessControlBlock(pid, nome, programa);
-        
-        // Aloca memória para o processo
-        int[] tabelaPaginas = gerenciadorMemoria.alocaPrograma(programa, "Processo-" + pid);
-        if (tabelaPaginas == null) {
-            System.out.println("ERRO: Falha na alocação de memória para processo " + nome);
-            return null;
+        return escolhido != null ? escolhido : nucleoMenosCarregado();
+    }
+    
+    private static int carga(Nucleo n) {
+        return n.escalonador.getNumeroProcessosNaFila() + (n.ocupado ? 1 : 0);
+    }
+    
+    /**
+     * Trata todas as transferências já concluídas pelo dispositivo
+     */
+    private void drenarIOConcluido() {
+        PedidoIO pedido;
+        while ((pedido = hardware.io.retirarConcluido()) != null) {
+            concluirIO(pedido);
         }
-        
-        pcb.setTabelaPaginas(tabelaPaginas);
-        pcb.setEstado(ProcessState.NEW);
-        
-        // Registra o processo
-        processos.put(pid, pcb);
-        totalProcessosCriados++;
-        
-        System.out.println("Processo criado: " + nome + " (PID: " + pid + ", " + programa.length + " instruções)");
-        return pcb;
     }
     
     /**
-     * Cria processo a partir de um objeto Program
+     * CPU ociosa: bloqueia a thread do núcleo até o fim de uma E/S ou um aviso de outro núcleo
      */
-    public ProcessControlBlock criarProcesso(Program program) {
-        return criarProcesso(program.name, program.image);
+    private boolean aguardarInterrupcao(Nucleo nucleo) {
+        try {
+            nucleo.cpu.aguardarInterrupcao();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
     
     /**
-     * Admite um processo no sistema (NEW -> READY)
+     * HLT com timer: retorna também quando o intervalo expira sem interrupção
      */
-    public boolean admitirProcesso(int pid) {
-        ProcessControlBlock pcb = processos.get(pid);
-        if (pcb != null && pcb.getEstado() == ProcessState.NEW) {
-            pcb.setEstado(ProcessState.READY); // Muda o estado primeiro
-            escalonador.adicionarProcesso(pcb);
-            System.out.println("Processo admitido no sistema: " + pcb.getNome() + " (PID: " + pid + ")");
+    private boolean aguardarInterrupcao(Nucleo nucleo, long prazoNanos) {
+        try {
+            nucleo.cpu.aguardarInterrupcao(prazoNanos);
             return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
-        return false;
     }
     
     /**
-     * Finaliza um processo e libera seus recursos
+     * Copia o valor lido para a memória do processo e o devolve à fila de prontos.
+     * Processo em swap: o valor vai para a imagem na área de swap e o processo
+     * espera frames livres em prontosEmSwap. Pedido que não é mais o esperado
+     * pelo processo (prazo esgotado) é descartado.
      */
-    public boolean finalizarProcesso(int pid) {
-        ProcessControlBlock pcb = processos.get(pid);
+    private void concluirIO(PedidoIO pedido) {
+        ProcessControlBlock pcb = processos.get(pedido.pid);
         if (pcb == null) {
-            return false;
+            // Processo finalizado enquanto esperava: frames já liberados
+        } else if (pedido.anel >= 0) {
+            concluirIOAnel(pcb, pedido);
+        } else {
+            synchronized (pcb) {
+                if (pcb.getEstado() == ProcessState.WAITING && pcb.getPedidoBloqueante() == pedido) {
+                    pcb.setPedidoBloqueante(null);
+                    if (pcb.getPrazoBloqueio() != null) {
+                        temporizadores.cancelar(pcb.getPrazoBloqueio());
+                        pcb.setPrazoBloqueio(null);
+                        pcb.setRegistrador(8, 0); // Leitura com prazo concluída a tempo
+                    }
+                    if (pedido.operacao == PedidoIO.LEITURA && pcb.isEmSwap()) {
+                        try {
+                            escalonadorMedioPrazo.escreverDado(pcb.getPid(), pedido.endereco, pedido.valor);
+                        } catch (IOException e) {
+                            LogKernel.registrar(Categoria.PROC, Nivel.ERRO, "ERRO: Falha ao gravar leitura na área de swap: %s",
+                                e.getMessage());
+                        }
+                    } else if (pedido.operacao == PedidoIO.LEITURA) {
+                        Word destino = hardware.mem.pos[pedido.endereco];
+                        destino.opc = Opcode.DATA;
+                        destino.p = pedido.valor;
+                    }
+                    tornarPronto(pcb);
+                }
+            }
         }
-        
-        // Finaliza o processo
-        pcb.finalizar();
-        
-        // Libera memória
-        if (pcb.getTabelaPaginas() != null) {
-            gerenciadorMemoria.desalocaPrograma(pcb.getTabelaPaginas());
+        // Só depois do desbloqueio: um núcleo ocioso não pode concluir que o sistema terminou
+        pedidosIOPendentes.decrementAndGet();
+    }
+    
+    /**
+     * Conclusão de pedido do anel: processo não está bloqueado, apenas recebe a entrada de conclusão
+     */
+    private void concluirIOAnel(ProcessControlBlock pcb, PedidoIO pedido) {
+        pcb.adicionarIOEmVoo(-1);
+        if (pedido.operacao == PedidoIO.LEITURA) {
+            Word destino = hardware.mem.pos[pedido.endereco];
+            destino.opc = Opcode.DATA;
+            destino.p = pedido.valor;
         }
-        
-        // Remove das estruturas de dados
-        processos.remove(pid);
-        escalonador.removerProcesso(pid);
-        totalProcessosFinalizados++;
-        
-        System.out.println("Processo finalizado e recursos liberados: " + pcb.getNome() + " (PID: " + pid + ")");
-        return true;
+        postarConclusao(pcb, pedido.anel, pedido.indice, AnelIO.STATUS_OK);
     }
     
     /**
-     * Executa um ciclo do sistema operacional
-     * Esta é a função principal que coordena execução de processos
+     * Escreve [índice, status] no anel de conclusão e avança CQ_TAIL
      */
-    public boolean executarCicloSO() {
-        if (!sistemaAtivo) {
-            return false;
+    private void postarConclusao(ProcessControlBlock pcb, int base, int indice, int status) {
+        Word capacidade = palavraDoProcesso(pcb, base + AnelIO.CAPACIDADE);
+        Word cqTail = palavraDoProcesso(pcb, base + AnelIO.CQ_TAIL);
+        if (capacidade == null || cqTail == null || capacidade.p <= 0) {
+            return; // Anel desfeito pelo processo
         }
-        
-        // Seleciona processo para executar
-        ProcessControlBlock processoAtual = escalonador.selecionarProximoProcesso();
-        
-        if (processoAtual == null) {
-            // Não há processos para executar
-            if (processos.isEmpty()) {
-                System.out.println("Todos os processos finalizaram. Sistema encerrado.");
-                sistemaAtivo = false;
-                return false;
-            }
-            return true; // Aguarda novos processos
+        int pos = base + AnelIO.conclusao(capacidade.p, cqTail.p);
+        Word entradaIndice = palavraDoProcesso(pcb, pos);
+        Word entradaStatus = palavraDoProcesso(pcb, pos + 1);
+        if (entradaIndice == null || entradaStatus == null) {
+            return;
         }
-        
-        // Executa context switch se necessário
-        if (processoAtual != escalonador.getProcessoAtual()) {
-            executarContextSwitch(processoAtual);
+        entradaIndice.opc = Opcode.DATA;
+        entradaIndice.p = indice;
+        entradaStatus.opc = Opcode.DATA;
+        entradaStatus.p = status;
+        cqTail.opc = Opcode.DATA;
+        cqTail.p = cqTail.p + 1;
+    }
+    
+    /**
+     * Palavra da memória física correspondente a um endereço lógico do processo (null se não mapeado)
+     */
+    private Word palavraDoProcesso(ProcessControlBlock pcb, int enderecoLogico) {
+        try {
+            return hardware.mem.pos[gerenciadorMemoria.traduzirEndereco(enderecoLogico, pcb.getTabelaPaginas())];
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
         }
-        
-        // Executa uma instrução do processo
-        boolean continuarExecucao = executarInstrucao(processoAtual);
-        
-        // Atualiza contadores do escalonador
-        escalonador.executarCicloCPU();
-        
-        // Verifica se processo terminou
-        if (!continuarExecucao || processoAtual.isFinished()) {
-            escalonador.finalizarProcessoAtual();
-            finalizarProcesso(processoAtual.getPid());
+    }
+    
+    /**
+     * Repassa ao escalonador os ciclos executados desde o último despacho
+     */
+    private void contabilizarFatia(Nucleo nucleo) {
+        long ciclos = nucleo.cpu.getCiclos();
+        nucleo.escalonador.contabilizarCiclos(ciclos - nucleo.ciclosNoDespacho);
+        if (nucleo.escalonador.isQuantumAdaptativo()) {
+            long agora = System.nanoTime();
+            nucleo.escalonador.registrarExecucao(ciclos - nucleo.ciclosNoDespacho, agora - nucleo.nanosNoDespacho);
+            nucleo.nanosNoDespacho = agora;
         }
-        
-        return true;
+        nucleo.ciclosNoDespacho = ciclos;
     }
     
     /**
      * Executa context switch para um processo
      */
-    private void executarContextSwitch(ProcessControlBlock novoProcesso) {
+    private void executarContextSwitch(Nucleo nucleo, ProcessControlBlock novoProcesso) {
         // Salva contexto do processo anterior (se houver)
-        ProcessControlBlock processoAnterior = escalonador.getProcessoAtual();
+        ProcessControlBlock processoAnterior = nucleo.processoNaCPU;
         if (processoAnterior != null && !processoAnterior.isFinished()) {
-            salvarContextoCPU(processoAnterior);
+            salvarContextoCPU(nucleo, processoAnterior);
         }
         
         // Carrega contexto do novo processo
-        carregarContextoCPU(novoProcesso);
+        carregarContextoCPU(nucleo, novoProcesso);
+        trocasContexto.incrementar();
+        latenciaEscalonamento.registrar(System.nanoTime() - novoProcesso.getInstantePronto());
+        if (novoProcesso.getUltimoNucleo() == nucleo.id) {
+            despachosMesmoNucleo.incrementAndGet();
+        }
+        if (novoProcesso.registrarDespachoEm(nucleo.id)) {
+            totalMigracoes.incrementAndGet();
+        }
         
-        System.out.println("Context switch: " + 
-            (processoAnterior != null ? processoAnterior.getNome() : "idle") + " -> " + novoProcesso.getNome());
+        if (LogKernel.ativo(Categoria.SCHED, Nivel.INFO)) {
+            LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "Context switch: %s -> %s%s",
+                processoAnterior != null ? processoAnterior.getNome() : "idle", novoProcesso.getNome(),
+                nucleos.length > 1 ? " (CPU " + nucleo.id + ")" : "");
+        }
     }
     
     /**
      * Salva o contexto atual da CPU no PCB
      */
-    private void salvarContextoCPU(ProcessControlBlock pcb) {
-        pcb.setPc(hardware.cpu.getPc());
-        
+    private void salvarContextoCPU(Nucleo nucleo, ProcessControlBlock pcb) {
         // Salva registradores
         int[] regs = new int[10];
         for (int i = 0; i < 10; i++) {
-            regs[i] = hardware.cpu.getReg(i);
+            regs[i] = nucleo.cpu.getReg(i);
         }
-        pcb.setRegistradores(regs);
-        
-        // Salva estado de interrupção
-        // Nota: No código atual, não há acesso direto ao estado de interrupção da CPU
-        // Esta funcionalidade seria expandida numa implementação completa
+        pcb.salvarContexto(nucleo.cpu.getPc(), regs, Interrupts.noInterrupt);
+        pcb.setFimUltimaExecucao(hardware.relogio.agora()); // Janela de afinidade conta a partir daqui
     }
     
     /**
      * Carrega o contexto de um processo na CPU
      */
-    private void carregarContextoCPU(ProcessControlBlock pcb) {
-        // Define contexto na CPU
-        hardware.cpu.setContext(pcb.getPc());
-        
-        // Nota: O código atual da CPU não permite definir registradores diretamente
-        // Esta funcionalidade requer expansão da interface da CPU
-        // Por ora, o contexto básico (PC) é suficiente para demonstrar o conceito
-    }
-    
-    /**
-     * Executa uma instrução do processo atual
-     */
-    private boolean executarInstrucao(ProcessControlBlock pcb) {
-        try {
-            // Aqui seria a execução de uma única instrução
-            // Por limitações da CPU atual, executamos um ciclo completo controlado
-            
-            // Verifica se processo chegou ao fim
-            if (pcb.getPc() >= pcb.getTamanhoPrograma()) {
-                return false; // Processo terminou
-            }
-            
-            // A CPU atual executa até STOP, então precisamos de uma abordagem diferente
-            // Por ora, vamos simular a execução controlada
-            return true;
-            
-        } catch (Exception e) {
-            System.out.println("ERRO na execução do processo " + pcb.getNome() + ": " + e.getMessage());
-            return false;
+    private void carregarContextoCPU(Nucleo nucleo, ProcessControlBlock pcb) {
+        // PC, registradores e tabela de páginas (MMU)
+        nucleo.cpu.setContext(pcb.getPc(), pcb.getRegistradores(), pcb.getTabelaPaginas());
+        nucleo.processoNaCPU = pcb;
+        nucleo.ciclosNoDespacho = nucleo.cpu.getCiclos();
+        Rastreador rastreador = nucleo.cpu.getRastreador();
+        if (rastreador != null) {
+            rastreador.contexto(pcb.getPid(), pcb.getNome()); // Perfilador separa as contagens por programa
+        }
+        if (nucleo.escalonador.isQuantumAdaptativo()) {
+            nucleo.cpu.setTimer(nucleo.escalonador.getQuantum()); // Quantum pode ter sido reajustado nesta troca
+            nucleo.nanosNoDespacho = System.nanoTime();
         }
     }
     
@@ -272,12 +1460,11 @@ public class ProcessManager {
         // Inicia sistema
         sistemaAtivo = true;
         
-        // Executa ciclos até todos os processos terminarem
-        int maxCiclos = 1000; // Proteção contra loop infinito
-        int cicloAtual = 0;
+        // Executa ciclos até todos os processos terminarem (ou pararSistema); enquanto
+        // todos esperam E/S a CPU fica parada dentro de executarCicloSO
+        long cicloAtual = 0;
         
-        while (sistemaAtivo && cicloAtual < maxCiclos && escalonador.temProcessosParaExecutar()) {
-            executarCicloSO();
+        while (executarCicloSO()) {
             cicloAtual++;
             
             // Mostra progresso a cada 100 ciclos
@@ -286,16 +1473,88 @@ public class ProcessManager {
             }
         }
         
+        LogKernel.flush();
         System.out.println("\n=== Execução concorrente finalizada ===");
         exibirEstatisticas();
     }
     
+    /**
+     * Desliga a máquina: para as threads dos dispositivos e fecha a área de swap
+     * (o arquivo temporário é apagado). Chamar com as CPUs paradas.
+     */
+    public void desligar() {
+        hardware.desligar();
+        try {
+            escalonadorMedioPrazo.fechar();
+        } catch (IOException e) {
+            LogKernel.registrar(Categoria.SWAP, Nivel.AVISO, "Falha ao fechar a área de swap: %s", e.getMessage());
+        }
+    }
+    
+    /**
+     * Reinício rápido para reusar a máquina entre jobs: volta ao estado de boot sem
+     * realocar HW, memória nem estruturas do SO. Processos restantes são encerrados,
+     * submissões pendentes canceladas e só os blocos de memória escritos são limpos;
+     * CPUs, relógio, dispositivos, filas, PIDs e estatísticas voltam a zero. A
+     * configuração (quantum, limites, políticas, afinidade) é mantida.
+     * Chamar com as CPUs paradas; retorna o número de blocos de memória limpos.
+     */
+    public int reiniciar() {
+        sistemaAtivo = false;
+        for (Integer pid : new ArrayList<>(processos.keySet())) {
+            finalizarProcesso(pid, MotivoTermino.ENCERRADO);
+        }
+        Submissao submissao;
+        while ((submissao = submissoes.poll()) != null) {
+            submissao.resultado.cancel(false);
+        }
+        while ((submissao = escalonadorLongoPrazo.descartar()) != null) {
+            submissao.resultado.cancel(false);
+        }
+        escalonadorLongoPrazo = new LongTermScheduler(escalonadorLongoPrazo.getPolitica());
+        prontosEmSwap.clear();
+        resultados.clear();
+        
+        int limpos = hardware.reiniciar();
+        gerenciadorMemoria.reiniciar();
+        temporizadores = new TimingWheel(hardware.relogio); // Relógio voltou ao instante zero
+        inicioParedeNanos = System.nanoTime();
+        relogioParede = new RelogioSimulado();
+        prazosParede = new TimingWheel(relogioParede);
+        for (Nucleo nucleo : nucleos) {
+            nucleo.escalonador.reiniciar();
+            nucleo.processoNaCPU = null;
+            nucleo.encerramentos.clear();
+            nucleo.ciclosNoDespacho = 0;
+            nucleo.nanosNoDespacho = 0;
+            nucleo.utilizacaoTempoReal = 0;
+            nucleo.ocupado = false;
+        }
+        
+        proximoPID.set(1);
+        pedidosIOPendentes.set(0);
+        nucleosOcupados.set(0);
+        processosDormindo.set(0);
+        aguardandoDrenagem = false;
+        totalProcessosCriados.set(0);
+        totalProcessosFinalizados.set(0);
+        totalRoubos.set(0);
+        prazosCumpridos.set(0);
+        prazosPerdidos.set(0);
+        recusasTempoReal.set(0);
+        totalMigracoes.set(0);
+        despachosMesmoNucleo.set(0);
+        limitesExcedidos.set(0);
+        metricas.zerar();
+        return limpos;
+    }
+    
     /**
      * Inicia o sistema
      */
     public void iniciarSistema() {
         sistemaAtivo = true;
-        System.out.println("Sistema de processos iniciado");
+        LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Sistema de processos iniciado");
     }
     
     /**
@@ -303,7 +1562,8 @@ public class ProcessManager {
      */
     public void pararSistema() {
         sistemaAtivo = false;
-        System.out.println("Sistema de processos parado");
+        despertarNucleosOciosos(); // Laço parado em HLT percebe o fim
+        LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Sistema de processos parado");
     }
     
     /**
@@ -313,6 +1573,34 @@ public class ProcessManager {
         return processos.get(pid);
     }
     
+    /**
+     * Registro de métricas deste SO: publique com registrarJmx ou iniciarDespejo
+     */
+    public Metricas getMetricas() {
+        return metricas;
+    }
+    
+    /**
+     * Chamado pelo tratador de syscalls a cada chamada (inclusive STOP)
+     */
+    void registrarSyscall() {
+        syscalls.incrementar();
+    }
+    
+    /**
+     * Retorna quantos processos já foram criados
+     */
+    public long getTotalProcessosCriados() {
+        return totalProcessosCriados.get();
+    }
+    
+    /**
+     * Retorna quantos processos já foram finalizados
+     */
+    public long getTotalProcessosFinalizados() {
+        return totalProcessosFinalizados.get();
+    }
+    
     /**
      * Retorna lista de todos os processos
      */
@@ -333,14 +1621,49 @@ public class ProcessManager {
      * Exibe estatísticas do gerenciador
      */
     public void exibirEstatisticas() {
+        LogKernel.flush();
         System.out.println("\n=== Estatísticas do Gerenciador de Processos ===");
         System.out.println("Total de processos criados: " + totalProcessosCriados);
         System.out.println("Total de processos finalizados: " + totalProcessosFinalizados);
         System.out.println("Processos ativos: " + getProcessosAtivos().size());
         System.out.println("Próximo PID: " + proximoPID);
         System.out.println("Sistema ativo: " + sistemaAtivo);
+        if (hardware.relogio.getSaltos() > 0) {
+            System.out.println(hardware.relogio.getEstatisticas());
+        }
         
-        escalonador.exibirEstado();
+        if (escalonadorLongoPrazo.getTotalEnfileirados() > 0) {
+            System.out.println(escalonadorLongoPrazo.getEstatisticas());
+        }
+        if (escalonadorMedioPrazo.getTotalSwapOuts() > 0) {
+            System.out.println(escalonadorMedioPrazo.getEstatisticas());
+        }
+        if (temporizadores.getTotalAgendados() > 0) {
+            System.out.println(temporizadores.getEstatisticas());
+        }
+        if (limitesExcedidos.get() > 0) {
+            System.out.println("Processos finalizados por limite de recursos: " + limitesExcedidos);
+        }
+        if (trocasContexto.get() > 0) {
+            System.out.println(String.format(Locale.ROOT,
+                "Trocas de contexto: %d (latência de escalonamento p50 %.1f µs, p99 %.1f µs); faltas de página: %d; "
+                + "syscalls: %d", trocasContexto.get(), latenciaEscalonamento.getPercentil(0.5) / 1e3,
+                latenciaEscalonamento.getPercentil(0.99) / 1e3, faltasPagina.get(), syscalls.get()));
+        }
+        if (prazosCumpridos.get() + prazosPerdidos.get() + recusasTempoReal.get() > 0) {
+            System.out.println("Tempo real (EDF): " + prazosCumpridos + " prazos cumpridos, " + prazosPerdidos
+                + " perdidos, " + recusasTempoReal + " recusados na admissão");
+        }
+        if (nucleos.length == 1) {
+            nucleos[0].escalonador.exibirEstado();
+        } else {
+            System.out.println("Núcleos: " + nucleos.length + " (processos roubados: " + totalRoubos + ", migrações: "
+                + totalMigracoes + ", despachos no mesmo núcleo: " + despachosMesmoNucleo + ")");
+            for (Nucleo n : nucleos) {
+                System.out.println("--- CPU " + n.id + " (" + n.cpu.getCiclos() + " ciclos) ---");
+                n.escalonador.exibirEstado();
+            }
+        }
         
         if (!processos.isEmpty()) {
             System.out.println("Processos no sistema:");
@@ -354,7 +1677,102 @@ public class ProcessManager {
      * Define quantum do escalonador
      */
     public void setQuantum(int quantum) {
-        escalonador.setQuantum(quantum);
+        for (Nucleo n : nucleos) {
+            n.escalonador.setQuantum(quantum);
+            n.cpu.setTimer(n.escalonador.getQuantum());
+        }
+    }
+    
+    /**
+     * Limites aplicados aos processos criados daqui em diante (padrão: sem limites)
+     */
+    public void setLimitesPadrao(LimitesRecursos limites) {
+        this.limitesPadrao = limites != null ? limites : LimitesRecursos.SEM_LIMITES;
+    }
+    
+    /**
+     * Troca os limites de um processo existente; valem a partir da próxima verificação
+     */
+    public void definirLimites(int pid, LimitesRecursos limites) {
+        ProcessControlBlock pcb = processos.get(pid);
+        if (pcb == null) {
+            throw new IllegalArgumentException("Processo inexistente: " + pid);
+        }
+        pcb.setLimites(limites);
+    }
+    
+    public long getLimitesExcedidos() {
+        return limitesExcedidos.get();
+    }
+    
+    /**
+     * Restringe os núcleos em que o processo pode executar (bit i: núcleo i). Um processo
+     * pronto na fila de um núcleo excluído muda de fila agora; em execução, na próxima preempção
+     */
+    public void definirAfinidade(int pid, long mascara) {
+        ProcessControlBlock pcb = processos.get(pid);
+        if (pcb == null) {
+            throw new IllegalArgumentException("Processo inexistente: " + pid);
+        }
+        long todos = nucleos.length >= 64 ? -1L : (1L << nucleos.length) - 1;
+        if ((mascara & todos) == 0) {
+            throw new IllegalArgumentException("Máscara de afinidade sem núcleos existentes: " + Long.toBinaryString(mascara));
+        }
+        if (pcb.isTempoReal() && (mascara & (1L << pcb.getNucleoTempoReal())) == 0) {
+            throw new IllegalStateException("Processo de tempo real reservado no núcleo " + pcb.getNucleoTempoReal());
+        }
+        pcb.setMascaraAfinidade(mascara);
+        for (Nucleo n : nucleos) {
+            if (!pcb.podeExecutarEm(n.id) && n.escalonador.removerProcesso(pid)) {
+                nucleoPara(pcb).escalonador.adicionarProcesso(pcb);
+                despertarNucleosOciosos();
+            }
+        }
+    }
+    
+    /**
+     * Ciclos simulados após uma execução em que o processo é considerado quente no núcleo
+     */
+    public void setJanelaAfinidade(long ciclos) {
+        this.janelaAfinidade = Math.max(0, ciclos);
+    }
+    
+    public long getTotalMigracoes() {
+        return totalMigracoes.get();
+    }
+    
+    public long getDespachosMesmoNucleo() {
+        return despachosMesmoNucleo.get();
+    }
+    
+    /**
+     * Utilização máxima de tempo real por núcleo aceita pelo controle de admissão (padrão 1.0)
+     */
+    public void setLimiteUtilizacaoTempoReal(double limite) {
+        if (limite > 0) {
+            this.limiteUtilizacaoTempoReal = limite;
+        }
+    }
+    
+    public long getPrazosCumpridos() {
+        return prazosCumpridos.get();
+    }
+    
+    public long getPrazosPerdidos() {
+        return prazosPerdidos.get();
+    }
+    
+    public long getRecusasTempoReal() {
+        return recusasTempoReal.get();
+    }
+    
+    /**
+     * Liga o quantum adaptativo em todos os núcleos (ver RoundRobinScheduler.setQuantumAdaptativo)
+     */
+    public void setQuantumAdaptativo(double alvoOverhead, long respostaMaxima) {
+        for (Nucleo n : nucleos) {
+            n.escalonador.setQuantumAdaptativo(alvoOverhead, respostaMaxima);
+        }
     }
     
     /**
@@ -362,13 +1780,76 @@ public class ProcessManager {
      */
     public void setMaxProcessosConcorrentes(int max) {
         this.maxProcessosConcorrentes = max;
-        System.out.println("Limite máximo de processos concorrentes definido para: " + max);
+        LogKernel.registrar(Categoria.PROC, Nivel.INFO, "Limite máximo de processos concorrentes definido para: %d", max);
+    }
+    
+    /**
+     * Define o espaço lógico máximo (em páginas) atendido por falta de página
+     */
+    public void setMaxPaginasPorProcesso(int max) {
+        this.maxPaginasPorProcesso = max;
     }
     
     /**
-     * Retorna o escalonador
+     * Define o timer de ociosidade do modo passo a passo (máximo parado sem interrupção)
+     */
+    public void setTimerOcioso(long milissegundos) {
+        this.timerOciosoNanos = TimeUnit.MILLISECONDS.toNanos(milissegundos);
+    }
+    
+    /**
+     * Retorna o escalonador (do núcleo 0)
      */
     public RoundRobinScheduler getEscalonador() {
-        return escalonador;
+        return nucleos[0].escalonador;
+    }
+    
+    /**
+     * Retorna o escalonador de longo prazo (fila de admissão)
+     */
+    public LongTermScheduler getEscalonadorLongoPrazo() {
+        return escalonadorLongoPrazo;
+    }
+    
+    /**
+     * Retorna a roda de temporizadores (sleep e prazos)
+     */
+    public TimingWheel getTemporizadores() {
+        return temporizadores;
+    }
+    
+    /**
+     * Retorna o escalonador de médio prazo (swap)
+     */
+    public MediumTermScheduler getEscalonadorMedioPrazo() {
+        return escalonadorMedioPrazo;
+    }
+    
+    /**
+     * Define a ordem de admissão dos programas submetidos
+     */
+    public void setPoliticaAdmissao(LongTermScheduler.Politica politica) {
+        escalonadorLongoPrazo.setPolitica(politica);
+    }
+    
+    /**
+     * Retorna o escalonador de um núcleo
+     */
+    public RoundRobinScheduler getEscalonador(int nucleo) {
+        return nucleos[nucleo].escalonador;
+    }
+    
+    /**
+     * Retorna o número de núcleos (CPUs do HW)
+     */
+    public int getNumeroNucleos() {
+        return nucleos.length;
+    }
+    
+    /**
+     * Retorna quantos processos migraram de núcleo por roubo de trabalho
+     */
+    public long getTotalRoubos() {
+        return totalRoubos.get();
     }
-}
\ No newline at end of file
+}
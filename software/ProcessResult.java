@@ -0,0 +1,58 @@
+package software;
+
+/**
+ * Resultado de um processo submetido, entregue pelo CompletableFuture
+ * de ProcessManager.submeter quando o processo é finalizado
+ *
+ * - Motivo do término (NORMAL ou o erro que encerrou o processo)
+ * - Saída capturada do console, um valor por linha
+ * - Ciclos de CPU usados e ciclos esperando na fila de prontos
+ */
+public class ProcessResult {
+    private final int pid;
+    private final String nome;
+    private final MotivoTermino motivoTermino;
+    private final String saida;
+    private final long ciclosCPU;
+    private final long tempoEspera;
+
+    public ProcessResult(int pid, String nome, MotivoTermino motivoTermino, String saida,
+                         long ciclosCPU, long tempoEspera) {
+        this.pid = pid;
+        this.nome = nome;
+        this.motivoTermino = motivoTermino;
+        this.saida = saida;
+        this.ciclosCPU = ciclosCPU;
+        this.tempoEspera = tempoEspera;
+    }
+
+    public int getPid() {
+        return pid;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public MotivoTermino getMotivoTermino() {
+        return motivoTermino;
+    }
+
+    public String getSaida() {
+        return saida;
+    }
+
+    public long getCiclosCPU() {
+        return ciclosCPU;
+    }
+
+    public long getTempoEspera() {
+        return tempoEspera;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Resultado[PID=%d, Nome=%s, Motivo=%s, CPU=%d ciclos, Espera=%d]",
+                pid, nome, motivoTermino, ciclosCPU, tempoEspera);
+    }
+}
@@ -1,9 +1,19 @@
 package software;
 
+import hardware.RelogioSimulado;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.LinkedList;
-import java.util.Queue;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
 
 /**
  * Escalonador Round-Robin para o sistema SISOP
@@ -13,6 +23,21 @@ import java.util.List;
  * - Quando o quantum expira, o processo é colocado no final da fila
  * - Próximo processo da fila é selecionado para execução
  * - Garante fairness entre os processos
+ * 
+ * Em máquinas com vários núcleos cada núcleo tem seu próprio escalonador;
+ * os métodos são sincronizados porque outros núcleos desbloqueiam processos
+ * nesta fila e roubam processos do seu final.
+ * 
+ * Quantum adaptativo (opcional): a cada troca de contexto o quantum é
+ * recalculado a partir do custo medido da troca e das rajadas de CPU dos
+ * processos - grande o bastante para o overhead ficar abaixo do alvo e para
+ * a maioria das rajadas caber numa fatia, mas limitado pelo tempo de resposta
+ * máximo dividido pelos processos na fila.
+ * 
+ * Classe de tempo real: processos com prazo ficam num heap ordenado pelo prazo
+ * absoluto (EDF) e são sempre despachados antes da fila Round-Robin; um prazo
+ * mais cedo toma a CPU na próxima troca (no máximo um quantum). Quem estoura o
+ * orçamento é rebaixado para a fila de melhor esforço.
  */
 public class RoundRobinScheduler {
     
@@ -21,12 +46,33 @@ public class RoundRobinScheduler {
     private int quantumAtual;               // Quantum restante do processo atual
     
     // Filas de processos
-    private Queue<ProcessControlBlock> filaProtos;  // Processos prontos para execução
+    private Deque<ProcessControlBlock> filaProtos;  // Processos prontos para execução
+    private PriorityQueue<ProcessControlBlock> filaTempoReal; // Prontos de tempo real, prazo mais cedo primeiro
     private ProcessControlBlock processoAtual;      // Processo atualmente executando
     
     // Estatísticas do escalonador
     private long totalContextSwitches;     // Número total de trocas de contexto
-    private long cicloCPUAtual;           // Contador de ciclos para controle de tempo
+    private long despachosTempoReal;       // Trocas que escolheram um processo de tempo real
+    private long orcamentosEstourados;     // Rebaixamentos para melhor esforço
+    private RelogioSimulado relogio;       // Tempo simulado (compartilhado com o HW quando usado pelo ProcessManager)
+    
+    // Quantum adaptativo
+    private static final int QUANTUM_MINIMO = 2;
+    private static final int QUANTUM_MAXIMO = 100_000;
+    private static final int HISTORICO_AJUSTES = 8;      // Ajustes detalhados mantidos por padrão
+    private boolean adaptativo;
+    private double alvoOverhead;           // Fração máxima do tempo gasta em trocas de contexto
+    private long respostaMaxima;           // Ciclos máximos até um processo pronto voltar à CPU
+    private double nanosPorTroca;          // Médias móveis das medições (0: sem medição ainda)
+    private double nanosPorCiclo;
+    private long totalAjustes;
+    private long ajustesParaCima;
+    private long ajustesParaBaixo;
+    private int menorQuantumAjustado;      // Agregados de todos os ajustes (o histórico detalhado é truncado)
+    private int maiorQuantumAjustado;
+    private long somaQuantumAjustado;
+    private int historicoAjustes;          // Ajustes detalhados mantidos para as estatísticas
+    private Deque<String> ajustes;         // Últimos ajustes, mais recente no fim
     
     /**
      * Construtor com quantum padrão
@@ -42,36 +88,81 @@ public class RoundRobinScheduler {
         this.quantum = quantum;
         this.quantumAtual = 0;
         this.filaProtos = new LinkedList<>();
+        this.filaTempoReal = new PriorityQueue<>(Comparator
+            .comparingLong(ProcessControlBlock::getPrazoAbsoluto)
+            .thenComparingInt(ProcessControlBlock::getPid));
         this.processoAtual = null;
         this.totalContextSwitches = 0;
-        this.cicloCPUAtual = 0;
+        this.relogio = new RelogioSimulado(); // Escalonador isolado: avança o próprio relógio em executarCicloCPU
+        this.ajustes = new ArrayDeque<>();
+        this.historicoAjustes = HISTORICO_AJUSTES;
+    }
+    
+    /**
+     * Passa a usar o relógio do HW, avançado pelas CPUs
+     */
+    public synchronized void setRelogio(RelogioSimulado relogio) {
+        this.relogio = relogio;
     }
     
     /**
      * Adiciona um processo à fila de prontos
      */
-    public void adicionarProcesso(ProcessControlBlock pcb) {
+    public synchronized void adicionarProcesso(ProcessControlBlock pcb) {
         if (pcb != null && pcb.getEstado() == ProcessState.READY) {
             pcb.setQuantumRestante(quantum);
-            filaProtos.offer(pcb);
-            System.out.println("Processo adicionado à fila: " + pcb.getNome() + " (PID: " + pcb.getPid() + ")");
+            enfileirar(pcb);
+            LogKernel.registrar(Categoria.SCHED, Nivel.DEBUG, "Processo adicionado à fila: %s (PID: %d)",
+                pcb.getNome(), pcb.getPid());
         }
     }
     
     /**
      * Remove um processo da fila de prontos
      */
-    public boolean removerProcesso(int pid) {
-        return filaProtos.removeIf(pcb -> pcb.getPid() == pid);
+    public synchronized boolean removerProcesso(int pid) {
+        return filaProtos.removeIf(pcb -> pcb.getPid() == pid) | filaTempoReal.removeIf(pcb -> pcb.getPid() == pid);
+    }
+    
+    private void enfileirar(ProcessControlBlock pcb) {
+        if (pcb.isTempoReal()) {
+            filaTempoReal.offer(pcb);
+        } else {
+            filaProtos.offer(pcb);
+        }
+    }
+    
+    /**
+     * Retira o processo do final da fila de prontos para outro núcleo ocioso
+     * (roubo de trabalho); null se a fila está vazia. Processos de tempo real
+     * ficam no núcleo em que sua utilização foi reservada.
+     */
+    public synchronized ProcessControlBlock roubarProcesso() {
+        return filaProtos.pollLast();
+    }
+    
+    /**
+     * Roubo seletivo: retira, a partir do final da fila, o primeiro processo aceito
+     * pelo ladrão (afinidade, estado quente); null se nenhum serve
+     */
+    public synchronized ProcessControlBlock roubarProcesso(Predicate<ProcessControlBlock> aceito) {
+        for (Iterator<ProcessControlBlock> it = filaProtos.descendingIterator(); it.hasNext(); ) {
+            ProcessControlBlock pcb = it.next();
+            if (aceito.test(pcb)) {
+                it.remove();
+                return pcb;
+            }
+        }
+        return null;
     }
     
     /**
      * Seleciona o próximo processo para execução
      * Implementa a lógica do Round-Robin
      */
-    public ProcessControlBlock selecionarProximoProcesso() {
+    public synchronized ProcessControlBlock selecionarProximoProcesso() {
         // Se não há processo atual ou quantum expirou
-        if (processoAtual == null || quantumAtual <= 0 || processoAtual.isFinished()) {
+        if (processoAtual == null || quantumAtual <= 0 || processoAtual.isFinished() || prazoMaisUrgente()) {
             return executarContextSwitch();
         }
         
@@ -79,6 +170,15 @@ public class RoundRobinScheduler {
         return processoAtual;
     }
     
+    /**
+     * Há processo de tempo real pronto com prazo anterior ao do processo atual
+     */
+    private boolean prazoMaisUrgente() {
+        ProcessControlBlock urgente = filaTempoReal.peek();
+        return urgente != null && (!processoAtual.isTempoReal()
+            || urgente.getPrazoAbsoluto() < processoAtual.getPrazoAbsoluto());
+    }
+    
     /**
      * Executa troca de contexto (context switch)
      */
@@ -88,24 +188,35 @@ public class RoundRobinScheduler {
             if (processoAtual.getEstado() == ProcessState.RUNNING) {
                 processoAtual.setEstado(ProcessState.READY);
                 processoAtual.setQuantumRestante(quantum);
-                filaProtos.offer(processoAtual);
-                System.out.println("Context switch: " + processoAtual.getNome() + " retorna à fila de prontos");
+                enfileirar(processoAtual);
+                LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "Context switch: %s retorna à fila de prontos",
+                    processoAtual.getNome());
             }
         }
         
-        // Seleciona próximo processo da fila
-        processoAtual = filaProtos.poll();
+        if (adaptativo) {
+            ajustarQuantum();
+        }
+        
+        // Seleciona próximo processo: tempo real (EDF) antes da fila Round-Robin
+        processoAtual = filaTempoReal.poll();
+        if (processoAtual != null) {
+            despachosTempoReal++;
+        } else {
+            processoAtual = filaProtos.poll();
+        }
         
         if (processoAtual != null) {
             processoAtual.setEstado(ProcessState.RUNNING);
             quantumAtual = quantum;
             processoAtual.setQuantumRestante(quantumAtual);
-            processoAtual.setTempoUltimaExecucao(cicloCPUAtual);
+            processoAtual.setTempoUltimaExecucao(relogio.agora());
             totalContextSwitches++;
             
-            System.out.println("Context switch: " + processoAtual.getNome() + " inicia execução (Quantum: " + quantum + ")");
+            LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "Context switch: %s inicia execução (Quantum: %d)",
+                processoAtual.getNome(), quantum);
         } else {
-            System.out.println("Nenhum processo disponível para execução");
+            LogKernel.registrar(Categoria.SCHED, Nivel.DEBUG, "Nenhum processo disponível para execução");
         }
         
         return processoAtual;
@@ -114,7 +225,7 @@ public class RoundRobinScheduler {
     /**
      * Verifica se deve ocorrer preempção (quantum expirou)
      */
-    public boolean devePreemptar() {
+    public synchronized boolean devePreemptar() {
         return quantumAtual <= 0 && processoAtual != null;
     }
     
@@ -122,28 +233,71 @@ public class RoundRobinScheduler {
      * Notifica que um ciclo de CPU foi executado
      * Atualiza contadores de quantum e tempo
      */
-    public void executarCicloCPU() {
-        cicloCPUAtual++;
+    public synchronized void executarCicloCPU() {
+        relogio.avancarPara(relogio.agora() + 1);
         
         if (processoAtual != null) {
             quantumAtual--;
             processoAtual.decrementarQuantum();
             processoAtual.adicionarTempoCPU(1);
+            verificarOrcamento();
             
             // Atualiza tempo de espera para processos na fila
             for (ProcessControlBlock pcb : filaProtos) {
                 pcb.adicionarTempoEspera(1);
             }
+            for (ProcessControlBlock pcb : filaTempoReal) {
+                pcb.adicionarTempoEspera(1);
+            }
+        }
+    }
+    
+    /**
+     * Contabiliza um bloco de ciclos executados de uma vez pela CPU
+     * (usado quando a preempção é feita pelo timer do hardware, não ciclo a ciclo;
+     * o relógio já foi avançado pela CPU)
+     */
+    public synchronized void contabilizarCiclos(long ciclos) {
+        if (ciclos <= 0) {
+            return;
+        }
+        
+        if (processoAtual != null) {
+            quantumAtual = (int) Math.max(0, quantumAtual - ciclos);
+            processoAtual.setQuantumRestante(quantumAtual);
+            processoAtual.adicionarTempoCPU(ciclos);
+            processoAtual.adicionarCiclosRajada(ciclos);
+            verificarOrcamento();
+            
+            for (ProcessControlBlock pcb : filaProtos) {
+                pcb.adicionarTempoEspera(ciclos);
+            }
+            for (ProcessControlBlock pcb : filaTempoReal) {
+                pcb.adicionarTempoEspera(ciclos);
+            }
+        }
+    }
+    
+    /**
+     * Processo de tempo real que já usou mais CPU que o orçamento perde a classe
+     */
+    private void verificarOrcamento() {
+        if (processoAtual.isTempoReal() && processoAtual.getTempoCPU() > processoAtual.getOrcamento()) {
+            processoAtual.rebaixarParaMelhorEsforco();
+            orcamentosEstourados++;
+            LogKernel.registrar(Categoria.SCHED, Nivel.AVISO, "Orçamento de tempo real estourado: %s (%d > %d ciclos)",
+                processoAtual.getNome(), processoAtual.getTempoCPU(), processoAtual.getOrcamento());
         }
     }
     
     /**
      * Bloqueia o processo atual (para I/O ou outro evento)
      */
-    public void bloquearProcessoAtual() {
+    public synchronized void bloquearProcessoAtual() {
         if (processoAtual != null) {
             processoAtual.setEstado(ProcessState.WAITING);
-            System.out.println("Processo bloqueado: " + processoAtual.getNome());
+            processoAtual.encerrarRajada();
+            LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "Processo bloqueado: %s", processoAtual.getNome());
             processoAtual = null; // Remove da CPU
             quantumAtual = 0;
         }
@@ -152,21 +306,22 @@ public class RoundRobinScheduler {
     /**
      * Desbloqueia um processo e o coloca na fila de prontos
      */
-    public void desbloquearProcesso(ProcessControlBlock pcb) {
+    public synchronized void desbloquearProcesso(ProcessControlBlock pcb) {
         if (pcb != null && pcb.getEstado() == ProcessState.WAITING) {
             pcb.setEstado(ProcessState.READY);
             adicionarProcesso(pcb);
-            System.out.println("Processo desbloqueado: " + pcb.getNome());
+            LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "Processo desbloqueado: %s", pcb.getNome());
         }
     }
     
     /**
      * Finaliza o processo atual
      */
-    public void finalizarProcessoAtual() {
+    public synchronized void finalizarProcessoAtual() {
         if (processoAtual != null) {
             processoAtual.finalizar();
-            System.out.println("Processo finalizado: " + processoAtual.getNome() + " (PID: " + processoAtual.getPid() + ")");
+            LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "Processo finalizado: %s (PID: %d)",
+                processoAtual.getNome(), processoAtual.getPid());
             processoAtual = null;
             quantumAtual = 0;
         }
@@ -175,49 +330,99 @@ public class RoundRobinScheduler {
     /**
      * Retorna o processo atualmente em execução
      */
-    public ProcessControlBlock getProcessoAtual() {
+    public synchronized ProcessControlBlock getProcessoAtual() {
         return processoAtual;
     }
     
+    /**
+     * Retorna o quantum configurado
+     */
+    public synchronized int getQuantum() {
+        return quantum;
+    }
+    
     /**
      * Retorna quantum restante do processo atual
      */
-    public int getQuantumRestante() {
+    public synchronized int getQuantumRestante() {
         return quantumAtual;
     }
     
     /**
      * Retorna número de processos na fila de prontos
      */
-    public int getNumeroProcessosNaFila() {
-        return filaProtos.size();
+    public synchronized int getNumeroProcessosNaFila() {
+        return filaProtos.size() + filaTempoReal.size();
+    }
+    
+    /**
+     * Retorna número de processos de tempo real prontos
+     */
+    public synchronized int getNumeroProcessosTempoReal() {
+        return filaTempoReal.size();
+    }
+    
+    public synchronized long getDespachosTempoReal() {
+        return despachosTempoReal;
+    }
+    
+    public synchronized long getOrcamentosEstourados() {
+        return orcamentosEstourados;
     }
     
     /**
      * Verifica se há processos para executar
      */
-    public boolean temProcessosParaExecutar() {
-        return !filaProtos.isEmpty() || (processoAtual != null && !processoAtual.isFinished());
+    public synchronized boolean temProcessosParaExecutar() {
+        return !filaProtos.isEmpty() || !filaTempoReal.isEmpty()
+            || (processoAtual != null && !processoAtual.isFinished());
     }
     
     /**
      * Retorna lista de todos os processos prontos
      */
-    public List<ProcessControlBlock> getProcessosProntos() {
-        return new ArrayList<>(filaProtos);
+    public synchronized List<ProcessControlBlock> getProcessosProntos() {
+        List<ProcessControlBlock> prontos = new ArrayList<>(filaTempoReal);
+        prontos.sort(filaTempoReal.comparator());
+        prontos.addAll(filaProtos);
+        return prontos;
     }
     
     /**
      * Estatísticas do escalonador
      */
-    public String getEstatisticas() {
+    public synchronized String getEstatisticas() {
         StringBuilder sb = new StringBuilder();
         sb.append("=== Estatísticas do Escalonador Round-Robin ===\n");
         sb.append("Quantum configurado: ").append(quantum).append(" ciclos\n");
         sb.append("Quantum restante: ").append(quantumAtual).append(" ciclos\n");
         sb.append("Total de context switches: ").append(totalContextSwitches).append("\n");
-        sb.append("Ciclo atual da CPU: ").append(cicloCPUAtual).append("\n");
+        sb.append("Tempo simulado: ").append(relogio.agora()).append(" ciclos\n");
         sb.append("Processos na fila de prontos: ").append(filaProtos.size()).append("\n");
+        if (despachosTempoReal > 0 || !filaTempoReal.isEmpty()) {
+            sb.append("Tempo real (EDF): ").append(filaTempoReal.size()).append(" prontos, ")
+              .append(despachosTempoReal).append(" despachos, ")
+              .append(orcamentosEstourados).append(" orçamentos estourados\n");
+        }
+        if (adaptativo) {
+            sb.append(String.format("Quantum adaptativo: overhead alvo %.1f%%, resposta máxima %d ciclos%n",
+                alvoOverhead * 100, respostaMaxima));
+            sb.append(String.format("Custo medido: troca %.0f ns, ciclo %.1f ns (troca = %.1f ciclos)%n",
+                nanosPorTroca, nanosPorCiclo, custoTrocaEmCiclos()));
+            sb.append("Ajustes de quantum: ").append(totalAjustes);
+            if (totalAjustes > 0) {
+                sb.append(String.format(" (%d para cima, %d para baixo; quantum ajustado min %d, max %d, média %.1f)",
+                    ajustesParaCima, ajustesParaBaixo, menorQuantumAjustado, maiorQuantumAjustado,
+                    (double) somaQuantumAjustado / totalAjustes));
+            }
+            sb.append("\n");
+            if (totalAjustes > ajustes.size()) {
+                sb.append("  (últimos ").append(ajustes.size()).append(" de ").append(totalAjustes).append(")\n");
+            }
+            for (String ajuste : ajustes) {
+                sb.append("  ").append(ajuste).append("\n");
+            }
+        }
         
         if (processoAtual != null) {
             sb.append("Processo atual: ").append(processoAtual.getNome()).append(" (PID: ").append(processoAtual.getPid()).append(")\n");
@@ -231,13 +436,13 @@ public class RoundRobinScheduler {
     /**
      * Mostra estado detalhado do escalonador
      */
-    public void exibirEstado() {
+    public synchronized void exibirEstado() {
         System.out.println("\n" + getEstatisticas());
         
-        if (!filaProtos.isEmpty()) {
+        if (!filaProtos.isEmpty() || !filaTempoReal.isEmpty()) {
             System.out.println("Fila de processos prontos:");
             int i = 1;
-            for (ProcessControlBlock pcb : filaProtos) {
+            for (ProcessControlBlock pcb : getProcessosProntos()) {
                 System.out.println("  " + i + ". " + pcb.toString());
                 i++;
             }
@@ -250,20 +455,185 @@ public class RoundRobinScheduler {
         System.out.println();
     }
     
+    /**
+     * Esvazia as filas e zera estatísticas e medições (reinício do SO);
+     * mantém o quantum e a configuração do quantum adaptativo
+     */
+    public synchronized void reiniciar() {
+        filaProtos.clear();
+        filaTempoReal.clear();
+        processoAtual = null;
+        quantumAtual = 0;
+        totalContextSwitches = 0;
+        despachosTempoReal = 0;
+        orcamentosEstourados = 0;
+        nanosPorTroca = 0;
+        nanosPorCiclo = 0;
+        totalAjustes = 0;
+        ajustesParaCima = 0;
+        ajustesParaBaixo = 0;
+        menorQuantumAjustado = 0;
+        maiorQuantumAjustado = 0;
+        somaQuantumAjustado = 0;
+        ajustes.clear();
+    }
+    
     /**
      * Define novo quantum para o escalonador
      */
-    public void setQuantum(int novoQuantum) {
+    public synchronized void setQuantum(int novoQuantum) {
         if (novoQuantum > 0) {
             this.quantum = novoQuantum;
-            System.out.println("Quantum do escalonador alterado para: " + quantum + " ciclos");
+            LogKernel.registrar(Categoria.SCHED, Nivel.INFO, "Quantum do escalonador alterado para: %d ciclos", quantum);
+        }
+    }
+    
+    /**
+     * Liga o quantum adaptativo: overhead de troca abaixo de alvoOverhead (ex: 0.05)
+     * e no máximo respostaMaxima ciclos até um processo pronto voltar à CPU
+     */
+    public synchronized void setQuantumAdaptativo(double alvoOverhead, long respostaMaxima) {
+        if (alvoOverhead <= 0 || alvoOverhead >= 1 || respostaMaxima < QUANTUM_MINIMO) {
+            throw new IllegalArgumentException("Parâmetros inválidos para o quantum adaptativo");
+        }
+        this.adaptativo = true;
+        this.alvoOverhead = alvoOverhead;
+        this.respostaMaxima = respostaMaxima;
+    }
+    
+    /**
+     * Quantos ajustes detalhados as estatísticas mantêm (0: só os agregados);
+     * os mais antigos saem primeiro
+     */
+    public synchronized void setHistoricoAjustes(int tamanho) {
+        if (tamanho < 0) {
+            throw new IllegalArgumentException("Tamanho do histórico negativo: " + tamanho);
+        }
+        this.historicoAjustes = tamanho;
+        while (ajustes.size() > tamanho) {
+            ajustes.removeFirst();
+        }
+    }
+    
+    public synchronized boolean isQuantumAdaptativo() {
+        return adaptativo;
+    }
+    
+    /**
+     * Medição do custo de uma troca de contexto (tempo de host do despacho)
+     */
+    public synchronized void registrarCustoTroca(long nanos) {
+        nanosPorTroca = nanosPorTroca == 0 ? nanos : nanosPorTroca * 0.875 + nanos * 0.125;
+    }
+    
+    /**
+     * Medição da execução de uma fatia: ciclos executados e tempo de host gasto
+     */
+    public synchronized void registrarExecucao(long ciclos, long nanos) {
+        if (ciclos <= 0) {
+            return;
+        }
+        double porCiclo = (double) nanos / ciclos;
+        nanosPorCiclo = nanosPorCiclo == 0 ? porCiclo : nanosPorCiclo * 0.875 + porCiclo * 0.125;
+    }
+    
+    public synchronized long getTotalAjustes() {
+        return totalAjustes;
+    }
+    
+    public synchronized long getAjustesParaCima() {
+        return ajustesParaCima;
+    }
+    
+    public synchronized long getAjustesParaBaixo() {
+        return ajustesParaBaixo;
+    }
+    
+    /**
+     * Menor, maior e médio quantum escolhidos pelos ajustes (0 sem ajustes)
+     */
+    public synchronized int getMenorQuantumAjustado() {
+        return menorQuantumAjustado;
+    }
+    
+    public synchronized int getMaiorQuantumAjustado() {
+        return maiorQuantumAjustado;
+    }
+    
+    public synchronized double getMediaQuantumAjustado() {
+        return totalAjustes == 0 ? 0 : (double) somaQuantumAjustado / totalAjustes;
+    }
+    
+    /**
+     * Custo de uma troca expresso em ciclos de execução
+     */
+    private double custoTrocaEmCiclos() {
+        return nanosPorCiclo == 0 ? 0 : nanosPorTroca / nanosPorCiclo;
+    }
+    
+    /**
+     * Recalcula o quantum: mínimo para o overhead ficar no alvo, elevado até o percentil 80
+     * das rajadas (a maioria termina numa fatia, sem preempção), limitado pelo tempo de resposta
+     */
+    private void ajustarQuantum() {
+        double custo = custoTrocaEmCiclos();
+        if (custo == 0 || filaProtos.isEmpty()) {
+            return; // Sem medições ainda, ou ninguém disputando a CPU
+        }
+        long porOverhead = (long) Math.ceil(custo * (1 - alvoOverhead) / alvoOverhead);
+        long porRajadas = percentilRajadas(new ArrayList<>(filaProtos), 0.8); // O processo preemptado já voltou à fila
+        int prontos = filaProtos.size();
+        long porResposta = respostaMaxima / Math.max(1, prontos);
+        
+        long novo = Math.min(Math.max(porOverhead, porRajadas), porResposta);
+        novo = Math.max(QUANTUM_MINIMO, Math.min(QUANTUM_MAXIMO, novo));
+        if (Math.abs(novo - quantum) * 5 <= quantum) {
+            return; // Variação de até 20%: mantém, evita oscilar a cada medição
+        }
+        String motivo = novo == porResposta ? "limite de resposta"
+            : novo == porOverhead ? "overhead" : novo == porRajadas ? "rajadas" : "limite";
+        totalAjustes++;
+        if (novo > quantum) {
+            ajustesParaCima++;
+        } else {
+            ajustesParaBaixo++;
+        }
+        menorQuantumAjustado = totalAjustes == 1 ? (int) novo : Math.min(menorQuantumAjustado, (int) novo);
+        maiorQuantumAjustado = Math.max(maiorQuantumAjustado, (int) novo);
+        somaQuantumAjustado += novo;
+        if (historicoAjustes > 0) {
+            ajustes.addLast(String.format("t=%d: %d -> %d ciclos (%s; troca %.1f ciclos, rajada p80 %d, %d prontos)",
+                relogio.agora(), quantum, novo, motivo, custo, porRajadas, prontos));
+            if (ajustes.size() > historicoAjustes) {
+                ajustes.removeFirst();
+            }
+        }
+        quantum = (int) novo;
+    }
+    
+    /**
+     * Percentil das rajadas dos processos; processo que nunca bloqueou conta com a
+     * rajada em andamento (0 se não há estimativa)
+     */
+    private static long percentilRajadas(List<ProcessControlBlock> processos, double percentil) {
+        List<Long> rajadas = new ArrayList<>();
+        for (ProcessControlBlock pcb : processos) {
+            long rajada = Math.max((long) pcb.getRajadaMedia(), pcb.getCiclosNaRajada());
+            if (rajada > 0) {
+                rajadas.add(rajada);
+            }
+        }
+        if (rajadas.isEmpty()) {
+            return 0;
         }
+        Collections.sort(rajadas);
+        return rajadas.get((int) Math.ceil(percentil * rajadas.size()) - 1);
     }
     
     /**
      * Força um context switch mesmo com quantum restante
      */
-    public ProcessControlBlock forcarContextSwitch() {
+    public synchronized ProcessControlBlock forcarContextSwitch() {
         quantumAtual = 0;
         return executarContextSwitch();
     }
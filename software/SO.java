@@ -4,14 +4,21 @@ import hardware.HW;
 import software.InterruptHandling;
 import software.SysCallHandling;
 public class SO {
+		private HW hw;
 		public InterruptHandling ih;
 		public SysCallHandling sc;
 		public Utilities utils;
 
-		public SO(HW hw) {
+		public SO(HW _hw) {
+			hw = _hw;
 			ih = new InterruptHandling(hw); // rotinas de tratamento de int
 			sc = new SysCallHandling(hw); // chamadas de sistema
 			hw.cpu.setAddressOfHandlers(ih, sc);
 			utils = new Utilities(hw);
 		}
+
+		public void reiniciar() { // reuso entre jobs: HW volta ao boot sem realocar e a CPU volta a estes tratadores
+			hw.reiniciar();
+			hw.cpu.setAddressOfHandlers(ih, sc);
+		}
 	}
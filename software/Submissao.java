@@ -0,0 +1,40 @@
+package software;
+
+import programs.Program;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Programa submetido por um produtor externo, aguardando criação e admissão
+ * pelo SO (vide ProcessManager.submeter e LongTermScheduler)
+ */
+class Submissao {
+    private static final AtomicLong proximaSequencia = new AtomicLong();
+    
+    final Program programa;
+    final int[] argumentos;                  // Entrada programada do processo
+    final LimitesRecursos limites;           // null: limites padrão do ProcessManager
+    final CompletableFuture<ProcessResult> resultado = new CompletableFuture<>();
+    final long sequencia;                    // Ordem de chegada (desempate e política FIFO)
+    final long instanteSubmissao;            // System.nanoTime() na submissão
+    
+    Submissao(Program programa, int[] argumentos) {
+        this(programa, null, argumentos);
+    }
+    
+    Submissao(Program programa, LimitesRecursos limites, int[] argumentos) {
+        this.programa = programa;
+        this.limites = limites;
+        this.argumentos = argumentos;
+        this.sequencia = proximaSequencia.getAndIncrement();
+        this.instanteSubmissao = System.nanoTime();
+    }
+    
+    /**
+     * Tamanho da imagem do programa, em palavras
+     */
+    int getTamanho() {
+        return programa.image.length;
+    }
+}
@@ -1,33 +1,96 @@
 package software;
 
 import hardware.HW;
+import hardware.CPU;
 import hardware.Opcode;
 import hardware.Interrupts;
 import hardware.Memory;
+import hardware.PedidoIO;
 import hardware.Word;
+import software.LogKernel.Categoria;
+import software.LogKernel.Nivel;
 public class SysCallHandling {
+		public static final int DORMIR = 4;            // reg[8]: processo dorme reg[9] ciclos simulados
+		public static final int LEITURA_COM_PRAZO = 5; // reg[8]: leitura em reg[9] com prazo de reg[7] ciclos;
+		                                               // ao retornar reg[8] = 0 (lido) ou -1 (prazo esgotado)
+
 		private HW hw; // referencia ao hw se tiver que setar algo
+		private ProcessManager gp; // gerente de processos - null quando o SO roda um unico programa
+		private CPU cpu;           // nucleo atendido por este tratador
+		private int nucleo;
 
 		public SysCallHandling(HW _hw) {
+			this(_hw, null);
+		}
+
+		public SysCallHandling(HW _hw, ProcessManager _gp) {
+			this(_hw, _gp, 0);
+		}
+
+		public SysCallHandling(HW _hw, ProcessManager _gp, int _nucleo) {
 			hw = _hw;
+			gp = _gp;
+			nucleo = _nucleo;
+			cpu = hw.cpus[nucleo];
 		}
 
-		public void stop() { // chamada de sistema indicando final de programa
-							 // nesta versao cpu simplesmente pára
-			System.out.println("                                               SYSCALL STOP");
+		public boolean stop() { // chamada de sistema indicando final de programa
+							    // retorna true se outro processo foi carregado e a CPU deve continuar
+			LogKernel.registrar(Categoria.SYSCALL, Nivel.DEBUG, "                                               SYSCALL STOP");
+			if (gp == null) {
+				return false;   // programa unico: cpu simplesmente pára
+			}
+			gp.registrarSyscall();
+			return gp.encerrarProcessoAtual(nucleo, MotivoTermino.NORMAL);
 		}
 
-		public void handle() { // chamada de sistema 
-			                   // suporta somente IO, com parametros 
-							   // reg[8] = in ou out    e reg[9] endereco do inteiro
-			System.out.println("SYSCALL pars:  " + hw.cpu.getReg(8) + " / " + hw.cpu.getReg(9));
+		public boolean handle() { // chamada de sistema 
+			                      // suporta somente IO, com parametros 
+							      // reg[8] = in ou out    e reg[9] endereco do inteiro
+							      // reg[8] = 3 (lote)     e reg[9] endereco do anel de E/S - vide AnelIO
+							      // reg[8] = 4 (dormir)   e reg[9] ciclos simulados
+							      // reg[8] = 5 (leitura com prazo), reg[9] endereco e reg[7] prazo em ciclos
+							      // retorna true se a CPU deve continuar executando
+			if (LogKernel.ativo(Categoria.SYSCALL, Nivel.DEBUG)) { // sem boxing dos parametros com o log desligado
+				LogKernel.registrar(Categoria.SYSCALL, Nivel.DEBUG, "SYSCALL pars:  %d / %d", cpu.getReg(8), cpu.getReg(9));
+			}
 
-			if  (hw.cpu.getReg(8)==1){
-				  // leitura ...
+			int operacao = cpu.getReg(8);
+			if (gp != null) {
+				gp.registrarSyscall();
+			}
+			if (operacao == AnelIO.SYSCALL_SUBMETER && gp != null) {
+				// lote: todos os descritores do anel em reg[9] numa chamada so - processo nao bloqueia
+				return gp.submeterLoteIO(nucleo, cpu.getReg(9));
+			}
+			if (operacao == DORMIR && gp != null) {
+				return gp.dormir(nucleo, cpu.getReg(9));
+			}
+			if (operacao == LEITURA_COM_PRAZO && gp != null) {
+				return gp.bloquearParaIO(nucleo, PedidoIO.LEITURA, cpu.getReg(9), cpu.getReg(7));
+			}
+			if (operacao != PedidoIO.LEITURA && operacao != PedidoIO.ESCRITA) {
+				LogKernel.registrar(Categoria.SYSCALL, Nivel.AVISO, "  PARAMETRO INVALIDO");
+				return true;
+			}
+			if (gp != null) {
+				// processo fica WAITING ate o dispositivo concluir - CPU segue com outro processo pronto
+				return gp.bloquearParaIO(nucleo, operacao, cpu.getReg(9));
+			}
 
-			} else if (hw.cpu.getReg(8)==2){
-				  // escrita - escreve o conteuodo da memoria na posicao dada em reg[9]
-				  System.out.println("OUT:   "+ hw.mem.pos[hw.cpu.getReg(8)].p);
-			} else {System.out.println("  PARAMETRO INVALIDO"); }		
+			// programa unico: espera o dispositivo, endereco em reg[9] ja é fisico
+			int endereco = cpu.getReg(9);
+			if (endereco < 0 || endereco >= hw.mem.pos.length) {
+				LogKernel.registrar(Categoria.SYSCALL, Nivel.AVISO, "  ENDERECO INVALIDO");
+				return true;
+			}
+			PedidoIO pedido = new PedidoIO(0, operacao, endereco, hw.mem.pos[endereco].p);
+			hw.io.executar(pedido);
+			if (operacao == PedidoIO.LEITURA) {
+				hw.mem.pos[endereco].opc = Opcode.DATA;
+				hw.mem.pos[endereco].p = pedido.valor;
+				hw.mem.marcarSuja(endereco);
+			}
+			return true;
 		}
 	}
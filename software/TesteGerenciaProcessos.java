@@ -1,13 +1,41 @@
 package software;
 
 import hardware.HW;
+import hardware.Interrupts;
+import hardware.Memory;
 import hardware.Word;
 import hardware.Opcode;
+import hardware.PedidoIO;
+import hardware.Perfilador;
+import hardware.RastreadorBinario;
+import hardware.RastreadorLog;
+import hardware.RelogioSimulado;
 import memory.MemoryManagerPonte;
 import programs.Program;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
  * Teste modular para os componentes de Gerência de Processos
@@ -30,6 +58,30 @@ public class TesteGerenciaProcessos {
         testarRoundRobinScheduler();
         testarProcessManager();
         testarExecucaoConcorrente();
+        testarInterrupcoesNaoFatais();
+        testarIOBloqueante();
+        testarAnelIO();
+        testarConsoleBufferizado();
+        testarEntradaProgramada();
+        testarMultiplosNucleos();
+        testarSubmissaoConcorrente();
+        testarResultadoAssincrono();
+        testarEscalonadorLongoPrazo();
+        testarEscalonadorMedioPrazo();
+        testarOciosidadeSemGiro();
+        testarRelogioSimulado();
+        testarTemporizadores();
+        testarQuantumAdaptativo();
+        testarTempoReal();
+        testarAfinidade();
+        testarLimitesRecursos();
+        testarExecucaoLote();
+        testarThreadPorProcesso();
+        testarReinicioRapido();
+        testarLogKernel();
+        testarRastreador();
+        testarPerfilador();
+        testarMetricas();
         
         System.out.println("=== TODOS OS TESTES CONCLUÍDOS ===");
     }
@@ -227,6 +279,1555 @@ public class TesteGerenciaProcessos {
         System.out.println("✓ Teste Execução Concorrente passou\n");
     }
     
+    /**
+     * Teste 6: Interrupções encerram somente o processo que as causou
+     */
+    public static void testarInterrupcoesNaoFatais() {
+        System.out.println("=== TESTE 6: Interrupções Não Fatais ===");
+        
+        HW hardware = new HW(1024);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        processManager.setQuantum(2); // Força preempções pelo timer
+        int framesLivresInicial = memoriaManager.getGerenciador().getFramesLivres();
+        
+        ProcessControlBlock overflow = processManager.criarProcesso("Overflow", new Word[] {
+            new Word(Opcode.LDI, 0, -1, 32767),
+            new Word(Opcode.ADDI, 0, -1, 1),     // Excede maxInt
+            new Word(Opcode.STOP, -1, -1, -1)
+        });
+        ProcessControlBlock invalido = processManager.criarProcesso("EnderecoInvalido", new Word[] {
+            new Word(Opcode.LDI, 0, -1, 1),
+            new Word(Opcode.STD, 0, -1, 5000),   // Fora do espaço lógico máximo
+            new Word(Opcode.STOP, -1, -1, -1)
+        });
+        ProcessControlBlock normal = processManager.criarProcesso("Normal", criarProgramaSimples());
+        
+        processManager.admitirProcesso(overflow.getPid());
+        processManager.admitirProcesso(invalido.getPid());
+        processManager.admitirProcesso(normal.getPid());
+        
+        // A CPU segue executando os demais processos após cada erro
+        processManager.executarCPU();
+        
+        assert overflow.getMotivoTermino() == MotivoTermino.OVERFLOW;
+        assert invalido.getMotivoTermino() == MotivoTermino.ENDERECO_INVALIDO;
+        assert normal.getMotivoTermino() == MotivoTermino.NORMAL; // Falta de página em MEM[20] foi atendida
+        assert processManager.getTodosProcessos().isEmpty();
+        assert memoriaManager.getGerenciador().getFramesLivres() == framesLivresInicial;
+        
+        // Interrupção recuperável não é confundida com término normal
+        assert MotivoTermino.deInterrupcao(Interrupts.intSTOP) == MotivoTermino.NORMAL;
+        for (Interrupts recuperavel : new Interrupts[] {
+                Interrupts.intFaltaDePagina, Interrupts.intIO,
+                Interrupts.intTimer, Interrupts.noInterrupt }) {
+            try {
+                MotivoTermino.deInterrupcao(recuperavel);
+                assert false : recuperavel + " mapeada para um motivo de término";
+            } catch (IllegalArgumentException esperado) {
+                // Não encerra processo
+            }
+        }
+        
+        System.out.println("✓ Teste Interrupções Não Fatais passou\n");
+    }
+    
+    /**
+     * Teste 7: E/S bloqueante com dispositivo assíncrono
+     */
+    public static void testarIOBloqueante() {
+        System.out.println("=== TESTE 7: E/S Bloqueante ===");
+        
+        HW hardware = new HW(1024);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        hardware.io.setEntrada(new BufferedReader(new StringReader("7\n")));
+        hardware.io.setSaida(new PrintStream(saida, true));
+        
+        // Lê um inteiro para MEM[10] e o escreve de volta
+        ProcessControlBlock eco = processManager.criarProcesso("Eco", new Word[] {
+            new Word(Opcode.LDI, 8, -1, 1),      // leitura
+            new Word(Opcode.LDI, 9, -1, 10),     // endereço do inteiro
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.LDI, 8, -1, 2),      // escrita do mesmo endereço
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.STOP, -1, -1, -1)
+        });
+        ProcessControlBlock calculo = processManager.criarProcesso("Calculo", criarProgramaSimples());
+        
+        processManager.admitirProcesso(eco.getPid());
+        processManager.admitirProcesso(calculo.getPid());
+        processManager.executarCPU();
+        
+        assert eco.getMotivoTermino() == MotivoTermino.NORMAL;
+        assert calculo.getMotivoTermino() == MotivoTermino.NORMAL;
+        assert saida.toString().contains("OUT:   7");
+        
+        System.out.println("Saída do dispositivo: " + saida.toString().trim());
+        System.out.println("✓ Teste E/S Bloqueante passou\n");
+    }
+    
+    /**
+     * Teste 8: E/S em lote pelo anel de submissão, conclusões consultadas sem SYSCALL
+     */
+    public static void testarAnelIO() {
+        System.out.println("=== TESTE 8: Anel de E/S ===");
+        
+        HW hardware = new HW(1024);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        hardware.io.setSaida(new PrintStream(saida, true));
+        
+        // Anel em 40 com capacidade 2: descritores em 45..48, conclusões em 49..52
+        ProcessControlBlock lote = processManager.criarProcesso("Lote", new Word[] {
+            new Word(Opcode.LDI, 0, -1, 2),
+            new Word(Opcode.STD, 0, -1, 40),     // capacidade
+            new Word(Opcode.LDI, 1, -1, 0),
+            new Word(Opcode.STD, 1, -1, 41),     // SQ head
+            new Word(Opcode.STD, 0, -1, 42),     // SQ tail = 2 descritores
+            new Word(Opcode.STD, 1, -1, 43),     // CQ head
+            new Word(Opcode.STD, 1, -1, 44),     // CQ tail
+            new Word(Opcode.LDI, 2, -1, 2),      // escrita
+            new Word(Opcode.STD, 2, -1, 45),
+            new Word(Opcode.LDI, 3, -1, 60),
+            new Word(Opcode.STD, 3, -1, 46),
+            new Word(Opcode.STD, 2, -1, 47),
+            new Word(Opcode.LDI, 3, -1, 61),
+            new Word(Opcode.STD, 3, -1, 48),
+            new Word(Opcode.LDI, 4, -1, 11),
+            new Word(Opcode.STD, 4, -1, 60),
+            new Word(Opcode.LDI, 4, -1, 22),
+            new Word(Opcode.STD, 4, -1, 61),
+            new Word(Opcode.LDI, 8, -1, AnelIO.SYSCALL_SUBMETER),
+            new Word(Opcode.LDI, 9, -1, 40),
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.LDD, 5, -1, 44),     // consulta CQ tail
+            new Word(Opcode.SUBI, 5, -1, 2),
+            new Word(Opcode.JMPILK, -1, 5, 21),  // menos de 2 conclusões: consulta de novo
+            new Word(Opcode.STOP, -1, -1, -1)
+        });
+        processManager.admitirProcesso(lote.getPid());
+        processManager.executarCPU();
+        
+        String texto = saida.toString();
+        assert lote.getMotivoTermino() == MotivoTermino.NORMAL;
+        assert texto.indexOf("OUT:   11") >= 0 && texto.indexOf("OUT:   11") < texto.indexOf("OUT:   22");
+        
+        System.out.println("Saída do dispositivo: " + texto.trim().replace('\n', ' '));
+        System.out.println("✓ Teste Anel de E/S passou\n");
+    }
+    
+    /**
+     * Teste 9: Saída bufferizada no console, capturada por processo e em ordem
+     */
+    public static void testarConsoleBufferizado() {
+        System.out.println("=== TESTE 9: Console Bufferizado ===");
+        
+        HW hardware = new HW(1024);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        processManager.setQuantum(3); // Intercala as escritas dos dois processos
+        
+        List<ProcessControlBlock> pcbs = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ProcessControlBlock pcb = processManager.criarProcesso("Escritor" + i, criarProgramaEscritor(3));
+            hardware.console.capturarEmMemoria(pcb.getPid());
+            processManager.admitirProcesso(pcb.getPid());
+            pcbs.add(pcb);
+        }
+        processManager.executarCPU();
+        
+        for (ProcessControlBlock pcb : pcbs) {
+            assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+            assert "1\n2\n3\n".equals(hardware.console.getSaidaCapturada(pcb.getPid()));
+        }
+        
+        System.out.println("✓ Teste Console Bufferizado passou\n");
+    }
+    
+    /**
+     * Teste 10: Leituras atendidas por entrada programada (valores, sequência gerada e arquivo)
+     */
+    public static void testarEntradaProgramada() {
+        System.out.println("=== TESTE 10: Entrada Programada ===");
+        
+        HW hardware = new HW(1024);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        
+        ProcessControlBlock valores = processManager.criarProcesso("Valores", criarProgramaEco(3));
+        ProcessControlBlock sequencia = processManager.criarProcesso("Sequencia", criarProgramaEco(3));
+        ProcessControlBlock arquivo = processManager.criarProcesso("Arquivo", criarProgramaEco(3));
+        ProcessControlBlock fibonacci = processManager.criarProcesso(
+            "fibonacciREAD", new programs.Programs().retrieveProgram("fibonacciREAD"));
+        try {
+            Path entrada = Files.createTempFile("entrada", ".txt");
+            Files.writeString(entrada, "10 20\n30\n");
+            entrada.toFile().deleteOnExit();
+            hardware.entrada.programarArquivo(arquivo.getPid(), entrada);
+        } catch (java.io.IOException e) {
+            throw new AssertionError("Falha ao criar arquivo de entrada: " + e.getMessage());
+        }
+        hardware.entrada.programarValores(valores.getPid(), 4, 5, 6);
+        hardware.entrada.programarSequencia(sequencia.getPid(), 3, i -> i * i);
+        hardware.entrada.programarValores(fibonacci.getPid(), 7);
+        
+        for (ProcessControlBlock pcb : List.of(valores, sequencia, arquivo, fibonacci)) {
+            hardware.console.capturarEmMemoria(pcb.getPid());
+            processManager.admitirProcesso(pcb.getPid());
+        }
+        processManager.executarCPU();
+        
+        assert "4\n5\n6\n".equals(hardware.console.getSaidaCapturada(valores.getPid()));
+        assert "0\n1\n4\n".equals(hardware.console.getSaidaCapturada(sequencia.getPid()));
+        assert "10\n20\n30\n".equals(hardware.console.getSaidaCapturada(arquivo.getPid()));
+        assert fibonacci.getMotivoTermino() == MotivoTermino.NORMAL;
+        
+        System.out.println("✓ Teste Entrada Programada passou\n");
+    }
+    
+    /**
+     * Teste 11: Vários núcleos compartilhando a memória, cada um com sua fila de prontos
+     */
+    public static void testarMultiplosNucleos() {
+        System.out.println("=== TESTE 11: Múltiplos Núcleos ===");
+        
+        HW hardware = new HW(1024, 4);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8, 4); // Um cache de frames por núcleo
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        processManager.setQuantum(4);
+        assert processManager.getNumeroNucleos() == 4;
+        
+        List<ProcessControlBlock> escritores = new ArrayList<>();
+        List<ProcessControlBlock> ecos = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ProcessControlBlock pcb = i % 4 == 3
+                ? processManager.criarProcesso("Eco" + i, criarProgramaEco(3))
+                : processManager.criarProcesso("Escritor" + i, criarProgramaEscritor(5));
+            (i % 4 == 3 ? ecos : escritores).add(pcb);
+            if (i % 4 == 3) {
+                hardware.entrada.programarValores(pcb.getPid(), i, i + 1, i + 2);
+            }
+            hardware.console.capturarEmMemoria(pcb.getPid());
+            processManager.admitirProcesso(pcb.getPid());
+        }
+        processManager.executarCPU();
+        
+        for (ProcessControlBlock pcb : escritores) {
+            assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+            assert "1\n2\n3\n4\n5\n".equals(hardware.console.getSaidaCapturada(pcb.getPid()));
+        }
+        for (ProcessControlBlock pcb : ecos) {
+            int base = pcb.getPid() - 1;
+            assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+            assert (base + "\n" + (base + 1) + "\n" + (base + 2) + "\n")
+                .equals(hardware.console.getSaidaCapturada(pcb.getPid()));
+        }
+        long ciclosCPUs = 0;
+        long ciclosProcessos = 0;
+        for (hardware.CPU cpu : hardware.cpus) {
+            ciclosCPUs += cpu.getCiclos();
+        }
+        for (ProcessControlBlock pcb : escritores) {
+            ciclosProcessos += pcb.getTempoCPU();
+        }
+        for (ProcessControlBlock pcb : ecos) {
+            ciclosProcessos += pcb.getTempoCPU();
+        }
+        assert ciclosCPUs == ciclosProcessos; // Todo ciclo de cada núcleo contabilizado ao processo que o usou
+        assert processManager.getTodosProcessos().isEmpty();
+        assert memoriaManager.getGerenciador().getFramesLivres() == memoriaManager.getGerenciador().getNumFrames();
+        
+        System.out.println("Processos roubados entre núcleos: " + processManager.getTotalRoubos());
+        
+        // Término pedido por outra thread enquanto o processo roda: o núcleo dono o encerra
+        ProcessManager laco = new ProcessManager(new HW(1024, 2), new MemoryManagerPonte(1024, 8, 2));
+        laco.setQuantum(4);
+        CompletableFuture<ProcessResult> infinito = laco.submeter(
+            new Program("Infinito", new Word[] { new Word(Opcode.JMP, -1, -1, 0) }));
+        Thread encerrador = new Thread(() -> {
+            try {
+                while (laco.getTodosProcessos().isEmpty()) {
+                    Thread.sleep(10); // Submissão ainda não admitida
+                }
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            laco.getTodosProcessos().forEach(pcb -> laco.finalizarProcesso(pcb.getPid()));
+        });
+        encerrador.start();
+        laco.executarCPU();
+        try {
+            encerrador.join();
+            assert infinito.get(5, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.ENCERRADO;
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        assert laco.getTodosProcessos().isEmpty();
+        System.out.println("✓ Teste Múltiplos Núcleos passou\n");
+    }
+    
+    /**
+     * Teste 12: Produtores externos submetem programas enquanto as CPUs executam
+     */
+    public static void testarSubmissaoConcorrente() {
+        System.out.println("=== TESTE 12: Submissão Concorrente ===");
+        
+        HW hardware = new HW(1024, 2);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8, 2);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        
+        // Primeiro processo lê do teclado: mantém o sistema vivo até a entrada chegar
+        PipedWriter teclado = new PipedWriter();
+        try {
+            hardware.io.setEntrada(new BufferedReader(new PipedReader(teclado)));
+        } catch (IOException e) {
+            throw new AssertionError("Falha ao criar entrada: " + e.getMessage());
+        }
+        processManager.submeter(new Program("Eco", criarProgramaEco(1)));
+        Thread cpus = new Thread(processManager::executarCPU, "SO");
+        cpus.start();
+        
+        Thread[] produtores = new Thread[3];
+        for (int i = 0; i < produtores.length; i++) {
+            final int id = i;
+            produtores[i] = new Thread(() -> {
+                processManager.submeter(new Program("Escritor" + id, criarProgramaEscritor(3)));
+                processManager.submeter(
+                    new Program("fibonacciREAD", new programs.Programs().retrieveProgram("fibonacciREAD")), 5 + id);
+            }, "Produtor-" + i);
+            produtores[i].start();
+        }
+        try {
+            for (Thread produtor : produtores) {
+                produtor.join();
+            }
+            teclado.write("42\n");
+            teclado.close();
+            cpus.join(30000);
+        } catch (InterruptedException | IOException e) {
+            throw new AssertionError("Teste interrompido: " + e.getMessage());
+        }
+        
+        assert !cpus.isAlive();
+        assert processManager.getTotalProcessosCriados() == 7;
+        assert processManager.getTotalProcessosFinalizados() == 7;
+        assert processManager.getTodosProcessos().isEmpty();
+        assert memoriaManager.getGerenciador().getFramesLivres() == memoriaManager.getGerenciador().getNumFrames();
+        
+        System.out.println("✓ Teste Submissão Concorrente passou\n");
+    }
+    
+    /**
+     * Teste 13: Futuros completados no término de cada processo submetido
+     */
+    public static void testarResultadoAssincrono() {
+        System.out.println("=== TESTE 13: Resultado Assíncrono ===");
+        
+        HW hardware = new HW(1024, 2);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(1024, 8, 2);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        
+        // Mais jobs que o limite de processos: o restante é admitido quando houver vaga
+        List<CompletableFuture<ProcessResult>> escritores = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            escritores.add(processManager.submeter(new Program("Escritor" + i, criarProgramaEscritor(1 + i % 4))));
+        }
+        CompletableFuture<ProcessResult> eco = processManager.submeter(new Program("Eco", criarProgramaEco(2)), 8, 9);
+        CompletableFuture<ProcessResult> invalido = processManager.submeter(
+            new Program("Invalido", new Word[] { new Word(Opcode.DATA, -1, -1, 0) }));
+        processManager.executarCPU();
+        
+        try {
+            CompletableFuture.allOf(escritores.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+            for (int i = 0; i < escritores.size(); i++) {
+                ProcessResult r = escritores.get(i).get();
+                StringBuilder esperado = new StringBuilder();
+                for (int v = 1; v <= 1 + i % 4; v++) {
+                    esperado.append(v).append('\n');
+                }
+                assert r.getMotivoTermino() == MotivoTermino.NORMAL;
+                assert esperado.toString().equals(r.getSaida());
+                assert r.getCiclosCPU() > 0;
+            }
+            assert "8\n9\n".equals(eco.get(30, TimeUnit.SECONDS).getSaida());
+            assert invalido.get(30, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.INSTRUCAO_INVALIDA;
+            System.out.println(eco.get());
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+        assert processManager.getTotalProcessosCriados() == 18;
+        
+        System.out.println("✓ Teste Resultado Assíncrono passou\n");
+    }
+    
+    /**
+     * Teste 14: Fila de admissão com pressão de memória e política de menor imagem primeiro
+     */
+    public static void testarEscalonadorLongoPrazo() {
+        System.out.println("=== TESTE 14: Escalonador de Longo Prazo ===");
+        
+        // 32 frames de 8 palavras: só cabem 4 imagens de 64 palavras ao mesmo tempo
+        HW hardware = new HW(1024);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(256, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        
+        List<CompletableFuture<ProcessResult>> futuros = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futuros.add(processManager.submeter(new Program("Grande" + i, criarProgramaPreenchido(2, 64))));
+        }
+        CompletableFuture<ProcessResult> enorme = processManager.submeter(
+            new Program("Enorme", criarProgramaPreenchido(1, 512))); // Nunca cabe: falha sem travar a fila
+        processManager.executarCPU();
+        
+        LongTermScheduler longoPrazo = processManager.getEscalonadorLongoPrazo();
+        try {
+            for (CompletableFuture<ProcessResult> futuro : futuros) {
+                ProcessResult r = futuro.get(30, TimeUnit.SECONDS);
+                assert r.getMotivoTermino() == MotivoTermino.NORMAL;
+                assert "1\n2\n".equals(r.getSaida());
+            }
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+        assert enorme.isCompletedExceptionally();
+        assert longoPrazo.getTotalAdmitidos() == 10;
+        assert longoPrazo.getProfundidade() == 0;
+        assert longoPrazo.getProfundidadeMaxima() >= 6; // Pelo menos 6 esperaram por frames
+        System.out.println(longoPrazo.getEstatisticas());
+        
+        // Menor imagem primeiro: admitidos (e numerados) do menor para o maior
+        ProcessManager sif = new ProcessManager(new HW(1024), new MemoryManagerPonte(1024, 8));
+        sif.setPoliticaAdmissao(LongTermScheduler.Politica.MENOR_IMAGEM_PRIMEIRO);
+        CompletableFuture<ProcessResult> grande = sif.submeter(new Program("Grande", criarProgramaPreenchido(1, 96)));
+        CompletableFuture<ProcessResult> pequeno = sif.submeter(new Program("Pequeno", criarProgramaPreenchido(1, 24)));
+        CompletableFuture<ProcessResult> medio = sif.submeter(new Program("Medio", criarProgramaPreenchido(1, 48)));
+        sif.executarCPU();
+        try {
+            assert pequeno.get(30, TimeUnit.SECONDS).getPid() < medio.get().getPid();
+            assert medio.get().getPid() < grande.get(30, TimeUnit.SECONDS).getPid();
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+        
+        System.out.println("✓ Teste Escalonador de Longo Prazo passou\n");
+    }
+    
+    /**
+     * Teste 15: Processo bloqueado vai para o swap para admitir outro programa
+     */
+    public static void testarEscalonadorMedioPrazo() {
+        System.out.println("=== TESTE 15: Escalonador de Médio Prazo ===");
+        
+        // 32 frames: Eco (16) + Job1 (12) ocupam 28, Job2 (12) só entra com o Eco fora da memória
+        HW hardware = new HW(1024);
+        MemoryManagerPonte memoriaManager = new MemoryManagerPonte(256, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoriaManager);
+        PipedWriter teclado = new PipedWriter();
+        try {
+            hardware.io.setEntrada(new BufferedReader(new PipedReader(teclado)));
+        } catch (IOException e) {
+            throw new AssertionError("Falha ao criar entrada: " + e.getMessage());
+        }
+        CompletableFuture<ProcessResult> eco = processManager.submeter(
+            new Program("Eco", preencher(criarProgramaEco(1), 128)));
+        CompletableFuture<ProcessResult> job1 = processManager.submeter(new Program("Job1", criarProgramaPreenchido(2, 96)));
+        CompletableFuture<ProcessResult> job2 = processManager.submeter(new Program("Job2", criarProgramaPreenchido(3, 96)));
+        Thread so = new Thread(processManager::executarCPU, "SO");
+        so.start();
+        
+        MediumTermScheduler medioPrazo = processManager.getEscalonadorMedioPrazo();
+        try {
+            // Os jobs terminam enquanto o Eco espera o teclado, fora da memória
+            assert "1\n2\n".equals(job1.get(30, TimeUnit.SECONDS).getSaida());
+            assert "1\n2\n3\n".equals(job2.get(30, TimeUnit.SECONDS).getSaida());
+            assert medioPrazo.getTotalSwapOuts() == 1;
+            assert medioPrazo.getTotalSwapIns() == 0;
+            
+            // A leitura concluída vai para a imagem em swap; o Eco volta e escreve o valor
+            teclado.write("42\n");
+            teclado.close();
+            ProcessResult r = eco.get(30, TimeUnit.SECONDS);
+            assert r.getMotivoTermino() == MotivoTermino.NORMAL;
+            assert "42\n".equals(r.getSaida());
+            so.join(30000);
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+        assert !so.isAlive();
+        assert medioPrazo.getTotalSwapIns() == 1;
+        assert memoriaManager.getGerenciador().getFramesLivres() == memoriaManager.getGerenciador().getNumFrames();
+        System.out.println(medioPrazo.getEstatisticas());
+        Path areaSwap = medioPrazo.getArquivo();
+        assert Files.exists(areaSwap);
+        processManager.desligar();
+        assert !Files.exists(areaSwap); // Arquivo temporário da instância apagado ao desligar
+        
+        // Cada escalonador tem a sua área: um não sobrescreve nem apaga as imagens do outro
+        Word[] memoria = new Word[16];
+        for (int i = 0; i < memoria.length; i++) {
+            memoria[i] = new Word(Opcode.DATA, -1, -1, i);
+        }
+        ProcessControlBlock imagem = new ProcessControlBlock(1, "Imagem", new Word[] { new Word(Opcode.STOP, -1, -1, -1) });
+        imagem.setTabelaPaginas(new int[] { 0 });
+        MediumTermScheduler a = new MediumTermScheduler(memoria, 8);
+        MediumTermScheduler b = new MediumTermScheduler(memoria, 8);
+        try {
+            a.swapOut(imagem);
+            b.swapOut(imagem);
+            assert !a.getArquivo().equals(b.getArquivo());
+            a.fechar();
+            b.swapIn(imagem, new int[] { 1 });
+            assert memoria[8].p == 0 && memoria[15].p == 7;
+            b.fechar();
+        } catch (IOException e) {
+            throw new AssertionError("Falha na área de swap: " + e.getMessage());
+        }
+        
+        System.out.println("✓ Teste Escalonador de Médio Prazo passou\n");
+    }
+    
+    /**
+     * Teste 16: Laço do SO parado enquanto ocioso e sem limite de ciclos
+     */
+    public static void testarOciosidadeSemGiro() {
+        System.out.println("=== TESTE 16: Ociosidade sem Giro ===");
+        
+        HW hardware = new HW(1024);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        ProcessControlBlock pcb = processManager.criarProcesso("Escritor", criarProgramaEscritor(2));
+        processManager.iniciarSistema();
+        
+        // Processo criado e não admitido: o laço passo a passo fica em HLT, acordado só pelo timer
+        AtomicLong ciclosSO = new AtomicLong();
+        Thread so = new Thread(() -> {
+            while (processManager.executarCicloSO()) {
+                ciclosSO.incrementAndGet();
+            }
+        }, "SO");
+        so.start();
+        try {
+            Thread.sleep(200);
+            long ociosos = ciclosSO.get();
+            assert ociosos <= 40 : "Laço ocioso girou " + ociosos + " vezes"; // Timer de 10 ms: ~20 em 200 ms
+            processManager.admitirProcesso(pcb.getPid()); // Admissão acorda a CPU
+            so.join(5000);
+        } catch (InterruptedException e) {
+            throw new AssertionError("Teste interrompido: " + e.getMessage());
+        }
+        assert !so.isAlive();
+        assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+        
+        // Mais de 1000 ciclos: executarProcessosConcorrentes vai até o fim do processo
+        ProcessManager longo = new ProcessManager(new HW(1024), new MemoryManagerPonte(1024, 8));
+        longo.setQuantum(100);
+        longo.executarProcessosConcorrentes(List.of(new Program("Contador", new Word[] {
+            new Word(Opcode.LDI, 0, -1, 600),    // R0 = 600
+            new Word(Opcode.SUBI, 0, -1, 1),     // loop: R0--
+            new Word(Opcode.JMPIGK, -1, 0, 1),   // R0 > 0: volta ao loop
+            new Word(Opcode.STOP, -1, -1, -1)
+        })));
+        assert longo.getTotalProcessosFinalizados() == 1;
+        assert longo.getTodosProcessos().isEmpty();
+        
+        System.out.println("✓ Teste Ociosidade sem Giro passou\n");
+    }
+    
+    /**
+     * Teste 17: Relógio simulado salta o tempo em que todos esperam E/S com latência
+     */
+    public static void testarRelogioSimulado() {
+        System.out.println("=== TESTE 17: Relógio Simulado ===");
+        
+        HW hardware = new HW(1024, 2);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        hardware.io.setEntrada(new BufferedReader(new StringReader("1\n2\n3\n4\n5\n6\n")));
+        hardware.io.setLatencia(1_000_000); // Cada leitura leva um milhão de ciclos simulados
+        ProcessControlBlock a = processManager.criarProcesso("EcoA", criarProgramaEco(3));
+        ProcessControlBlock b = processManager.criarProcesso("EcoB", criarProgramaEco(3));
+        processManager.admitirProcesso(a.getPid());
+        processManager.admitirProcesso(b.getPid());
+        
+        long inicio = System.nanoTime();
+        processManager.executarCPU();
+        long duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        
+        RelogioSimulado relogio = hardware.relogio;
+        assert a.getMotivoTermino() == MotivoTermino.NORMAL && b.getMotivoTermino() == MotivoTermino.NORMAL;
+        assert relogio.agora() >= 3_000_000; // Três leituras em sequência por processo
+        assert relogio.getSaltos() >= 3;
+        assert a.getTempoCPU() + b.getTempoCPU() < 1000; // Quase todo o tempo simulado foi saltado
+        assert duracaoMs < 10_000;
+        System.out.println(relogio.getEstatisticas() + " em " + duracaoMs + " ms");
+        
+        // Eventos disparam em ordem de instante quando o tempo avança
+        RelogioSimulado isolado = new RelogioSimulado();
+        List<Integer> ordem = new ArrayList<>();
+        isolado.agendar(30, () -> ordem.add(3));
+        isolado.agendar(10, () -> ordem.add(1));
+        RelogioSimulado.Evento cancelado = isolado.agendar(20, () -> ordem.add(2));
+        isolado.cancelar(cancelado);
+        isolado.avancarPara(15);
+        assert ordem.equals(List.of(1));
+        assert isolado.saltarParaProximoEvento() && isolado.agora() == 30;
+        assert ordem.equals(List.of(1, 3));
+        assert !isolado.saltarParaProximoEvento();
+        
+        // Cancelado no topo da fila não é alvo de salto nem conta como agendado
+        RelogioSimulado.Evento topo = isolado.agendar(40, () -> ordem.add(4));
+        isolado.agendar(50, () -> ordem.add(5));
+        isolado.cancelar(topo);
+        isolado.cancelar(topo);
+        assert isolado.proximoInstante() == 50;
+        assert isolado.saltarParaProximoEvento() && isolado.agora() == 50;
+        assert ordem.equals(List.of(1, 3, 5));
+        assert !isolado.temEventos();
+        
+        System.out.println("✓ Teste Relógio Simulado passou\n");
+    }
+    
+    /**
+     * Teste 18: Roda de temporizadores, syscall de sleep e leitura com prazo
+     */
+    public static void testarTemporizadores() {
+        System.out.println("=== TESTE 18: Temporizadores ===");
+        
+        // Prazos em todos os níveis da roda (e além do alcance) disparam no instante exato e em ordem
+        RelogioSimulado relogio = new RelogioSimulado();
+        TimingWheel roda = new TimingWheel(relogio);
+        List<Long> disparos = new ArrayList<>();
+        long[] prazos = {1, 63, 64, 65, 4095, 4096, 300_000, 16_777_215, 16_777_216, 50_000_000};
+        for (long prazo : prazos) {
+            roda.agendar(prazo, () -> {
+                assert relogio.agora() == prazo;
+                disparos.add(prazo);
+            });
+        }
+        TimingWheel.Temporizador cancelado = roda.agendar(5000, () -> disparos.add(-1L));
+        assert roda.cancelar(cancelado) && !roda.cancelar(cancelado);
+        while (relogio.saltarParaProximoEvento()) {
+        }
+        List<Long> esperados = new ArrayList<>();
+        for (long prazo : prazos) {
+            esperados.add(prazo);
+        }
+        assert disparos.equals(esperados);
+        assert roda.getAtivos() == 0;
+        
+        // Sleep: 5000 ciclos dormindo são saltados, não executados
+        HW hardware = new HW(1024);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        ProcessControlBlock dorminhoco = processManager.criarProcesso("Dorme", new Word[] {
+            new Word(Opcode.LDI, 8, -1, SysCallHandling.DORMIR),
+            new Word(Opcode.LDI, 9, -1, 5000),
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.STOP, -1, -1, -1)
+        });
+        processManager.admitirProcesso(dorminhoco.getPid());
+        processManager.executarCPU();
+        assert dorminhoco.getMotivoTermino() == MotivoTermino.NORMAL;
+        assert hardware.relogio.agora() >= 5000;
+        assert dorminhoco.getTempoCPU() < 100;
+        
+        // Leitura com prazo: o dispositivo leva 1000 ciclos
+        assert "-1\n0\n".equals(executarLeituraComPrazo(100));  // Prazo esgota: reg[8] = -1, buffer intacto
+        assert "0\n7\n".equals(executarLeituraComPrazo(5000));  // Concluída a tempo: reg[8] = 0
+        
+        System.out.println("✓ Teste Temporizadores passou\n");
+    }
+    
+    /**
+     * Teste 19: Quantum adaptativo a partir do custo de troca e das rajadas de CPU
+     */
+    public static void testarQuantumAdaptativo() {
+        System.out.println("=== TESTE 19: Quantum Adaptativo ===");
+        
+        // Troca de 1000 ns com ciclo de 10 ns = 100 ciclos: overhead de 10% pede quantum 900,
+        // mas 4 processos prontos com resposta máxima de 2000 ciclos limitam a 500
+        RoundRobinScheduler escalonador = escalonadorComMedicoes(0.1, 2000, 0);
+        escalonador.selecionarProximoProcesso();
+        assert escalonador.getQuantum() == 500;
+        assert escalonador.getTotalAjustes() == 1;
+        assert escalonador.getEstatisticas().contains("10 -> 500 ciclos (limite de resposta");
+        
+        // Sem limite apertado o overhead manda
+        escalonador = escalonadorComMedicoes(0.1, 100_000, 0);
+        escalonador.selecionarProximoProcesso();
+        assert escalonador.getQuantum() == 900;
+        
+        // Rajadas maiores que o mínimo do overhead: o quantum cobre a rajada
+        escalonador = escalonadorComMedicoes(0.1, 100_000, 3000);
+        escalonador.selecionarProximoProcesso();
+        assert escalonador.getQuantum() == 3000;
+        
+        // Variação pequena não gera novo ajuste
+        escalonador.registrarCustoTroca(1050);
+        escalonador.forcarContextSwitch();
+        assert escalonador.getTotalAjustes() == 1;
+        assert escalonador.getAjustesParaCima() == 1 && escalonador.getAjustesParaBaixo() == 0;
+        assert escalonador.getMenorQuantumAjustado() == 3000 && escalonador.getMaiorQuantumAjustado() == 3000;
+        
+        // Histórico detalhado truncado: os agregados continuam cobrindo todos os ajustes
+        escalonador.setHistoricoAjustes(0);
+        assert escalonador.getEstatisticas().contains("(últimos 0 de 1)");
+        assert escalonador.getEstatisticas().contains("quantum ajustado min 3000, max 3000");
+        
+        // Sistema completo: quantum recalculado com medições reais, sempre dentro do limite de resposta
+        HW hardware = new HW(1024);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        processManager.setQuantumAdaptativo(0.05, 300);
+        List<ProcessControlBlock> pcbs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ProcessControlBlock pcb = processManager.criarProcesso("Escritor" + i, criarProgramaEscritor(20));
+            hardware.console.capturarEmMemoria(pcb.getPid());
+            processManager.admitirProcesso(pcb.getPid());
+            pcbs.add(pcb);
+        }
+        processManager.executarCPU();
+        for (ProcessControlBlock pcb : pcbs) {
+            assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+        }
+        RoundRobinScheduler real = processManager.getEscalonador();
+        assert real.getQuantum() >= 2 && real.getQuantum() <= 300;
+        assert real.getEstatisticas().contains("Quantum adaptativo");
+        System.out.println(real.getEstatisticas());
+        
+        System.out.println("✓ Teste Quantum Adaptativo passou\n");
+    }
+    
+    /**
+     * Teste 20: Classe de tempo real EDF com controle de admissão e prazos perdidos
+     */
+    public static void testarTempoReal() {
+        System.out.println("=== TESTE 20: Tempo Real (EDF) ===");
+        
+        HW hardware = new HW(1024);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        List<ProcessControlBlock> lote = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ProcessControlBlock pcb = processManager.criarProcesso("Lote" + i, criarProgramaEscritor(30));
+            hardware.console.capturarEmMemoria(pcb.getPid());
+            processManager.admitirProcesso(pcb.getPid());
+            lote.add(pcb);
+        }
+        // Utilização 0.6 + 0.25 cabe no núcleo; mais 0.5 passaria de 1.0 e é recusado
+        ProcessControlBlock urgente = processManager.criarProcessoTempoReal("Urgente", criarProgramaEscritor(5), 100, 60);
+        ProcessControlBlock folgado = processManager.criarProcessoTempoReal("Folgado", criarProgramaEscritor(5), 200, 50);
+        assert urgente != null && folgado != null;
+        assert processManager.criarProcessoTempoReal("Excedente", criarProgramaEscritor(5), 100, 50) == null;
+        assert processManager.getRecusasTempoReal() == 1;
+        for (ProcessControlBlock pcb : List.of(folgado, urgente)) {
+            hardware.console.capturarEmMemoria(pcb.getPid());
+            processManager.admitirProcesso(pcb.getPid());
+        }
+        processManager.executarCPU();
+        
+        // Prazo mais cedo primeiro, ambos antes do lote (que sozinho tomaria mais de 100 ciclos)
+        assert processManager.getPrazosCumpridos() == 2 && processManager.getPrazosPerdidos() == 0;
+        assert urgente.getTempoEspera() == 0;
+        assert folgado.getTempoEspera() >= urgente.getTempoCPU();
+        for (ProcessControlBlock pcb : lote) {
+            assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+            assert pcb.getTempoEspera() >= urgente.getTempoCPU() + folgado.getTempoCPU();
+        }
+        assert processManager.getEscalonador().getDespachosTempoReal() >= 2;
+        
+        // Orçamento estourado: rebaixado para melhor esforço e prazo perdido contado
+        hardware = new HW(1024);
+        processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        ProcessControlBlock guloso = processManager.criarProcessoTempoReal("Guloso", criarProgramaEscritor(5), 20, 10);
+        hardware.console.capturarEmMemoria(guloso.getPid());
+        processManager.admitirProcesso(guloso.getPid());
+        processManager.executarCPU();
+        assert guloso.getMotivoTermino() == MotivoTermino.NORMAL && !guloso.isTempoReal();
+        assert processManager.getEscalonador().getOrcamentosEstourados() == 1;
+        assert processManager.getPrazosPerdidos() == 1 && processManager.getPrazosCumpridos() == 0;
+        processManager.exibirEstatisticas();
+        
+        System.out.println("✓ Teste Tempo Real passou\n");
+    }
+    
+    /**
+     * Teste 21: Máscaras de afinidade, afinidade suave e contagem de migrações
+     */
+    public static void testarAfinidade() {
+        System.out.println("=== TESTE 21: Afinidade de CPU ===");
+        
+        HW hardware = new HW(1024, 4);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8, 4));
+        processManager.setQuantum(4);
+        List<ProcessControlBlock> fixos = new ArrayList<>();
+        List<ProcessControlBlock> livres = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            ProcessControlBlock pcb = processManager.criarProcesso("Escritor" + i, criarProgramaEscritor(10));
+            if (i < 2) {
+                processManager.definirAfinidade(pcb.getPid(), 0b0010); // Só a CPU 1
+                fixos.add(pcb);
+            } else {
+                livres.add(pcb);
+            }
+            hardware.console.capturarEmMemoria(pcb.getPid());
+        }
+        try {
+            processManager.definirAfinidade(livres.get(0).getPid(), 0b10000); // Núcleo 4 não existe
+            assert false : "máscara sem núcleos existentes deveria ser recusada";
+        } catch (IllegalArgumentException e) {
+            // esperado
+        }
+        for (ProcessControlBlock pcb : fixos) {
+            processManager.admitirProcesso(pcb.getPid());
+        }
+        for (ProcessControlBlock pcb : livres) {
+            processManager.admitirProcesso(pcb.getPid());
+        }
+        processManager.executarCPU();
+        
+        long migracoes = 0;
+        for (ProcessControlBlock pcb : fixos) {
+            assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+            assert pcb.getUltimoNucleo() == 1 && pcb.getMigracoes() == 0; // Nunca roubado por outro núcleo
+        }
+        for (ProcessControlBlock pcb : livres) {
+            assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+            assert "1\n2\n3\n4\n5\n6\n7\n8\n9\n10\n".equals(hardware.console.getSaidaCapturada(pcb.getPid()));
+            migracoes += pcb.getMigracoes();
+        }
+        assert processManager.getTotalMigracoes() == migracoes;
+        assert processManager.getDespachosMesmoNucleo() > 0;
+        System.out.println("Migrações: " + migracoes + ", despachos no mesmo núcleo: "
+            + processManager.getDespachosMesmoNucleo() + ", roubos: " + processManager.getTotalRoubos());
+        
+        // Passo a passo só o núcleo 0 executa: processo preso à CPU 1 roda mesmo assim
+        HW doisNucleos = new HW(1024, 2);
+        ProcessManager passoAPasso = new ProcessManager(doisNucleos, new MemoryManagerPonte(1024, 8, 2));
+        passoAPasso.setQuantum(4);
+        ProcessControlBlock preso = passoAPasso.criarProcesso("Preso", criarProgramaEscritor(3));
+        passoAPasso.definirAfinidade(preso.getPid(), 0b10);
+        doisNucleos.console.capturarEmMemoria(preso.getPid());
+        passoAPasso.admitirProcesso(preso.getPid());
+        passoAPasso.iniciarSistema();
+        int ciclos = 0;
+        while (passoAPasso.executarCicloSO() && ciclos++ < 10_000) {
+            // executa até terminar
+        }
+        assert preso.getMotivoTermino() == MotivoTermino.NORMAL;
+        assert "1\n2\n3\n".equals(doisNucleos.console.getSaidaCapturada(preso.getPid()));
+        
+        // Máscara de 64 bits: núcleo 64 não voltaria ao bit 0
+        try {
+            preso.podeExecutarEm(64);
+            assert false : "núcleo além da máscara deveria ser recusado";
+        } catch (IllegalArgumentException e) {
+            // esperado
+        }
+        
+        System.out.println("✓ Teste Afinidade de CPU passou\n");
+    }
+    
+    /**
+     * Teste 22: Limites de recursos por processo num lote compartilhado
+     */
+    public static void testarLimitesRecursos() {
+        System.out.println("=== TESTE 22: Limites de Recursos ===");
+        
+        HW hardware = new HW(1024, 2);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8, 2));
+        processManager.setLimitesPadrao(new LimitesRecursos(500, 0, 0, 0));
+        Word[] laco = { new Word(Opcode.JMP, -1, -1, 0) }; // Laço infinito
+        
+        CompletableFuture<ProcessResult> desgovernado = processManager.submeter(new Program("Desgovernado", laco));
+        CompletableFuture<ProcessResult> comportado = processManager.submeter(new Program("Comportado", criarProgramaEscritor(5)));
+        CompletableFuture<ProcessResult> falador = processManager.submeter(
+            new Program("Falador", criarProgramaEscritor(20)), new LimitesRecursos(0, 0, 5, 0));
+        CompletableFuture<ProcessResult> espacoso = processManager.submeter(new Program("Espacoso", new Word[] {
+            new Word(Opcode.LDI, 0, -1, 1),
+            new Word(Opcode.STD, 0, -1, 100),    // Página 12: falta de página além do limite de frames
+            new Word(Opcode.STOP, -1, -1, -1)
+        }), new LimitesRecursos(0, 1, 0, 0));
+        CompletableFuture<ProcessResult> demorado = processManager.submeter(
+            new Program("Demorado", laco), new LimitesRecursos(0, 0, 0, 50));
+        processManager.executarCPU();
+        
+        try {
+            ProcessResult r = desgovernado.get(30, TimeUnit.SECONDS);
+            assert r.getMotivoTermino() == MotivoTermino.LIMITE_CPU && r.getMotivoTermino().isErro();
+            assert r.getCiclosCPU() > 500 && r.getCiclosCPU() <= 500 + 10; // Parado na fronteira do quantum
+            assert comportado.get(30, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.NORMAL;
+            r = falador.get(30, TimeUnit.SECONDS);
+            assert r.getMotivoTermino() == MotivoTermino.LIMITE_SAIDA;
+            assert "1\n2\n3\n4\n5\n".equals(r.getSaida());
+            assert espacoso.get(30, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.LIMITE_MEMORIA;
+            assert demorado.get(30, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.LIMITE_TEMPO;
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+        assert processManager.getLimitesExcedidos() == 4;
+        
+        // Limite de tempo de parede em processos que só bloqueiam: um dorme em laço (nunca esgota
+        // o quantum) e outro espera o teclado para sempre - encerrado ainda bloqueado
+        HW hwES = new HW(1024);
+        ProcessManager limitadoES = new ProcessManager(hwES, new MemoryManagerPonte(1024, 8));
+        PipedWriter teclado = new PipedWriter();
+        try {
+            hwES.io.setEntrada(new BufferedReader(new PipedReader(teclado)));
+        } catch (IOException e) {
+            throw new AssertionError("Falha ao criar entrada: " + e.getMessage());
+        }
+        CompletableFuture<ProcessResult> dorminhoco = limitadoES.submeter(new Program("Dorminhoco", new Word[] {
+            new Word(Opcode.LDI, 8, -1, SysCallHandling.DORMIR),
+            new Word(Opcode.LDI, 9, -1, 100),
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.JMP, -1, -1, 0)
+        }), new LimitesRecursos(0, 0, 0, 50));
+        CompletableFuture<ProcessResult> leitor = limitadoES.submeter(new Program("Leitor", new Word[] {
+            new Word(Opcode.LDI, 8, -1, PedidoIO.LEITURA),
+            new Word(Opcode.LDI, 9, -1, 5),
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.JMP, -1, -1, 0)
+        }), new LimitesRecursos(0, 0, 0, 50));
+        Thread so = new Thread(limitadoES::executarCPU, "SO");
+        so.start();
+        try {
+            assert dorminhoco.get(10, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.LIMITE_TEMPO;
+            assert leitor.get(10, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.LIMITE_TEMPO;
+            teclado.close(); // Leitura pendente do processo encerrado termina e o SO para
+            so.join(10_000);
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+        assert !so.isAlive();
+        assert limitadoES.getLimitesExcedidos() == 2;
+        hwES.desligar();
+        
+        System.out.println("✓ Teste Limites de Recursos passou\n");
+    }
+    
+    /**
+     * Teste 23: Lote de máquinas isoladas em paralelo, com um job desgovernado
+     */
+    public static void testarExecucaoLote() {
+        System.out.println("=== TESTE 23: Execução em Lote ===");
+        
+        ExecutorLote executor = new ExecutorLote(2);
+        executor.setLimites(new LimitesRecursos(500, 0, 0, 0));
+        List<ExecutorLote.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            jobs.add(new ExecutorLote.Job(new Program("Escritor" + i, criarProgramaEscritor(1 + i % 5))));
+        }
+        jobs.add(new ExecutorLote.Job(new Program("Desgovernado", new Word[] { new Word(Opcode.JMP, -1, -1, 0) })));
+        PrintStream saida = System.out;
+        LogKernel.Nivel nivelProc = LogKernel.getNivel(LogKernel.Categoria.PROC);
+        ExecutorLote.Relatorio relatorio = executor.executar(jobs);
+        
+        assert System.out == saida && LogKernel.getNivel(LogKernel.Categoria.PROC) == nivelProc; // Nada global muda
+        assert LogKernel.ativo(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO);
+        assert relatorio.getJobs() == 41;
+        assert relatorio.getJobs(MotivoTermino.NORMAL) == 40;
+        assert relatorio.getJobs(MotivoTermino.LIMITE_CPU) == 1;
+        assert "1\n2\n3\n4\n5\n".equals(relatorio.getResultados().get(4).getSaida()); // Saída isolada por job
+        assert "1\n".equals(relatorio.getResultados().get(5).getSaida());
+        assert relatorio.getInstrucoes() > 500;
+        assert relatorio.getJobsPorSegundo() > 0 && relatorio.getMips() > 0;
+        System.out.print(relatorio);
+        
+        System.out.println("✓ Teste Execução em Lote passou\n");
+    }
+    
+    /**
+     * Teste 24: Uma thread por processo, com dois núcleos e memória disputada
+     */
+    public static void testarThreadPorProcesso() {
+        System.out.println("=== TESTE 24: Thread por Processo ===");
+        
+        HW hardware = new HW(1024, 1, false);
+        ExecutorThreadPorProcesso executor = new ExecutorThreadPorProcesso(hardware, new MemoryManagerPonte(256, 8), 2);
+        executor.setQuantum(5);
+        StringBuilder linhas = new StringBuilder();
+        for (int i = 1; i <= 30; i++) {
+            linhas.append(i).append('\n');
+        }
+        CountDownLatch entradaLiberada = new CountDownLatch(1);
+        StringReader origem = new StringReader(linhas.toString());
+        hardware.io.setEntrada(new BufferedReader(new Reader() { // Leitores esperam até a entrada ser liberada
+            @Override
+            public int read(char[] buffer, int inicio, int tamanho) throws IOException {
+                try {
+                    entradaLiberada.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return origem.read(buffer, inicio, tamanho);
+            }
+            
+            @Override
+            public void close() {
+            }
+        }));
+        List<CompletableFuture<ProcessResult>> doDispositivo = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            doDispositivo.add(executor.submeter(new Program("EcoES" + i, criarProgramaEco(3))));
+        }
+        while (executor.getBloqueiosIO() < 10) {
+            Thread.onSpinWait(); // Leitores estacionados no dispositivo seguram 30 dos 32 frames
+        }
+        List<CompletableFuture<ProcessResult>> programados = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            programados.add(executor.submeter(new Program("Eco" + i, criarProgramaEco(3)), i, i + 1, i + 2));
+        }
+        CompletableFuture<ProcessResult> invalido = executor.submeter(new Program("Invalido", new Word[] {
+            new Word(Opcode.DATA, -1, -1, 0)
+        }));
+        entradaLiberada.countDown();
+        try {
+            executor.aguardarTermino();
+            for (int i = 0; i < programados.size(); i++) {
+                ProcessResult r = programados.get(i).get(30, TimeUnit.SECONDS);
+                assert r.getMotivoTermino() == MotivoTermino.NORMAL;
+                assert (i + "\n" + (i + 1) + "\n" + (i + 2) + "\n").equals(r.getSaida());
+            }
+            long soma = 0;
+            for (CompletableFuture<ProcessResult> f : doDispositivo) {
+                ProcessResult r = f.get(30, TimeUnit.SECONDS);
+                assert r.getMotivoTermino() == MotivoTermino.NORMAL;
+                for (String valor : r.getSaida().split("\n")) {
+                    soma += Integer.parseInt(valor);
+                }
+            }
+            assert soma == 30 * 31 / 2; // Cada linha da entrada lida por exatamente um processo
+            assert invalido.get(30, TimeUnit.SECONDS).getMotivoTermino() == MotivoTermino.INSTRUCAO_INVALIDA;
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+        assert executor.getProcessosExecutados() == 211;
+        assert executor.getBloqueiosIO() >= 30;
+        assert executor.getEsperasMemoria() > 0;
+        assert executor.getMaxThreadsVivas() > 2;
+        System.out.println(executor.getEstatisticas());
+        hardware.desligar();
+        
+        System.out.println("✓ Teste Thread por Processo passou\n");
+    }
+    
+    /**
+     * Teste 25: Reinício rápido da máquina entre jobs
+     */
+    public static void testarReinicioRapido() {
+        System.out.println("=== TESTE 25: Reinício Rápido ===");
+        
+        HW hardware = new HW(1024, 1, false);
+        MemoryManagerPonte memoria = new MemoryManagerPonte(1024, 8);
+        ProcessManager processManager = new ProcessManager(hardware, memoria);
+        Program escritor = new Program("Escritor", criarProgramaEscritor(4));
+        
+        ProcessResult primeiro = executarJob(processManager, escritor);
+        long ciclos = hardware.cpu.getCiclos();
+        int sujos = hardware.mem.getBlocosSujos();
+        assert sujos > 0 && sujos < 1024 / Memory.BLOCO; // Só o que o job tocou
+        
+        int limpos = processManager.reiniciar();
+        assert limpos == sujos && hardware.mem.getBlocosSujos() == 0;
+        for (Word w : hardware.mem.pos) {
+            assert w.opc == Opcode.___ && w.p == -1;
+        }
+        assert hardware.cpu.getCiclos() == 0 && hardware.cpu.getPc() == 0 && hardware.relogio.agora() == 0;
+        assert memoria.getGerenciador().getFramesLivres() == memoria.getGerenciador().getNumFrames();
+        assert processManager.getTotalProcessosCriados() == 0 && processManager.getTodosProcessos().isEmpty();
+        
+        ProcessResult segundo = executarJob(processManager, escritor); // Mesmo job, mesmo resultado
+        assert segundo.getPid() == primeiro.getPid();
+        assert "1\n2\n3\n4\n".equals(segundo.getSaida()) && segundo.getSaida().equals(primeiro.getSaida());
+        assert hardware.cpu.getCiclos() == ciclos;
+        
+        CompletableFuture<ProcessResult> pendente = processManager.submeter(escritor);
+        processManager.reiniciar(); // Submissão ainda não admitida é cancelada
+        assert pendente.isCancelled();
+        hardware.desligar();
+        
+        System.out.println("✓ Teste Reinício Rápido passou\n");
+    }
+    
+    /**
+     * Teste 26: Log do núcleo em anel, por categoria e nível
+     */
+    public static void testarLogKernel() {
+        System.out.println("=== TESTE 26: Log do Núcleo ===");
+        
+        ByteArrayOutputStream capturado = new ByteArrayOutputStream();
+        LogKernel.setSaida(new PrintStream(capturado, true, StandardCharsets.UTF_8));
+        try {
+            // Só memória e rastro da CPU; escalonador e processos desligados
+            LogKernel.configurar("*=DESLIGADO,mem=INFO,cpu=DEBUG");
+            HW hardware = new HW(1024);
+            hardware.cpu.setRastreador(new RastreadorLog());
+            ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+            executarJob(processManager, new Program("Escritor", criarProgramaEscritor(2)));
+            String log = capturado.toString(StandardCharsets.UTF_8);
+            assert log.contains("Alocação bem-sucedida para") && log.contains("frames: [");
+            assert log.contains("regs: [") && log.contains("exec: [ STOP, -1, -1, -1  ]");
+            assert !log.contains("Context switch") && !log.contains("Processo criado");
+            
+            // Tudo desligado: nada chega ao anel
+            LogKernel.setNivel(LogKernel.Nivel.DESLIGADO);
+            long escritos = LogKernel.getEscritos();
+            processManager.reiniciar();
+            executarJob(processManager, new Program("Escritor", criarProgramaEscritor(2)));
+            LogKernel.flush();
+            assert LogKernel.getEscritos() == escritos;
+            hardware.desligar();
+            
+            // Vários emissores: nada se perde e a ordem de cada thread é mantida
+            LogKernel.setNivel(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO);
+            capturado.reset();
+            Thread[] emissores = new Thread[4];
+            for (int t = 0; t < emissores.length; t++) {
+                int id = t;
+                emissores[t] = new Thread(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        LogKernel.registrar(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO, "t%d %d", id, i);
+                    }
+                });
+                emissores[t].start();
+            }
+            for (Thread t : emissores) {
+                t.join();
+            }
+            LogKernel.flush();
+            int[] proximo = new int[emissores.length];
+            String[] linhas = capturado.toString().split("\\R");
+            assert linhas.length == 4000;
+            for (String linha : linhas) {
+                String[] partes = linha.split(" ");
+                int id = Integer.parseInt(partes[0].substring(1));
+                assert Integer.parseInt(partes[1]) == proximo[id]++;
+            }
+            
+            // Silêncio por thread, acumulado e herdado pelas threads criadas; as demais seguem registrando
+            LogKernel.silenciar();
+            LogKernel.silenciar();
+            assert !LogKernel.ativo(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO);
+            boolean[] filhaMuda = new boolean[1];
+            Thread filha = new Thread(() ->
+                filhaMuda[0] = !LogKernel.ativo(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO));
+            filha.start();
+            LogKernel.retomar();
+            assert !LogKernel.ativo(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO);
+            LogKernel.retomar();
+            assert LogKernel.ativo(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO);
+            boolean[] vizinhaAtiva = new boolean[1];
+            Thread vizinha = new Thread(() ->
+                vizinhaAtiva[0] = LogKernel.ativo(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO));
+            vizinha.start();
+            filha.join();
+            vizinha.join();
+            assert filhaMuda[0] && vizinhaAtiva[0];
+            try {
+                LogKernel.retomar();
+                assert false : "retomar sem silenciar deveria falhar";
+            } catch (IllegalStateException e) {
+                // esperado
+            }
+            
+            // Destino travado: o anel enche e os excedentes são descartados sem bloquear
+            CountDownLatch escrevendo = new CountDownLatch(1);
+            CountDownLatch liberar = new CountDownLatch(1);
+            LogKernel.setSaida(new PrintStream(OutputStream.nullOutputStream()) {
+                @Override
+                public void println(String linha) {
+                    escrevendo.countDown();
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            long descartados = LogKernel.getDescartados();
+            LogKernel.registrar(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO, "primeira");
+            assert escrevendo.await(10, TimeUnit.SECONDS); // Thread de escrita presa no destino
+            for (int i = 0; i < 10_000; i++) {
+                LogKernel.registrar(LogKernel.Categoria.PROC, LogKernel.Nivel.INFO, "linha %d", i);
+            }
+            assert LogKernel.getDescartados() - descartados >= 10_000 - 4096;
+            liberar.countDown();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        } finally {
+            LogKernel.setSaida(null);
+            LogKernel.restaurarNiveis();
+        }
+        
+        System.out.println("✓ Teste Log do Núcleo passou\n");
+    }
+    
+    /**
+     * Teste 27: Rastreador de execução plugável na CPU
+     */
+    public static void testarRastreador() {
+        System.out.println("=== TESTE 27: Rastreador de Execução ===");
+        
+        HW hardware = new HW(1024);
+        assert hardware.cpu.getRastreador() == null; // Padrão: sem rastreio
+        HW comDebug = new HW(1024, 1, true);
+        assert comDebug.cpu.getRastreador() instanceof RastreadorLog;
+        comDebug.desligar();
+        
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        RastreadorBinario rastro = new RastreadorBinario(4096);
+        hardware.cpu.setRastreador(rastro);
+        Program escritor = new Program("Escritor", criarProgramaEscritor(2));
+        assert "1\n2\n".equals(executarJob(processManager, escritor).getSaida());
+        
+        List<String> linhas = rastro.decodificar();
+        long instrucoes = linhas.stream().filter(l -> l.startsWith("pc ")).count();
+        assert instrucoes == hardware.cpu.getCiclos(); // Uma por ciclo, inclusive o STD refeito após a falta de página
+        assert linhas.subList(0, 6).equals(List.of("pc 0: LDI 0 -1 1", "r0 = 1", "pc 1: LDI 8 -1 2", "r8 = 2",
+            "pc 2: LDI 9 -1 20", "r9 = 20")); // Diferenças de registros antes da instrução seguinte
+        assert linhas.contains("r0 = 3") && linhas.contains("pc 9: STOP -1 -1 -1");
+        List<String> escritas = new ArrayList<>();
+        for (String l : linhas) {
+            if (l.startsWith("[")) {
+                escritas.add(l.substring(l.indexOf('=') + 2));
+            }
+        }
+        assert escritas.equals(List.of("1", "2"));
+        assert rastro.getPerdidos() == 0 && rastro.getBytes().length == rastro.getTamanho();
+        
+        // Só instruções, em buffer pequeno: excedentes contados, sem exceção
+        processManager.reiniciar();
+        RastreadorBinario pequeno = new RastreadorBinario(5 * 12, true, false, false);
+        hardware.cpu.setRastreador(pequeno);
+        executarJob(processManager, escritor);
+        assert pequeno.decodificar().size() == 5 && pequeno.getPerdidos() == instrucoes - 5;
+        
+        hardware.cpu.setRastreador(null);
+        hardware.desligar();
+        System.out.println("✓ Teste Rastreador de Execução passou\n");
+    }
+    
+    /**
+     * Teste 28: Perfil dos programas convidados por pc, opcode, desvio e página
+     */
+    public static void testarPerfilador() {
+        System.out.println("=== TESTE 28: Perfilador ===");
+        
+        HW hardware = new HW(1024);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        Perfilador perfil = new Perfilador(8);
+        hardware.cpu.setRastreador(perfil);
+        processManager.setQuantum(3); // Trocas frequentes: contagens separadas por programa mesmo intercaladas
+        CompletableFuture<ProcessResult> escritor = processManager.submeter(
+            new Program("Escritor", criarProgramaEscritor(3)));
+        CompletableFuture<ProcessResult> leitor = processManager.submeter(new Program("Leitor", new Word[] {
+            new Word(Opcode.LDI, 1, -1, 3),      // R1 = 3
+            new Word(Opcode.LDD, 0, -1, 30),     // loop: R0 = MEM[30] (página lógica 3)
+            new Word(Opcode.SUBI, 1, -1, 1),
+            new Word(Opcode.JMPIGK, -1, 1, 1),   // R1 > 0: volta ao loop
+            new Word(Opcode.STOP, -1, -1, -1)
+        }));
+        processManager.executarCPU();
+        assert escritor.join().getMotivoTermino() == MotivoTermino.NORMAL;
+        assert leitor.join().getMotivoTermino() == MotivoTermino.NORMAL;
+        
+        assert perfil.getTotal() == hardware.cpu.getCiclos();
+        assert perfil.getExecucoes(Opcode.STOP) == 2 && perfil.getExecucoes(Opcode.SYSCALL) == 3;
+        assert perfil.getExecucoes("Leitor", 2) == 3 && perfil.getExecucoes("Escritor", 5) == 3;
+        assert perfil.getTomados("Leitor", 3) == 2 && perfil.getNaoTomados("Leitor", 3) == 1;
+        assert perfil.getTomados("Escritor", 8) == 2 && perfil.getNaoTomados("Escritor", 8) == 1;
+        assert perfil.getLeituras("Leitor", 3) == 3 && perfil.getEscritas("Leitor", 3) == 0;
+        assert perfil.getEscritas("Escritor", 2) == 3; // MEM[20]
+        
+        String relatorio = perfil.getRelatorio(20);
+        assert relatorio.contains("Leitor:3 JMPIGK") && relatorio.contains("(desvio: 2 tomados, 1 nao tomados)");
+        assert relatorio.contains("Leitor pagina 3: 3 leituras, 0 escritas");
+        String pilhas = perfil.getPilhasDobradas();
+        assert pilhas.contains("Leitor;pc2:SUBI 3\n") && pilhas.contains("Escritor;pc9:STOP 1\n");
+        long somaPilhas = 0;
+        for (String linha : pilhas.split("\n")) {
+            somaPilhas += Long.parseLong(linha.substring(linha.lastIndexOf(' ') + 1));
+        }
+        assert somaPilhas == perfil.getTotal();
+        hardware.desligar();
+
+        // Dois processos do mesmo programa trocados logo após o desvio: cada um decide o seu
+        hardware = new HW(1024);
+        processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        perfil = new Perfilador(8);
+        hardware.cpu.setRastreador(perfil);
+        processManager.setQuantum(4); // LDI, LDD, SUBI, JMPIGK | troca
+        Word[] gemeo = {
+            new Word(Opcode.LDI, 1, -1, 3),
+            new Word(Opcode.LDD, 0, -1, 30),
+            new Word(Opcode.SUBI, 1, -1, 1),
+            new Word(Opcode.JMPIGK, -1, 1, 1),
+            new Word(Opcode.STOP, -1, -1, -1)
+        };
+        CompletableFuture<ProcessResult> primeiro = processManager.submeter(new Program("Gemeo", gemeo));
+        CompletableFuture<ProcessResult> segundo = processManager.submeter(new Program("Gemeo", gemeo));
+        processManager.executarCPU();
+        assert primeiro.join().getMotivoTermino() == MotivoTermino.NORMAL;
+        assert segundo.join().getMotivoTermino() == MotivoTermino.NORMAL;
+        assert perfil.getTomados("Gemeo", 3) == 4 : perfil.getTomados("Gemeo", 3);
+        assert perfil.getNaoTomados("Gemeo", 3) == 2 : perfil.getNaoTomados("Gemeo", 3);
+
+        // Reinício com o perfilador instalado: o pid 1 volta, mas o desvio pendente do processo antigo não
+        perfil.contexto(1, "Gemeo");
+        perfil.instrucao(40, new Word(Opcode.JMPIG, 0, 1, -1), new int[10]);
+        processManager.reiniciar();
+        CompletableFuture<ProcessResult> depois = processManager.submeter(new Program("Gemeo", gemeo));
+        processManager.executarCPU();
+        assert depois.join().getMotivoTermino() == MotivoTermino.NORMAL;
+        assert perfil.getTomados("Gemeo", 40) == 0 && perfil.getNaoTomados("Gemeo", 40) == 0;
+        assert perfil.getTomados("Gemeo", 3) == 6 && perfil.getNaoTomados("Gemeo", 3) == 3;
+        hardware.desligar();
+
+        // Pid de volta com outro programa: o desvio pendente é descartado, não aplicado ao novo perfil
+        Perfilador avulso = new Perfilador(8);
+        int[] regs = new int[10];
+        avulso.contexto(1, "A");
+        avulso.instrucao(40, new Word(Opcode.JMPIG, 0, 1, -1), regs);
+        avulso.contexto(2, "B");
+        avulso.instrucao(0, new Word(Opcode.LDI, 0, -1, 1), regs);
+        avulso.contexto(1, "C");
+        avulso.instrucao(0, new Word(Opcode.LDI, 0, -1, 1), regs);
+        assert avulso.getTomados("A", 40) == 0 && avulso.getNaoTomados("A", 40) == 0;
+        assert avulso.getTomados("C", 40) == 0 && avulso.getExecucoes("C", 0) == 1;
+        
+        System.out.println("✓ Teste Perfilador passou\n");
+    }
+    
+    /**
+     * Teste 29: Registro de métricas do SO, texto do Prometheus, despejo periódico e JMX
+     */
+    public static void testarMetricas() {
+        System.out.println("=== TESTE 29: Métricas ===");
+        
+        // Histograma log-linear: percentis com erro relativo < 1/64 em toda a escala
+        Metricas avulsas = new Metricas();
+        Metricas.Histograma valores = avulsas.histograma("teste_valores", "Valores de 1 a 100000", 1);
+        for (long v = 1; v <= 100_000; v++) {
+            valores.registrar(v);
+        }
+        assert valores.getContagem() == 100_000 && valores.getMaximo() == 100_000;
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            double exato = q * 100_000;
+            assert Math.abs(valores.getPercentil(q) - exato) / exato < 1.0 / 64 : q + ": " + valores.getPercentil(q);
+        }
+        assert valores.getPercentil(1.0) == 100_000;
+        valores.registrar(Long.MAX_VALUE); // Último balde
+        assert valores.getPercentil(1.0) == Long.MAX_VALUE;
+        assert avulsas.contador("teste_total", "Contador") == avulsas.contador("teste_total", "Contador");
+        try {
+            avulsas.contador("teste_valores", "Nome de outro tipo");
+            assert false : "Nome já registrado como histograma";
+        } catch (IllegalArgumentException e) {
+            // esperado
+        }
+        try {
+            avulsas.contador("teste-invalido", "Nome fora do formato do Prometheus");
+            assert false : "Nome inválido aceito";
+        } catch (IllegalArgumentException e) {
+            // esperado
+        }
+        
+        // Dois núcleos com E/S: cada Eco faz 3 leituras, 3 escritas e STOP
+        HW hardware = new HW(1024, 2);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        hardware.io.setEntrada(new BufferedReader(new StringReader("1\n2\n3\n4\n5\n6\n")));
+        Metricas metricas = processManager.getMetricas();
+        ProcessControlBlock a = processManager.criarProcesso("EcoA", criarProgramaEco(3));
+        ProcessControlBlock b = processManager.criarProcesso("EcoB", criarProgramaEco(3));
+        processManager.admitirProcesso(a.getPid());
+        processManager.admitirProcesso(b.getPid());
+        assert ((Metricas.Medidor) metricas.get("so_frames_em_uso")).get() == 4; // 11 palavras: 2 páginas cada
+        processManager.executarCPU();
+        
+        long trocas = ((Metricas.Contador) metricas.get("so_trocas_contexto_total")).get();
+        Metricas.Histograma latencia = (Metricas.Histograma) metricas.get("so_latencia_escalonamento_segundos");
+        assert trocas >= 2 && latencia.getContagem() == trocas;
+        assert ((Metricas.Contador) metricas.get("so_syscalls_total")).get() == 14;
+        assert ((Metricas.Contador) metricas.get("so_faltas_pagina_total")).get() == 2; // Buffer MEM[20] de cada Eco
+        assert ((Metricas.Histograma) metricas.get("so_tempo_retorno_segundos")).getContagem() == 2;
+        assert ((Metricas.Medidor) metricas.get("so_frames_em_uso")).get() == 0;
+        
+        String texto = metricas.getTextoPrometheus();
+        assert texto.contains("# TYPE so_trocas_contexto_total counter\nso_trocas_contexto_total " + trocas + "\n");
+        assert texto.contains("# TYPE so_latencia_escalonamento_segundos summary\n");
+        assert texto.contains("so_latencia_escalonamento_segundos{quantile=\"0.99\"} ");
+        assert texto.contains("so_tempo_retorno_segundos_count 2\n") && texto.contains("so_frames_em_uso 0\n");
+        for (String linha : texto.split("\n")) {
+            if (!linha.startsWith("#")) {
+                assert linha.matches("[a-z_]+(\\{quantile=\"[0-9.]+\"\\})? \\S+") : linha;
+                Double.parseDouble(linha.substring(linha.lastIndexOf(' ') + 1));
+            }
+        }
+        
+        // Despejo periódico: arquivo substituído por inteiro a cada período
+        try {
+            Path arquivo = Files.createTempFile("metricas", ".prom");
+            metricas.iniciarDespejo(arquivo, 20);
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!Files.readString(arquivo, StandardCharsets.UTF_8).contains("so_syscalls_total 14\n")) {
+                assert System.nanoTime() < limite : "Despejo não gravou o arquivo";
+                Thread.sleep(10);
+            }
+            metricas.pararDespejo();
+            Files.delete(arquivo);
+        } catch (IOException | InterruptedException e) {
+            throw new AssertionError("Falha no despejo de métricas: " + e);
+        }
+        
+        // JMX: um atributo por métrica, removido junto com o MBean
+        try {
+            metricas.registrarJmx("teste29");
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nome = metricas.getNomeJmx();
+            assert servidor.isRegistered(nome);
+            assert (Long) servidor.getAttribute(nome, "so_syscalls_total") == 14;
+            assert (Long) servidor.getAttribute(nome, "so_tempo_retorno_segundos_count") == 2;
+            boolean temP99 = false;
+            for (MBeanAttributeInfo info : servidor.getMBeanInfo(nome).getAttributes()) {
+                temP99 |= info.getName().equals("so_latencia_escalonamento_segundos_p99");
+            }
+            assert temP99;
+            try {
+                servidor.invoke(nome, "zerar", new Object[0], new String[0]); // MBean sem operações
+                assert false : "invoke deveria falhar";
+            } catch (javax.management.ReflectionException e) {
+                assert e.getTargetException() instanceof NoSuchMethodException;
+            }
+            metricas.encerrar();
+            assert !servidor.isRegistered(nome) && metricas.getNomeJmx() == null;
+        } catch (javax.management.JMException e) {
+            throw new AssertionError("Falha no JMX: " + e);
+        }
+        
+        // Reinício da máquina zera as métricas
+        processManager.reiniciar();
+        assert ((Metricas.Contador) metricas.get("so_trocas_contexto_total")).get() == 0;
+        assert latencia.getContagem() == 0 && latencia.getPercentil(0.99) == 0;
+        
+        hardware.desligar();
+        System.out.println("✓ Teste Métricas passou\n");
+    }
+    
+    private static ProcessResult executarJob(ProcessManager processManager, Program programa) {
+        CompletableFuture<ProcessResult> resultado = processManager.submeter(programa);
+        processManager.executarCPU();
+        try {
+            return resultado.get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError("Futuro não completado: " + e);
+        }
+    }
+    
+    /**
+     * Escalonador adaptativo com custo de troca de 100 ciclos e 4 processos prontos,
+     * cada um com a rajada média dada
+     */
+    private static RoundRobinScheduler escalonadorComMedicoes(double alvo, long resposta, long rajada) {
+        RoundRobinScheduler escalonador = new RoundRobinScheduler(10);
+        escalonador.setQuantumAdaptativo(alvo, resposta);
+        escalonador.registrarCustoTroca(1000);
+        escalonador.registrarExecucao(100, 1000);
+        for (int pid = 1; pid <= 4; pid++) {
+            ProcessControlBlock pcb = new ProcessControlBlock(pid, "P" + pid, criarProgramaSimples());
+            pcb.setEstado(ProcessState.READY);
+            pcb.adicionarCiclosRajada(rajada);
+            pcb.encerrarRajada();
+            escalonador.adicionarProcesso(pcb);
+        }
+        return escalonador;
+    }
+    
+    /**
+     * Executa um processo que faz uma leitura com o prazo dado e escreve o status e o valor lido
+     */
+    private static String executarLeituraComPrazo(int prazo) {
+        HW hardware = new HW(1024);
+        ProcessManager processManager = new ProcessManager(hardware, new MemoryManagerPonte(1024, 8));
+        hardware.io.setEntrada(new BufferedReader(new StringReader("7\n")));
+        hardware.io.setLatencia(1000);
+        ProcessControlBlock pcb = processManager.criarProcesso("LeituraComPrazo", preencher(new Word[] {
+            new Word(Opcode.LDI, 8, -1, SysCallHandling.LEITURA_COM_PRAZO),
+            new Word(Opcode.LDI, 9, -1, 20),     // buffer em MEM[20]
+            new Word(Opcode.LDI, 7, -1, prazo),
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.STD, 8, -1, 21),     // status em MEM[21]
+            new Word(Opcode.LDI, 8, -1, 2),
+            new Word(Opcode.LDI, 9, -1, 21),
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.LDI, 9, -1, 20),
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.STOP, -1, -1, -1)
+        }, 24));
+        hardware.console.capturarEmMemoria(pcb.getPid());
+        processManager.admitirProcesso(pcb.getPid());
+        processManager.executarCPU();
+        assert pcb.getMotivoTermino() == MotivoTermino.NORMAL;
+        return hardware.console.getSaidaCapturada(pcb.getPid());
+    }
+    
+    /**
+     * Programa escritor de 1..n com a imagem preenchida por dados até o tamanho dado
+     */
+    private static Word[] criarProgramaPreenchido(int n, int tamanho) {
+        return preencher(criarProgramaEscritor(n), tamanho);
+    }
+    
+    /**
+     * Completa a imagem do programa com dados até o tamanho dado
+     */
+    private static Word[] preencher(Word[] codigo, int tamanho) {
+        Word[] programa = java.util.Arrays.copyOf(codigo, tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            if (programa[i] == null) {
+                programa[i] = new Word(Opcode.DATA, -1, -1, 0);
+            }
+        }
+        return programa;
+    }
+    
+    /**
+     * Programa que lê n inteiros e escreve cada um de volta
+     */
+    private static Word[] criarProgramaEco(int n) {
+        return new Word[] {
+            new Word(Opcode.LDI, 0, -1, 0),      // R0 = contador
+            new Word(Opcode.LDI, 9, -1, 20),     // buffer em MEM[20]
+            new Word(Opcode.LDI, 8, -1, 1),      // loop: leitura
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.LDI, 8, -1, 2),      // escrita
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.ADDI, 0, -1, 1),
+            new Word(Opcode.MOVE, 2, 0, -1),
+            new Word(Opcode.SUBI, 2, -1, n),
+            new Word(Opcode.JMPILK, -1, 2, 2),   // R0 < n: volta ao loop
+            new Word(Opcode.STOP, -1, -1, -1)
+        };
+    }
+    
+    /**
+     * Programa que escreve os valores 1..n, um SYSCALL de escrita por valor
+     */
+    private static Word[] criarProgramaEscritor(int n) {
+        return new Word[] {
+            new Word(Opcode.LDI, 0, -1, 1),      // R0 = 1
+            new Word(Opcode.LDI, 8, -1, 2),      // escrita
+            new Word(Opcode.LDI, 9, -1, 20),     // de MEM[20]
+            new Word(Opcode.STD, 0, -1, 20),     // loop: MEM[20] = R0
+            new Word(Opcode.SYSCALL, -1, -1, -1),
+            new Word(Opcode.ADDI, 0, -1, 1),
+            new Word(Opcode.MOVE, 2, 0, -1),
+            new Word(Opcode.SUBI, 2, -1, n + 1),
+            new Word(Opcode.JMPILK, -1, 2, 3),   // R0 <= n: volta ao loop
+            new Word(Opcode.STOP, -1, -1, -1)
+        };
+    }
+    
     /**
      * Cria um programa simples para testes
      */
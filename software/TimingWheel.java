@@ -0,0 +1,296 @@
+package software;
+
+import hardware.RelogioSimulado;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Roda de temporizadores hierárquica (timing wheel) dirigida pelo relógio simulado
+ *
+ * NIVEIS níveis de 64 posições: a posição de um temporizador é o dígito (base 64)
+ * mais alto em que seu prazo difere do instante atual da roda. Quando os dígitos
+ * inferiores do instante zeram, a posição correspondente do nível de cima desce
+ * (cascata) para os níveis de baixo; no nível 0 o prazo é exatamente o instante.
+ * Prazos além do último nível ficam numa lista de distantes, reavaliada a cada
+ * volta completa da roda.
+ *
+ * Inserir e cancelar são O(1): cada posição é uma lista duplamente encadeada e o
+ * temporizador conhece a sua. Um mapa de bits por nível aponta a próxima posição
+ * ocupada, então avançar sobre tempo vazio não percorre posição a posição.
+ * A roda mantém um único evento no relógio, armado para a próxima posição ocupada.
+ */
+public class TimingWheel {
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;   // 64 posições por nível
+    private static final int NIVEIS = 4;             // Alcance: 64^4 = 2^24 ciclos
+    private static final int DISTANTES = NIVEIS;     // "Nível" da lista de prazos além do alcance
+
+    /**
+     * Temporizador agendado; cancelável enquanto ativo
+     */
+    public static final class Temporizador {
+        private final long expiracao;
+        private final Runnable acao;
+        private Temporizador anterior;
+        private Temporizador proximo;
+        private volatile int nivel = -1;             // -1: disparado ou cancelado
+        private int posicao;
+
+        private Temporizador(long expiracao, Runnable acao) {
+            this.expiracao = expiracao;
+            this.acao = acao;
+        }
+
+        public long getExpiracao() {
+            return expiracao;
+        }
+
+        public boolean isAtivo() {
+            return nivel >= 0;
+        }
+    }
+
+    private final RelogioSimulado relogio;
+    private final Temporizador[][] posicoes;          // Cabeça da lista de cada posição
+    private final long[] ocupadas;                    // Bit i: posição i do nível tem temporizadores
+    private Temporizador distantes;
+    private long atual;                               // Prazos até aqui já dispararam
+    private int ativos;
+
+    private RelogioSimulado.Evento evento;            // Evento do relógio armado para a próxima posição ocupada
+    private long instanteArmado;
+
+    // Estatísticas
+    private long totalAgendados;
+    private long totalCancelados;
+    private long totalDisparados;
+    private long totalCascatas;
+
+    public TimingWheel(RelogioSimulado relogio) {
+        this.relogio = relogio;
+        this.posicoes = new Temporizador[NIVEIS][POSICOES];
+        this.ocupadas = new long[NIVEIS];
+        this.atual = relogio.agora();
+        this.instanteArmado = Long.MAX_VALUE;
+    }
+
+    /**
+     * Agenda a ação para o instante simulado dado (no mínimo o próximo ciclo)
+     */
+    public Temporizador agendar(long expiracao, Runnable acao) {
+        Temporizador t;
+        synchronized (this) {
+            t = new Temporizador(Math.max(expiracao, atual + 1), acao);
+            inserir(t);
+            ativos++;
+            totalAgendados++;
+        }
+        rearmar();
+        return t;
+    }
+
+    /**
+     * Cancela o temporizador; false se já disparou ou foi cancelado
+     */
+    public synchronized boolean cancelar(Temporizador t) {
+        if (!t.isAtivo()) {
+            return false;
+        }
+        remover(t);
+        ativos--;
+        totalCancelados++;
+        return true; // O evento armado pode disparar à toa: só reavalia a roda
+    }
+
+    public synchronized int getAtivos() {
+        return ativos;
+    }
+
+    public synchronized long getTotalAgendados() {
+        return totalAgendados;
+    }
+
+    /**
+     * Próximo instante em que a roda precisa avançar (Long.MAX_VALUE se vazia)
+     */
+    public synchronized long getProximoInstante() {
+        return proximoInstanteRelevante();
+    }
+
+    private void inserir(Temporizador t) {
+        int nivel = nivelPara(t.expiracao);
+        int posicao = nivel == DISTANTES ? 0 : (int) (t.expiracao >>> (BITS * nivel)) & (POSICOES - 1);
+        t.nivel = nivel;
+        t.posicao = posicao;
+        Temporizador cabeca = nivel == DISTANTES ? distantes : posicoes[nivel][posicao];
+        t.anterior = null;
+        t.proximo = cabeca;
+        if (cabeca != null) {
+            cabeca.anterior = t;
+        }
+        if (nivel == DISTANTES) {
+            distantes = t;
+        } else {
+            posicoes[nivel][posicao] = t;
+            ocupadas[nivel] |= 1L << posicao;
+        }
+    }
+
+    private void remover(Temporizador t) {
+        if (t.anterior != null) {
+            t.anterior.proximo = t.proximo;
+        } else if (t.nivel == DISTANTES) {
+            distantes = t.proximo;
+        } else {
+            posicoes[t.nivel][t.posicao] = t.proximo;
+            if (t.proximo == null) {
+                ocupadas[t.nivel] &= ~(1L << t.posicao);
+            }
+        }
+        if (t.proximo != null) {
+            t.proximo.anterior = t.anterior;
+        }
+        t.anterior = null;
+        t.proximo = null;
+        t.nivel = -1;
+    }
+
+    /**
+     * Nível do dígito mais alto em que o prazo difere do instante atual
+     */
+    private int nivelPara(long expiracao) {
+        long diferenca = expiracao ^ atual;
+        int bitMaisAlto = 63 - Long.numberOfLeadingZeros(diferenca);
+        int nivel = bitMaisAlto / BITS;
+        return nivel >= NIVEIS ? DISTANTES : nivel;
+    }
+
+    /**
+     * Menor instante após o atual em que uma posição ocupada dispara ou desce
+     */
+    private long proximoInstanteRelevante() {
+        long melhor = Long.MAX_VALUE;
+        for (int nivel = 0; nivel < NIVEIS; nivel++) {
+            int digito = (int) (atual >>> (BITS * nivel)) & (POSICOES - 1);
+            long acima = digito == POSICOES - 1 ? 0 : ocupadas[nivel] & (-1L << (digito + 1));
+            if (acima != 0) {
+                long bloco = (atual >>> (BITS * (nivel + 1))) << (BITS * (nivel + 1));
+                melhor = Math.min(melhor, bloco | ((long) Long.numberOfTrailingZeros(acima) << (BITS * nivel)));
+            }
+        }
+        if (distantes != null) {
+            melhor = Math.min(melhor, ((atual >>> (BITS * NIVEIS)) + 1) << (BITS * NIVEIS));
+        }
+        return melhor;
+    }
+
+    /**
+     * Avança até o instante dado, devolvendo os temporizadores vencidos em ordem de prazo
+     */
+    private List<Temporizador> avancarAte(long instante) {
+        List<Temporizador> vencidos = new ArrayList<>();
+        while (atual < instante) {
+            long proximo = proximoInstanteRelevante();
+            if (proximo > instante) {
+                atual = instante;
+                break;
+            }
+            atual = proximo;
+            if ((atual & ((1L << (BITS * NIVEIS)) - 1)) == 0 && distantes != null) {
+                Temporizador lista = distantes;
+                distantes = null;
+                cascatear(lista);
+            }
+            for (int nivel = NIVEIS - 1; nivel >= 1; nivel--) {
+                if ((atual & ((1L << (BITS * nivel)) - 1)) == 0) {
+                    int posicao = (int) (atual >>> (BITS * nivel)) & (POSICOES - 1);
+                    Temporizador lista = posicoes[nivel][posicao];
+                    posicoes[nivel][posicao] = null;
+                    ocupadas[nivel] &= ~(1L << posicao);
+                    cascatear(lista);
+                }
+            }
+            int posicao = (int) atual & (POSICOES - 1);
+            for (Temporizador t = posicoes[0][posicao]; t != null; ) {
+                Temporizador seguinte = t.proximo;
+                t.anterior = null;
+                t.proximo = null;
+                t.nivel = -1;
+                vencidos.add(t);
+                t = seguinte;
+            }
+            posicoes[0][posicao] = null;
+            ocupadas[0] &= ~(1L << posicao);
+        }
+        ativos -= vencidos.size();
+        totalDisparados += vencidos.size();
+        return vencidos;
+    }
+
+    /**
+     * Reinsere os temporizadores de uma posição em relação ao novo instante atual
+     */
+    private void cascatear(Temporizador lista) {
+        while (lista != null) {
+            Temporizador seguinte = lista.proximo;
+            totalCascatas++;
+            inserir(lista);
+            lista = seguinte;
+        }
+    }
+
+    /**
+     * Garante um evento no relógio para a próxima posição relevante
+     */
+    private void rearmar() {
+        long proximo;
+        RelogioSimulado.Evento antigo;
+        synchronized (this) {
+            proximo = proximoInstanteRelevante();
+            if (proximo >= instanteArmado) {
+                return; // Evento já armado antes (ou no mesmo instante): a roda é reavaliada quando ele disparar
+            }
+            antigo = evento;
+            evento = null;
+            instanteArmado = proximo;
+        }
+        if (antigo != null) {
+            relogio.cancelar(antigo);
+        }
+        // Nunca no instante atual: o evento não dispara dentro de agendar, na thread de quem agenda
+        RelogioSimulado.Evento novo = relogio.agendar(Math.max(proximo, relogio.agora() + 1), this::aoDisparar);
+        synchronized (this) {
+            if (instanteArmado == proximo && evento == null) {
+                evento = novo;
+            }
+        }
+    }
+
+    /**
+     * Evento do relógio: avança a roda até o instante simulado e executa os vencidos
+     */
+    private void aoDisparar() {
+        List<Temporizador> vencidos;
+        synchronized (this) {
+            evento = null;
+            instanteArmado = Long.MAX_VALUE;
+            vencidos = avancarAte(Math.max(atual, relogio.agora()));
+        }
+        for (Temporizador t : vencidos) {
+            t.acao.run();
+        }
+        rearmar();
+    }
+
+    /**
+     * Estatísticas da roda de temporizadores
+     */
+    public synchronized String getEstatisticas() {
+        return String.format(
+            "=== Estatísticas dos Temporizadores ===%n" +
+            "Ativos: %d (instante da roda: %d)%n" +
+            "Agendados: %d, cancelados: %d, disparados: %d, cascatas: %d%n",
+            ativos, atual, totalAgendados, totalCancelados, totalDisparados, totalCascatas);
+    }
+}
@@ -17,6 +17,7 @@ public class Utilities {
 				m[i].rb = p[i].rb;
 				m[i].p = p[i].p;
 			}
+			hw.mem.marcarSujas(0, p.length);
 		}
 
 		// dump da memória
@@ -47,6 +48,8 @@ public class Utilities {
 			hw.cpu.setContext(0); // seta pc para endereço 0 - ponto de entrada dos programas
 			System.out.println("---------------------------------- inicia execucao ");
 			hw.cpu.run(); // cpu roda programa ate parar
+			LogKernel.flush();     // rastro da CPU ainda no anel do log
+			hw.console.esvaziar(); // saida do programa ainda no buffer do console
 			System.out.println("---------------------------------- memoria após execucao ");
 			dump(0, p.length); // dump da memoria com resultado
 		}